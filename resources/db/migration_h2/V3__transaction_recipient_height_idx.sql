@@ -0,0 +1 @@
+CREATE INDEX IF NOT EXISTS transaction_recipient_id_height_idx ON transaction (recipient_id, height, id);
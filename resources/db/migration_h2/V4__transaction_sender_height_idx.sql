@@ -0,0 +1 @@
+CREATE INDEX IF NOT EXISTS transaction_sender_id_height_idx ON transaction (sender_id, height, id);
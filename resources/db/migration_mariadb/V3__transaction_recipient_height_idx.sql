@@ -0,0 +1 @@
+CREATE INDEX transaction_recipient_id_height_idx ON transaction (recipient_id, height, id);
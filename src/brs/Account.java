@@ -212,6 +212,19 @@ public class Account {
     this.creationHeight = creationHeight;
   }
 
+  protected Account(Account account) {
+    this.id = account.id;
+    this.nxtKey = account.nxtKey;
+    this.creationHeight = account.creationHeight;
+    this.publicKey = account.publicKey;
+    this.keyHeight = account.keyHeight;
+    this.balanceNQT = account.balanceNQT;
+    this.unconfirmedBalanceNQT = account.unconfirmedBalanceNQT;
+    this.forgedBalanceNQT = account.forgedBalanceNQT;
+    this.name = account.name;
+    this.description = account.description;
+  }
+
   public long getId() {
     return id;
   }
@@ -197,10 +197,27 @@ public class Block {
     return nextBlockId.get();
   }
 
+  void setNextBlockId(long nextBlockId) {
+    this.nextBlockId.set(nextBlockId);
+  }
+
   public int getHeight() {
     return height;
   }
 
+  /**
+   * Copies this block without its transactions, which the copy loads from the database when they are asked for.
+   */
+  Block toHeader() {
+    try {
+      return new Block(version, timestamp, previousBlockId, totalAmountNQT, totalFeeNQT, payloadLength, payloadHash,
+          generatorPublicKey, generationSignature, blockSignature, previousBlockHash, cumulativeDifficulty, baseTarget,
+          getNextBlockId(), height, getId(), nonce, blockATs);
+    } catch (BurstException.ValidationException e) {
+      throw new IllegalStateException("Block " + getStringId() + " cannot be copied", e);
+    }
+  }
+
   public void setHeight(int height) {
     this.height = height;
   }
@@ -340,6 +357,114 @@ public class Block {
     return buffer.array();
   }
 
+  /**
+   * Compact encoding of the block and its transactions used by the binary peer sync mode.
+   * Unlike {@link #getBytes()} it keeps the full amounts of old block versions and
+   * distinguishes a missing blockATs from an empty one.
+   */
+  public byte[] getBinaryBytes() {
+    List<Transaction> transactions = getTransactions();
+    List<byte[]> transactionBytes = new ArrayList<>(transactions.size());
+    int size = 4 + 4 + 8 + 8 + 8 + 4 + 32 + 32 + 32 + (version > 1 ? 32 : 0) + 8
+        + 4 + (blockATs != null ? blockATs.length : 0) + 64 + 4;
+    for (Transaction transaction : transactions) {
+      byte[] bytes = transaction.getSharedBytes();
+      transactionBytes.add(bytes);
+      size += 4 + bytes.length;
+    }
+    ByteBuffer buffer = ByteBuffer.allocate(size);
+    buffer.putInt(version);
+    buffer.putInt(timestamp);
+    buffer.putLong(previousBlockId);
+    buffer.putLong(totalAmountNQT);
+    buffer.putLong(totalFeeNQT);
+    buffer.putInt(payloadLength);
+    buffer.put(payloadHash);
+    buffer.put(generatorPublicKey);
+    buffer.put(generationSignature);
+    if (version > 1) {
+      buffer.put(previousBlockHash);
+    }
+    buffer.putLong(nonce);
+    buffer.putInt(blockATs != null ? blockATs.length : -1);
+    if (blockATs != null) {
+      buffer.put(blockATs);
+    }
+    buffer.put(blockSignature);
+    buffer.putInt(transactionBytes.size());
+    for (byte[] bytes : transactionBytes) {
+      buffer.putInt(bytes.length);
+      buffer.put(bytes);
+    }
+    return buffer.array();
+  }
+
+  static Block parseBinaryBytes(byte[] bytes, int height) throws BurstException.ValidationException {
+    try {
+      ByteBuffer buffer = ByteBuffer.wrap(bytes);
+      int version = buffer.getInt();
+      int timestamp = buffer.getInt();
+      long previousBlock = buffer.getLong();
+      long totalAmountNQT = buffer.getLong();
+      long totalFeeNQT = buffer.getLong();
+      int payloadLength = buffer.getInt();
+      byte[] payloadHash = new byte[32];
+      buffer.get(payloadHash);
+      byte[] generatorPublicKey = new byte[32];
+      buffer.get(generatorPublicKey);
+      byte[] generationSignature = new byte[32];
+      buffer.get(generationSignature);
+      byte[] previousBlockHash = null;
+      if (version > 1) {
+        previousBlockHash = new byte[32];
+        buffer.get(previousBlockHash);
+      }
+      long nonce = buffer.getLong();
+      int blockATsLength = buffer.getInt();
+      byte[] blockATs = null;
+      // -1 stands for missing blockATs, any other negative length is invalid
+      if (blockATsLength < -1 || blockATsLength > buffer.remaining()) {
+        throw new BurstException.NotValidException("Invalid blockATs length in block: " + blockATsLength);
+      }
+      if (blockATsLength >= 0) {
+        blockATs = new byte[blockATsLength];
+        buffer.get(blockATs);
+      }
+      byte[] blockSignature = new byte[64];
+      buffer.get(blockSignature);
+
+      int transactionCount = buffer.getInt();
+      if (transactionCount < 0 || transactionCount > Burst.getFluxCapacitor().getValue(FluxValues.MAX_NUMBER_TRANSACTIONS, height)) {
+        throw new BurstException.NotValidException("Invalid number of transactions in block: " + transactionCount);
+      }
+      SortedMap<Long, Transaction> blockTransactions = new TreeMap<>();
+      for (int i = 0; i < transactionCount; i++) {
+        int transactionLength = buffer.getInt();
+        if (transactionLength < 0 || transactionLength > buffer.remaining()) {
+          throw new BurstException.NotValidException("Invalid transaction length in block: " + transactionLength);
+        }
+        byte[] transactionBytes = new byte[transactionLength];
+        buffer.get(transactionBytes);
+        Transaction transaction = Transaction.parseTransaction(transactionBytes, height);
+        if (transaction.getSignature() != null && blockTransactions.put(transaction.getId(), transaction) != null) {
+          throw new BurstException.NotValidException("Block contains duplicate transactions: " + transaction.getStringId());
+        }
+      }
+      if (buffer.hasRemaining()) {
+        throw new BurstException.NotValidException("Block has " + buffer.remaining() + " trailing bytes");
+      }
+
+      return new Block(version, timestamp, previousBlock, totalAmountNQT, totalFeeNQT,
+          payloadLength, payloadHash, generatorPublicKey, generationSignature, blockSignature,
+          previousBlockHash, new ArrayList<>(blockTransactions.values()), nonce, blockATs, height);
+    } catch (BurstException.ValidationException | RuntimeException e) {
+      if (logger.isDebugEnabled()) {
+        logger.debug("Failed to parse block bytes: {}", Convert.toHexString(bytes));
+      }
+      throw e;
+    }
+  }
+
   void sign(String secretPhrase) {
     if (blockSignature != null) {
       throw new IllegalStateException("Block already signed");
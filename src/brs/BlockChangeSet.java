@@ -0,0 +1,126 @@
+package brs;
+
+import brs.Attachment.*;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * The accounts, aliases, assets and goods touched by the transactions of a block, together with the accounts whose
+ * balance changed while it was accepted. Unconfirmed transactions that touch none of them keep their validity when
+ * the block is pushed, so only the others have to be checked again.
+ */
+final class BlockChangeSet {
+
+  private final Set<Long> accountIds = new HashSet<>();
+  private final Set<String> aliasNames = new HashSet<>();
+  private final Set<Long> assetIds = new HashSet<>();
+  private final Set<Long> goodsIds = new HashSet<>();
+
+  private BlockChangeSet() {
+  }
+
+  static BlockChangeSet of(Block block) {
+    return of(block, Collections.emptySet());
+  }
+
+  /**
+   * @param balanceChangedAccountIds accounts whose balance changed without a transaction of the block, e.g. by
+   *                                 subscription or AT payments and escrow settlements
+   */
+  static BlockChangeSet of(Block block, Collection<Long> balanceChangedAccountIds) {
+    BlockChangeSet changeSet = new BlockChangeSet();
+    changeSet.accountIds.addAll(balanceChangedAccountIds);
+    for (Transaction transaction : block.getTransactions()) {
+      changeSet.accountIds.add(transaction.getSenderId());
+      if (transaction.getRecipientId() != 0) {
+        changeSet.accountIds.add(transaction.getRecipientId());
+      }
+      Attachment attachment = transaction.getAttachment();
+      String aliasName = getAliasName(attachment);
+      if (aliasName != null) {
+        changeSet.aliasNames.add(aliasName);
+      }
+      long assetId = getAssetId(attachment);
+      if (assetId != 0) {
+        changeSet.assetIds.add(assetId);
+      }
+      long goodsId = getGoodsId(attachment);
+      if (goodsId != 0) {
+        changeSet.goodsIds.add(goodsId);
+      }
+    }
+    return changeSet;
+  }
+
+  Set<Long> getAccountIds() {
+    return accountIds;
+  }
+
+  boolean affects(Transaction transaction) {
+    Attachment attachment = transaction.getAttachment();
+    if (dependsOnBlockProcessing(attachment)) {
+      return true;
+    }
+    if (accountIds.contains(transaction.getSenderId())
+        || (transaction.getRecipientId() != 0 && accountIds.contains(transaction.getRecipientId()))) {
+      return true;
+    }
+    String aliasName = getAliasName(attachment);
+    return (aliasName != null && aliasNames.contains(aliasName))
+        || assetIds.contains(getAssetId(attachment))
+        || goodsIds.contains(getGoodsId(attachment));
+  }
+
+  /**
+   * Orders are filled by matching, escrows and subscriptions are settled and purchases expire while a block is
+   * accepted, without a transaction of the block naming them. Transactions referring to them are always checked.
+   */
+  private static boolean dependsOnBlockProcessing(Attachment attachment) {
+    return attachment instanceof ColoredCoinsOrderCancellation
+        || attachment instanceof DigitalGoodsDelivery
+        || attachment instanceof DigitalGoodsFeedback
+        || attachment instanceof DigitalGoodsRefund
+        || attachment instanceof AdvancedPaymentEscrowSign
+        || attachment instanceof AdvancedPaymentEscrowResult
+        || attachment instanceof AdvancedPaymentSubscriptionCancel
+        || attachment instanceof AdvancedPaymentSubscriptionPayment;
+  }
+
+  private static String getAliasName(Attachment attachment) {
+    String aliasName = null;
+    if (attachment instanceof MessagingAliasAssignment) {
+      aliasName = ((MessagingAliasAssignment) attachment).getAliasName();
+    } else if (attachment instanceof MessagingAliasSell) {
+      aliasName = ((MessagingAliasSell) attachment).getAliasName();
+    } else if (attachment instanceof MessagingAliasBuy) {
+      aliasName = ((MessagingAliasBuy) attachment).getAliasName();
+    }
+    return aliasName == null ? null : aliasName.toLowerCase(Locale.ROOT);
+  }
+
+  private static long getAssetId(Attachment attachment) {
+    if (attachment instanceof ColoredCoinsAssetTransfer) {
+      return ((ColoredCoinsAssetTransfer) attachment).getAssetId();
+    } else if (attachment instanceof ColoredCoinsOrderPlacement) {
+      return ((ColoredCoinsOrderPlacement) attachment).getAssetId();
+    }
+    return 0;
+  }
+
+  private static long getGoodsId(Attachment attachment) {
+    if (attachment instanceof DigitalGoodsDelisting) {
+      return ((DigitalGoodsDelisting) attachment).getGoodsId();
+    } else if (attachment instanceof DigitalGoodsPriceChange) {
+      return ((DigitalGoodsPriceChange) attachment).getGoodsId();
+    } else if (attachment instanceof DigitalGoodsQuantityChange) {
+      return ((DigitalGoodsQuantityChange) attachment).getGoodsId();
+    } else if (attachment instanceof DigitalGoodsPurchase) {
+      return ((DigitalGoodsPurchase) attachment).getGoodsId();
+    }
+    return 0;
+  }
+}
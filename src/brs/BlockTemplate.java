@@ -0,0 +1,67 @@
+package brs;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Everything of a block to be forged on top of a given block, except for what depends on the forging account.
+ * It stays valid as long as the chain and the unconfirmed transactions do not change and the block gets the
+ * timestamp it was prepared for, because both the transaction priorities and the subscription fees depend on it.
+ */
+final class BlockTemplate {
+
+  private final long previousBlockId;
+  private final int timestamp;
+  private final long unconfirmedTransactionsVersion;
+  private final List<Transaction> transactions;
+  private final long totalAmountNQT;
+  private final long totalFeeNQT;
+  private final int payloadLength;
+  private final byte[] payloadHash;
+  private final byte[] blockATs;
+
+  BlockTemplate(long previousBlockId, int timestamp, long unconfirmedTransactionsVersion, List<Transaction> transactions,
+                long totalAmountNQT, long totalFeeNQT, int payloadLength, byte[] payloadHash, byte[] blockATs) {
+    this.previousBlockId = previousBlockId;
+    this.timestamp = timestamp;
+    this.unconfirmedTransactionsVersion = unconfirmedTransactionsVersion;
+    this.transactions = Collections.unmodifiableList(transactions);
+    this.totalAmountNQT = totalAmountNQT;
+    this.totalFeeNQT = totalFeeNQT;
+    this.payloadLength = payloadLength;
+    this.payloadHash = payloadHash;
+    this.blockATs = blockATs;
+  }
+
+  boolean isFor(Block previousBlock, int timestamp) {
+    return previousBlockId == previousBlock.getId() && this.timestamp == timestamp;
+  }
+
+  boolean isFor(Block previousBlock, int timestamp, long unconfirmedTransactionsVersion) {
+    return isFor(previousBlock, timestamp) && this.unconfirmedTransactionsVersion == unconfirmedTransactionsVersion;
+  }
+
+  List<Transaction> getTransactions() {
+    return transactions;
+  }
+
+  long getTotalAmountNQT() {
+    return totalAmountNQT;
+  }
+
+  long getTotalFeeNQT() {
+    return totalFeeNQT;
+  }
+
+  int getPayloadLength() {
+    return payloadLength;
+  }
+
+  byte[] getPayloadHash() {
+    return payloadHash;
+  }
+
+  byte[] getBlockATs() {
+    return blockATs;
+  }
+}
@@ -0,0 +1,52 @@
+package brs;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the block template prepared in the background and decides when it has to be prepared again.
+ * Building a template holds the download cache and unconfirmed transactions locks, so a template that is only
+ * outdated because the unconfirmed transactions changed is not rebuilt on every change: the pool has to stay the
+ * same for one check, or the template has to be older than the rebuild interval.
+ */
+final class BlockTemplateCache {
+
+  private final AtomicReference<BlockTemplate> template = new AtomicReference<>();
+  private final long rebuildIntervalMillis;
+
+  private long builtAtMillis;
+  private long lastSeenUnconfirmedTransactionsVersion = -1;
+
+  BlockTemplateCache(long rebuildIntervalMillis) {
+    this.rebuildIntervalMillis = rebuildIntervalMillis;
+  }
+
+  /**
+   * @return whether a template for the given block, timestamp and unconfirmed transactions should be built now
+   */
+  synchronized boolean needsRebuild(Block previousBlock, int timestamp, long unconfirmedTransactionsVersion, long nowMillis) {
+    BlockTemplate current = template.get();
+    if (current == null || !current.isFor(previousBlock, timestamp)) {
+      return true;
+    }
+    if (current.isFor(previousBlock, timestamp, unconfirmedTransactionsVersion)) {
+      return false;
+    }
+    boolean settled = unconfirmedTransactionsVersion == lastSeenUnconfirmedTransactionsVersion;
+    lastSeenUnconfirmedTransactionsVersion = unconfirmedTransactionsVersion;
+    return settled || nowMillis - builtAtMillis >= rebuildIntervalMillis;
+  }
+
+  synchronized void set(BlockTemplate blockTemplate, long nowMillis) {
+    template.set(blockTemplate);
+    builtAtMillis = nowMillis;
+  }
+
+  /**
+   * Takes the template for forging, a template is used for one block at most.
+   * @return the template if it is still valid for the given block, timestamp and unconfirmed transactions, null otherwise
+   */
+  BlockTemplate take(Block previousBlock, int timestamp, long unconfirmedTransactionsVersion) {
+    BlockTemplate current = template.getAndSet(null);
+    return current != null && current.isFor(previousBlock, timestamp, unconfirmedTransactionsVersion) ? current : null;
+  }
+}
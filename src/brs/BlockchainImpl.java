@@ -17,12 +17,16 @@ public class BlockchainImpl implements Blockchain {
   private final BlockchainStore blockchainStore;
   
   private final StampedLock bcsl;
+  private final RecentBlocks recentBlocks;
+  private final int recentBlocksSize;
   
-  BlockchainImpl(TransactionDb transactionDb, BlockDb blockDb, BlockchainStore blockchainStore) {
+  BlockchainImpl(TransactionDb transactionDb, BlockDb blockDb, BlockchainStore blockchainStore, int recentBlocksSize) {
     this.transactionDb = transactionDb;
     this.blockDb = blockDb;
     this.blockchainStore = blockchainStore;
     this.bcsl = new StampedLock();
+    this.recentBlocks = new RecentBlocks(recentBlocksSize);
+    this.recentBlocksSize = recentBlocksSize;
   }
 
   private final AtomicReference<Block> lastBlock = new AtomicReference<>();
@@ -41,6 +45,7 @@ public class BlockchainImpl implements Blockchain {
     long stamp = bcsl.writeLock();
     try {
       lastBlock.set(block);
+      updateRecentBlocks(block);
     } finally {
       bcsl.unlockWrite(stamp);
     }
@@ -52,11 +57,21 @@ public class BlockchainImpl implements Blockchain {
       if (! lastBlock.compareAndSet(previousBlock, block)) {
         throw new IllegalStateException("Last block is no longer previous block");
       }
+      updateRecentBlocks(block);
     } finally {
       bcsl.unlockWrite(stamp);
     }
   }
 
+  private void updateRecentBlocks(Block block) {
+    if (!recentBlocks.setLastBlock(block) && block.getHeight() > 0) {
+      // the chain was replaced as a whole, as on startup: fill the cache from the database again
+      recentBlocks.clear();
+      blockchainStore.getLatestBlocks(recentBlocksSize - 1).forEach(recentBlocks::setLastBlock);
+      recentBlocks.setLastBlock(block);
+    }
+  }
+
   @Override
   public int getHeight() {  
     Block last = getLastBlock();
@@ -69,7 +84,8 @@ public class BlockchainImpl implements Blockchain {
     if (timestamp >= block.getTimestamp()) {
       return block;
     }
-    return blockDb.findLastBlock(timestamp);
+    Block recentBlock = recentBlocks.getLastBlock(timestamp);
+    return recentBlock != null ? recentBlock : blockDb.findLastBlock(timestamp);
   }
 
   @Override
@@ -78,12 +94,13 @@ public class BlockchainImpl implements Blockchain {
     if (block.getId() == blockId) {
       return block;
     }
-    return blockDb.findBlock(blockId);
+    Block recentBlock = recentBlocks.getBlock(blockId);
+    return recentBlock != null ? recentBlock : blockDb.findBlock(blockId);
   }
 
   @Override
   public boolean hasBlock(long blockId) {
-    return getLastBlock().getId() == blockId || blockDb.hasBlock(blockId);
+    return getLastBlock().getId() == blockId || recentBlocks.hasBlock(blockId) || blockDb.hasBlock(blockId);
   }
 
   @Override
@@ -120,7 +137,8 @@ public class BlockchainImpl implements Blockchain {
     if (height == block.getHeight()) {
       return block.getId();
     }
-    return blockDb.findBlockIdAtHeight(height);
+    Block recentBlock = recentBlocks.getBlockAtHeight(height);
+    return recentBlock != null ? recentBlock.getId() : blockDb.findBlockIdAtHeight(height);
   }
 
   @Override
@@ -132,7 +150,8 @@ public class BlockchainImpl implements Blockchain {
     if (height == block.getHeight()) {
       return block;
     }
-    return blockDb.findBlockAtHeight(height);
+    Block recentBlock = recentBlocks.getBlockAtHeight(height);
+    return recentBlock != null ? recentBlock : blockDb.findBlockAtHeight(height);
   }
 
   @Override
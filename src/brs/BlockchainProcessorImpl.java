@@ -13,6 +13,7 @@ import brs.db.store.BlockchainStore;
 import brs.db.store.DerivedTableManager;
 import brs.db.store.Stores;
 import brs.fluxcapacitor.FluxValues;
+import brs.peer.BinaryBlockCodec;
 import brs.peer.Peer;
 import brs.peer.Peers;
 import brs.props.PropertyService;
@@ -33,6 +34,9 @@ import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.security.MessageDigest;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -40,6 +44,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
+import java.util.function.IntSupplier;
 import java.util.function.ToLongFunction;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -76,6 +81,11 @@ public final class BlockchainProcessorImpl implements BlockchainProcessor {
 
   private final Semaphore gpuUsage = new Semaphore(2);
 
+  private final int cpuVerifyBatchSize;
+  private final boolean binaryBlocks;
+  private final int parallelDownloadPeers;
+  private final int parallelDownloadBlocks;
+
   private final boolean trimDerivedTables;
   private final AtomicInteger lastTrimHeight = new AtomicInteger();
 
@@ -85,6 +95,7 @@ public final class BlockchainProcessorImpl implements BlockchainProcessor {
   private final AtomicBoolean getMoreBlocks = new AtomicBoolean(true);
 
   private final AtomicBoolean isScanning = new AtomicBoolean(false);
+  private final BlockTemplateCache blockTemplateCache;
 
   private final boolean autoPopOffEnabled;
   private int autoPopOffLastStuckHeight = 0;
@@ -128,6 +139,10 @@ public final class BlockchainProcessorImpl implements BlockchainProcessor {
 
     oclVerify = propertyService.getBoolean(Props.GPU_ACCELERATION); // use GPU acceleration ?
     oclUnverifiedQueue = propertyService.getInt(Props.GPU_UNVERIFIED_QUEUE);
+    cpuVerifyBatchSize = Math.max(propertyService.getInt(Props.CPU_VERIFY_BATCH_SIZE), 1);
+    binaryBlocks = propertyService.getBoolean(Props.P2P_BINARY_BLOCKS);
+    parallelDownloadPeers = propertyService.getInt(Props.P2P_PARALLEL_DOWNLOAD_PEERS);
+    parallelDownloadBlocks = Math.min(Math.max(propertyService.getInt(Props.P2P_PARALLEL_DOWNLOAD_BLOCKS), 1), 1400);
 
     trimDerivedTables = propertyService.getBoolean(Props.DB_TRIM_DERIVED_TABLES);
 
@@ -144,7 +159,9 @@ public final class BlockchainProcessorImpl implements BlockchainProcessor {
       }
     }, Event.BLOCK_PUSHED);
 
-    blockListeners.addListener(block -> transactionProcessor.revalidateUnconfirmedTransactions(), Event.BLOCK_PUSHED);
+    blockListeners.addListener(transactionProcessor::revalidateUnconfirmedTransactions, Event.BLOCK_PUSHED);
+    blockListeners.addListener(block -> transactionProcessor.requireFullRevalidation(), Event.BLOCK_POPPED);
+    blockListeners.addListener(block -> blockDb.maintainPartitions(block.getHeight()), Event.BLOCK_PUSHED);
 
     if (trimDerivedTables) {
       blockListeners.addListener(block -> {
@@ -257,28 +274,32 @@ public final class BlockchainProcessorImpl implements BlockchainProcessor {
                 }
               }
 
-              JsonArray nextBlocks = getNextBlocks(peer, commonBlockId);
-              if (nextBlocks == null || nextBlocks.size() == 0) {
-                logger.debug("Peer did not feed us any blocks");
-                return;
-              }
-
-              // download blocks from peer
               Block lastBlock = downloadCache.getBlock(commonBlockId);
               if (lastBlock == null) {
                 logger.info("Error: lastBlock is null");
                 return;
               }
 
+              // download blocks from peer, or from several peers if we are far behind
+              List<DownloadedBlock> nextBlocks;
+              if (saveInCache && parallelDownloadPeers > 1
+                  && lastBlockchainFeederHeight.get() - lastBlock.getHeight() > parallelDownloadBlocks) {
+                nextBlocks = getBlocksFromPeers(peer, lastBlock.getHeight(), lastBlockchainFeederHeight.get());
+              } else {
+                nextBlocks = getNextBlocks(peer, commonBlockId);
+              }
+              if (nextBlocks == null || nextBlocks.isEmpty()) {
+                logger.debug("Peer did not feed us any blocks");
+                return;
+              }
+
               // loop blocks and make sure they fit in chain
               Block block;
-              JsonObject blockData;
 
-              for (JsonElement o : nextBlocks) {
+              for (DownloadedBlock downloadedBlock : nextBlocks) {
                 int height = lastBlock.getHeight() + 1;
-                blockData = JSON.getAsJsonObject(o);
                 try {
-                  block = Block.parseBlock(blockData, height);
+                  block = downloadedBlock.parse(height);
                   // Make sure it maps back to chain
                   if (lastBlock.getId() != block.getPreviousBlockId()) {
                     logger.debug("Discarding downloaded data. Last downloaded blocks is rubbish");
@@ -287,8 +308,8 @@ public final class BlockchainProcessorImpl implements BlockchainProcessor {
                   }
                   // set height and cumulative difficulty to block
                   block.setHeight(height);
-                  block.setPeer(peer);
-                  block.setByteLength(JSON.toJsonString(blockData).length());
+                  block.setPeer(downloadedBlock.getPeer());
+                  block.setByteLength(downloadedBlock.getByteLength());
                   blockService.calculateBaseTarget(block, lastBlock);
                   if (saveInCache) {
                     if (downloadCache.getLastBlockId() == block.getPreviousBlockId()) { //still maps back? we might have got announced/forged blocks
@@ -311,7 +332,7 @@ public final class BlockchainProcessorImpl implements BlockchainProcessor {
                 } catch (RuntimeException | BurstException.ValidationException e) {
                   logger.info("Failed to parse block: {}" + e.toString(), e);
                   logger.info("Failed to parse block trace: {}", Arrays.toString(e.getStackTrace()));
-                  peer.blacklist(e, "pulled invalid data using getCumulativeDifficulty");
+                  downloadedBlock.getPeer().blacklist(e, "pulled invalid data using getCumulativeDifficulty");
                   return;
                 } catch (Exception e) {
                   logger.warn("Unhandled exception {}" + e.toString(), e);
@@ -437,7 +458,7 @@ public final class BlockchainProcessorImpl implements BlockchainProcessor {
         throw new InterruptedException("interrupted");
       }
 
-      private JsonArray getNextBlocks(Peer peer, long curBlockId) {
+      private List<DownloadedBlock> getNextBlocks(Peer peer, long curBlockId) {
 
         JsonObject request = new JsonObject();
         request.addProperty("requestType", "getNextBlocks");
@@ -445,21 +466,167 @@ public final class BlockchainProcessorImpl implements BlockchainProcessor {
         if (logger.isDebugEnabled()) {
           logger.debug("Getting next Blocks after {} from {}", curBlockId, peer.getPeerAddress());
         }
+        // older peers may still answer in JSON with more blocks than binary answers ever hold
+        return requestBlocks(peer, request, BinaryBlockCodec.MAX_NEXT_BLOCKS, 1440);
+      }
+
+      private List<DownloadedBlock> getBlocksFromHeight(Peer peer, int height, int numBlocks) {
+
+        JsonObject request = new JsonObject();
+        request.addProperty("requestType", "getBlocksFromHeight");
+        request.addProperty("height", height);
+        request.addProperty("numBlocks", numBlocks);
+        if (logger.isDebugEnabled()) {
+          logger.debug("Getting {} Blocks after height {} from {}", numBlocks, height, peer.getPeerAddress());
+        }
+        return requestBlocks(peer, request, numBlocks, numBlocks);
+      }
+
+      /**
+       * Fetches the blocks following the common block from several peers at once, each of them serving a
+       * consecutive range of heights. The first range comes from the feeding peer. Every further range has to link to
+       * the last block of the range before it, so all of them are anchored on the feeder's chain. A range that failed
+       * or does not link is requested from the feeder instead: if the feeder's range links, the helper was on another
+       * chain, otherwise the helper of the previous range was, and that helper is blacklisted and its range dropped.
+       * The ranges are returned in order, up to the first one that failed or came back incomplete, and the caller still
+       * checks every single block.
+       */
+      private List<DownloadedBlock> getBlocksFromPeers(Peer peer, int commonHeight, int peerHeight) {
+        List<Peer> downloadPeers = new ArrayList<>();
+        downloadPeers.add(peer);
+        List<Peer> helpers = new ArrayList<>(Peers.getPeers(Peer.State.CONNECTED));
+        Collections.shuffle(helpers);
+        for (Peer helper : helpers) {
+          if (downloadPeers.size() >= parallelDownloadPeers) {
+            break;
+          }
+          if (helper != peer && !helper.isBlacklisted()) {
+            downloadPeers.add(helper);
+          }
+        }
+
+        int ranges = Math.min(downloadPeers.size(), (peerHeight - commonHeight + parallelDownloadBlocks - 1) / parallelDownloadBlocks);
+        List<CompletableFuture<List<DownloadedBlock>>> downloads = new ArrayList<>(ranges);
+        for (int i = 0; i < ranges; i++) {
+          Peer downloadPeer = downloadPeers.get(i);
+          int height = commonHeight + i * parallelDownloadBlocks;
+          downloads.add(Peers.downloadNonBlocking(() -> getBlocksFromHeight(downloadPeer, height, parallelDownloadBlocks)));
+        }
+
+        List<DownloadedBlock> nextBlocks = new ArrayList<>();
+        Peer previousRangePeer = peer;
+        for (int i = 0; i < ranges; i++) {
+          List<DownloadedBlock> range;
+          try {
+            range = downloads.get(i).get();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            break;
+          } catch (ExecutionException e) {
+            logger.debug("Error downloading blocks", e);
+            range = null;
+          }
+          Peer rangePeer = downloadPeers.get(i);
+          int height = commonHeight + i * parallelDownloadBlocks;
+          if (i > 0 && (range == null || range.isEmpty() || !isAnchoredOn(nextBlocks, height, range))) {
+            // the feeder decides which chain we are downloading, so it serves the range itself
+            List<DownloadedBlock> feederRange = getBlocksFromHeight(peer, height, parallelDownloadBlocks);
+            if (feederRange == null || feederRange.isEmpty()) {
+              break;
+            }
+            if (!isAnchoredOn(nextBlocks, height, feederRange)) {
+              // it is the previous range that left the feeder's chain
+              if (previousRangePeer != peer) {
+                previousRangePeer.blacklist("served blocks that are not on the chain of the feeding peer");
+                nextBlocks.subList(nextBlocks.size() - parallelDownloadBlocks, nextBlocks.size()).clear();
+              }
+              break;
+            }
+            if (range != null && !range.isEmpty()) {
+              rangePeer.blacklist("served blocks that are not on the chain of the feeding peer");
+            }
+            range = feederRange;
+            rangePeer = peer;
+          }
+          if (range == null) {
+            break;
+          }
+          nextBlocks.addAll(range);
+          if (range.size() < parallelDownloadBlocks) {
+            break;
+          }
+          previousRangePeer = rangePeer;
+        }
+        return nextBlocks;
+      }
+
+      /**
+       * @return whether the first block of the range links to the last block downloaded so far, at the given height.
+       * The blocks parsed here are kept by their {@link DownloadedBlock} for the import.
+       */
+      private boolean isAnchoredOn(List<DownloadedBlock> previousBlocks, int height, List<DownloadedBlock> range) {
+        long anchorId;
+        try {
+          anchorId = previousBlocks.get(previousBlocks.size() - 1).parse(height).getId();
+        } catch (RuntimeException | BurstException.ValidationException e) {
+          // the caller reports the invalid block of the previous range when it gets to it
+          return true;
+        }
+        try {
+          return range.get(0).parse(height + 1).getPreviousBlockId() == anchorId;
+        } catch (RuntimeException | BurstException.ValidationException e) {
+          return false;
+        }
+      }
+
+      private List<DownloadedBlock> requestBlocks(Peer peer, JsonObject request, int maxBinaryBlocks, int maxJsonBlocks) {
+        if (binaryBlocks && peer.supportsBinaryBlocks()) {
+          request.addProperty(BinaryBlockCodec.BINARY_RESPONSE_PARAMETER, true);
+          byte[] response = peer.sendBinary(JSON.prepareRequest(request), BinaryBlockCodec.maxResponseSize(maxBinaryBlocks));
+          request.remove(BinaryBlockCodec.BINARY_RESPONSE_PARAMETER);
+          if (response != null) {
+            List<byte[]> frames;
+            try {
+              // prevent overloading with blocks
+              frames = BinaryBlockCodec.readBlocks(response, maxBinaryBlocks);
+            } catch (RuntimeException e) {
+              peer.blacklist(e, "sent malformed binary nextBlocks");
+              return null;
+            }
+            logger.debug("Got {} binary blocks from {}", frames.size(), peer.getPeerAddress());
+            List<DownloadedBlock> nextBlocks = new ArrayList<>(frames.size());
+            for (byte[] frame : frames) {
+              nextBlocks.add(new DownloadedBlock(peer, height -> Block.parseBinaryBytes(frame, height), () -> frame.length));
+            }
+            return nextBlocks;
+          }
+          if (peer.supportsBinaryBlocks()) {
+            // the exchange itself failed, asking again in JSON would only repeat that
+            return null;
+          }
+          // the peer answered in JSON, it is asked in JSON again this once and right away from now on
+        }
+
         JsonObject response = peer.send(JSON.prepareRequest(request));
         if (response == null) {
           return null;
         }
 
-        JsonArray nextBlocks = JSON.getAsJsonArray(response.get("nextBlocks"));
-        if (nextBlocks == null) {
+        JsonArray nextBlocksArray = JSON.getAsJsonArray(response.get("nextBlocks"));
+        if (nextBlocksArray == null) {
           return null;
         }
         // prevent overloading with blocks
-        if (nextBlocks.size() > 1440) {
+        if (nextBlocksArray.size() > maxJsonBlocks) {
           peer.blacklist("obsolete or rogue peer sends too many nextBlocks");
           return null;
         }
-        logger.debug("Got {} blocks after {} from {}", nextBlocks.size(), curBlockId, peer.getPeerAddress());
+        logger.debug("Got {} blocks from {}", nextBlocksArray.size(), peer.getPeerAddress());
+        List<DownloadedBlock> nextBlocks = new ArrayList<>(nextBlocksArray.size());
+        for (JsonElement o : nextBlocksArray) {
+          JsonObject blockData = JSON.getAsJsonObject(o);
+          nextBlocks.add(new DownloadedBlock(peer, height -> Block.parseBlock(blockData, height), () -> JSON.toJsonString(blockData).length()));
+        }
         return nextBlocks;
 
       }
@@ -585,6 +752,14 @@ public final class BlockchainProcessorImpl implements BlockchainProcessor {
       }
     };
     threadPool.scheduleThread("ImportBlocks", blockImporterThread, Constants.BLOCK_PROCESS_THREAD_DELAY, TimeUnit.MILLISECONDS);
+    blockTemplateCache = new BlockTemplateCache(propertyService.getInt(Props.BLOCK_TEMPLATE_REBUILD_INTERVAL));
+    if (propertyService.getBoolean(Props.DB_PARTITION_BY_HEIGHT)) {
+      threadPool.scheduleThread("CompactPartitions", () -> blockDb.compactPartitions(blockchain.getHeight()), 60);
+    }
+    int blockTemplateLeadTime = propertyService.getInt(Props.BLOCK_TEMPLATE_LEAD_TIME);
+    if (blockTemplateLeadTime > 0) {
+      threadPool.scheduleThread("PrepareBlockTemplate", () -> prepareBlockTemplate(blockTemplateLeadTime), 500, TimeUnit.MILLISECONDS);
+    }
     //Is there anything to verify
     //should we use Ocl?
     //is Ocl ready ?
@@ -653,6 +828,33 @@ public final class BlockchainProcessorImpl implements BlockchainProcessor {
     if (propertyService.getBoolean(Props.GPU_ACCELERATION)) {
       logger.debug("Starting preverifier thread in Open CL mode.");
       threadPool.scheduleThread("VerifyPoc", pocVerificationThread, Constants.BLOCK_PROCESS_THREAD_DELAY, TimeUnit.MILLISECONDS);
+    } else if (propertyService.getBoolean(Props.CPU_PARALLEL_VERIFY)) {
+      int cores = propertyService.getInt(Props.CPU_NUM_CORES);
+      if (cores <= 0) {
+        cores = Runtime.getRuntime().availableProcessors();
+      }
+      ForkJoinPool verificationPool = new ForkJoinPool(cores);
+      threadPool.registerExecutor(verificationPool);
+      Runnable parallelPocVerificationThread = () -> {
+        while (!Thread.interrupted() && ThreadPool.running.get()) {
+          List<Block> blocks = downloadCache.pollUnverifiedBlocks(cpuVerifyBatchSize);
+          if (blocks.isEmpty()) {
+            try {
+              Thread.sleep(10);
+            } catch (InterruptedException ex) {
+              Thread.currentThread().interrupt();
+            }
+            continue;
+          }
+          try {
+            blockService.preVerify(blocks, verificationPool);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        }
+      };
+      logger.debug("Starting preverifier thread in parallel CPU mode with {} cores.", cores);
+      threadPool.scheduleThread("VerifyPoc", parallelPocVerificationThread, Constants.BLOCK_PROCESS_THREAD_DELAY, TimeUnit.MILLISECONDS);
     } else {
       logger.debug("Starting preverifier thread in CPU mode.");
       threadPool.scheduleThreadCores(pocVerificationThread, Constants.BLOCK_PROCESS_THREAD_DELAY, TimeUnit.MILLISECONDS);
@@ -751,6 +953,7 @@ public final class BlockchainProcessorImpl implements BlockchainProcessor {
   public void fullReset() {
     blockDb.deleteAll(false);
     dbCacheManager.flushCache();
+    stores.getAccountStore().getAccountTable().flushCache();
     downloadCache.resetCache();
     addGenesisBlock();
   }
@@ -776,7 +979,7 @@ public final class BlockchainProcessorImpl implements BlockchainProcessor {
     try {
       List<Transaction> transactions = new ArrayList<>();
       MessageDigest digest = Crypto.sha256();
-      transactions.forEach(transaction -> digest.update(transaction.getBytes()));
+      transactions.forEach(transaction -> digest.update(transaction.getSharedBytes()));
       ByteBuffer bf = ByteBuffer.allocate(0);
       bf.order(ByteOrder.LITTLE_ENDIAN);
       byte[] byteATs = bf.array();
@@ -902,7 +1105,7 @@ public final class BlockchainProcessorImpl implements BlockchainProcessor {
 
           calculatedTotalAmount += transaction.getAmountNQT();
           calculatedTotalFee += transaction.getFeeNQT();
-          digest.update(transaction.getBytes());
+          digest.update(transaction.getSharedBytes());
           indirectIncomingService.processTransaction(transaction);
           feeArray[slotIdx] = transaction.getFeeNQT();
           slotIdx += 1;
@@ -932,7 +1135,6 @@ public final class BlockchainProcessorImpl implements BlockchainProcessor {
         blockService.setPrevious(block, previousLastBlock);
         blockListeners.notify(block, Event.BEFORE_BLOCK_ACCEPT);
         transactionProcessor.removeForgedTransactions(block.getTransactions());
-        transactionProcessor.requeueAllUnconfirmedTransactions();
         accountService.flushAccountTable();
         addBlock(block);
         downloadCache.removeBlock(block); // We make sure downloadCache do not have this block anymore.
@@ -1066,10 +1268,52 @@ public final class BlockchainProcessorImpl implements BlockchainProcessor {
     return ok;
   }
 
-  @Override
-  public void generateBlock(String secretPhrase, byte[] publicKey, Long nonce) throws BlockNotAcceptedException {
-    synchronized (downloadCache) {
-      downloadCache.lockCache(); //stop all incoming blocks.
+  /**
+   * Prepares the block template ahead of the time the best local deadline expires, so that forging only has to sign
+   * and push the block.
+   */
+  private void prepareBlockTemplate(int leadTime) {
+    try {
+      Block lastBlock = blockchain.getLastBlock();
+      BigInteger bestDeadline = null;
+      for (Generator.GeneratorState generatorState : generator.getAllGenerators()) {
+        if (generatorState.getBlock() == lastBlock.getHeight() + 1
+            && (bestDeadline == null || generatorState.getDeadline().compareTo(bestDeadline) < 0)) {
+          bestDeadline = generatorState.getDeadline();
+        }
+      }
+      if (bestDeadline == null || bestDeadline.compareTo(BigInteger.valueOf(Integer.MAX_VALUE - lastBlock.getTimestamp() - 1)) > 0) {
+        return;
+      }
+
+      // the generator forges in the first second in which more than the deadline has elapsed
+      int now = timeService.getEpochTime();
+      int forgingTimestamp = Math.max(lastBlock.getTimestamp() + bestDeadline.intValue() + 1, now);
+      if (forgingTimestamp - now > leadTime) {
+        return;
+      }
+      if (!blockTemplateCache.needsRebuild(lastBlock, forgingTimestamp, stores.getUnconfirmedTransactionStore().getVersion(), System.currentTimeMillis())) {
+        return;
+      }
+
+      synchronized (downloadCache) {
+        Block previousBlock = blockchain.getLastBlock();
+        if (previousBlock.getId() == lastBlock.getId()) {
+          blockTemplateCache.set(buildBlockTemplate(previousBlock, forgingTimestamp), System.currentTimeMillis());
+        }
+      }
+    } catch (RuntimeException e) {
+      logger.debug("Error preparing block template", e);
+    }
+  }
+
+  /**
+   * Selects and validates the transactions and runs the ATs of a block on top of the given one.
+   * Must be called holding the download cache lock, it takes the unconfirmed transactions lock itself so that
+   * the pool cannot change while it is looked at.
+   */
+  private BlockTemplate buildBlockTemplate(Block previousBlock, int blockTimestamp) {
+    synchronized (transactionProcessor.getUnconfirmedTransactionsSyncObj()) {
       UnconfirmedTransactionStore unconfirmedTransactionStore = stores.getUnconfirmedTransactionStore();
       SortedSet<Transaction> orderedBlockTransactions = new TreeSet<>();
 
@@ -1079,9 +1323,6 @@ public final class BlockchainProcessorImpl implements BlockchainProcessor {
       long totalAmountNQT = 0;
       long totalFeeNQT = 0;
 
-      final Block previousBlock = blockchain.getLastBlock();
-      final int blockTimestamp = timeService.getEpochTime();
-
       // this is just an validation. which collects all valid transactions, which fit into the block
       // finally all stuff is reverted so nothing is written to the db
       // the block itself with all transactions we found is pushed using pushBlock which calls
@@ -1244,17 +1485,38 @@ public final class BlockchainProcessorImpl implements BlockchainProcessor {
       // ATs for block
 
       MessageDigest digest = Crypto.sha256();
-      orderedBlockTransactions.forEach(transaction -> digest.update(transaction.getBytes()));
+      orderedBlockTransactions.forEach(transaction -> digest.update(transaction.getSharedBytes()));
       byte[] payloadHash = digest.digest();
+
+      return new BlockTemplate(previousBlock.getId(), blockTimestamp, unconfirmedTransactionStore.getVersion(),
+          new ArrayList<>(orderedBlockTransactions), totalAmountNQT, totalFeeNQT,
+          Burst.getFluxCapacitor().getValue(FluxValues.MAX_PAYLOAD_LENGTH) - payloadSize, payloadHash, byteATs);
+    }
+  }
+
+  @Override
+  public void generateBlock(String secretPhrase, byte[] publicKey, Long nonce) throws BlockNotAcceptedException {
+    synchronized (downloadCache) {
+      downloadCache.lockCache(); //stop all incoming blocks.
+      UnconfirmedTransactionStore unconfirmedTransactionStore = stores.getUnconfirmedTransactionStore();
+
+      final Block previousBlock = blockchain.getLastBlock();
+      final int blockTimestamp = timeService.getEpochTime();
+
+      BlockTemplate template = blockTemplateCache.take(previousBlock, blockTimestamp, unconfirmedTransactionStore.getVersion());
+      if (template == null) {
+        template = buildBlockTemplate(previousBlock, blockTimestamp);
+      }
+
       byte[] generationSignature = generator.calculateGenerationSignature(
           previousBlock.getGenerationSignature(), previousBlock.getGeneratorId());
       Block block;
       byte[] previousBlockHash = Crypto.sha256().digest(previousBlock.getBytes());
       try {
         block = new Block(getBlockVersion(), blockTimestamp,
-            previousBlock.getId(), totalAmountNQT, totalFeeNQT, Burst.getFluxCapacitor().getValue(FluxValues.MAX_PAYLOAD_LENGTH) - payloadSize, payloadHash, publicKey,
-            generationSignature, null, previousBlockHash, new ArrayList<>(orderedBlockTransactions), nonce,
-            byteATs, previousBlock.getHeight());
+            previousBlock.getId(), template.getTotalAmountNQT(), template.getTotalFeeNQT(), template.getPayloadLength(), template.getPayloadHash(), publicKey,
+            generationSignature, null, previousBlockHash, new ArrayList<>(template.getTransactions()), nonce,
+            template.getBlockATs(), previousBlock.getHeight());
       } catch (BurstException.ValidationException e) {
         // shouldn't happen because all transactions are already validated
         logger.info("Error generating block", e);
@@ -1295,4 +1557,42 @@ public final class BlockchainProcessorImpl implements BlockchainProcessor {
     }
     return transaction != null && hasAllReferencedTransactions(transaction, timestamp, count + 1);
   }
+
+  private interface BlockParser {
+    Block parse(int height) throws BurstException.ValidationException;
+  }
+
+  /**
+   * A block as received from a peer, in either JSON or binary form, which is only parsed once its height is known.
+   * The parsed block is kept, so checking where a range anchors and importing it parse every block once.
+   */
+  private static final class DownloadedBlock {
+    private final Peer peer;
+    private final BlockParser parser;
+    private final IntSupplier byteLength;
+    private Block block;
+    private int blockHeight;
+
+    DownloadedBlock(Peer peer, BlockParser parser, IntSupplier byteLength) {
+      this.peer = peer;
+      this.parser = parser;
+      this.byteLength = byteLength;
+    }
+
+    Peer getPeer() {
+      return peer;
+    }
+
+    Block parse(int height) throws BurstException.ValidationException {
+      if (block == null || blockHeight != height) {
+        block = parser.parse(height);
+        blockHeight = height;
+      }
+      return block;
+    }
+
+    int getByteLength() {
+      return byteLength.getAsInt();
+    }
+  }
 }
@@ -137,6 +137,17 @@ public final class Burst {
     }
   }
 
+  /**
+   * HttpURLConnection pools idle keep-alive sockets per destination. Its pool size is a process-wide system property
+   * that the JDK reads once, when the first connection is opened, so it has to be set before any network use.
+   */
+  private static void configureHttpKeepAlive(PropertyService propertyService) {
+    if (propertyService.getBoolean(Props.P2P_KEEP_ALIVE)) {
+      System.setProperty("http.keepAlive", "true");
+      System.setProperty("http.maxConnections", String.valueOf(propertyService.getInt(Props.P2P_MAX_CONNECTIONS_PER_PEER)));
+    }
+  }
+
   public static void init(Properties customProperties) {
     loadWallet(new PropertyServiceImpl(customProperties));
   }
@@ -148,6 +159,7 @@ public final class Burst {
   private static void loadWallet(PropertyService propertyService) {
     validateVersionNotDev(propertyService);
     Burst.propertyService = propertyService;
+    configureHttpKeepAlive(propertyService);
 
     try {
       long startTime = System.currentTimeMillis();
@@ -157,7 +169,7 @@ public final class Burst {
       final DerivedTableManager derivedTableManager = new DerivedTableManager();
 
       final StatisticsManagerImpl statisticsManager = new StatisticsManagerImpl(timeService);
-      dbCacheManager = new DBCacheManagerImpl(statisticsManager);
+      dbCacheManager = new DBCacheManagerImpl(statisticsManager, propertyService.getInt(Props.DB_ACCOUNT_CACHE_SIZE));
 
       threadPool = new ThreadPool(propertyService);
 
@@ -167,11 +179,16 @@ public final class Burst {
       dbs = Db.getDbsByDatabaseType();
 
       stores = new Stores(derivedTableManager, dbCacheManager, timeService, propertyService, dbs.getTransactionDb());
+      if (propertyService.getBoolean(Props.DB_ACCOUNTS_IN_MEMORY)) {
+        stores.getAccountStore().getAccountTable().loadAllIntoMemory();
+      } else if (propertyService.getBoolean(Props.DB_ACCOUNT_CACHE_PRELOAD)) {
+        stores.getAccountStore().getAccountTable().preloadCache(propertyService.getInt(Props.DB_ACCOUNT_CACHE_SIZE));
+      }
 
       final TransactionDb transactionDb = dbs.getTransactionDb();
       final BlockDb blockDb =  dbs.getBlockDb();
       final BlockchainStore blockchainStore = stores.getBlockchainStore();
-      blockchain = new BlockchainImpl(transactionDb, blockDb, blockchainStore);
+      blockchain = new BlockchainImpl(transactionDb, blockDb, blockchainStore, Constants.MAX_ROLLBACK + 1);
 
       final AliasService aliasService = new AliasServiceImpl(stores.getAliasStore());
       fluxCapacitor = new FluxCapacitorImpl(blockchain, propertyService);
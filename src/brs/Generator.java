@@ -22,6 +22,14 @@ public interface Generator {
 
   GeneratorState addNonce(String secretPhrase, Long nonce, byte[] publicKey);
 
+  /**
+   * Evaluates several nonces of one account against the block being mined and keeps the one with the best deadline.
+   * @return the state of the best of the given nonces, or null if there are none
+   */
+  GeneratorState addNonces(String secretPhrase, Collection<Long> nonces, byte[] publicKey);
+
+  byte[] getPublicKey(String secretPhrase);
+
   Collection<GeneratorState> getAllGenerators();
 
   byte[] calculateGenerationSignature(byte[] lastGenSig, long lastGenId);
@@ -41,6 +49,8 @@ public interface Generator {
 
     BigInteger getDeadline();
 
+    long getNonce();
+
     long getBlock();
   }
 }
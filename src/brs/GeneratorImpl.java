@@ -9,6 +9,8 @@ import brs.services.TimeService;
 import brs.util.Convert;
 import brs.util.Listener;
 import brs.util.Listeners;
+import brs.util.MiningPlot;
+import brs.util.ScoopGenerator;
 import brs.util.ThreadPool;
 import burst.kit.crypto.BurstCrypto;
 import org.slf4j.Logger;
@@ -18,6 +20,8 @@ import java.math.BigInteger;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -26,12 +30,22 @@ import java.util.concurrent.TimeUnit;
 public class GeneratorImpl implements Generator {
   private static final Logger logger = LoggerFactory.getLogger(GeneratorImpl.class);
 
+  private static final int MAX_CACHED_PUBLIC_KEYS = 4096;
+
   private final Listeners<GeneratorState, Event> listeners = new Listeners<>();
   private final ConcurrentMap<Long, GeneratorStateImpl> generators = new ConcurrentHashMap<>();
   private final BurstCrypto burstCrypto = BurstCrypto.getInstance();
   private final Blockchain blockchain;
   private final TimeService timeService;
   private final FluxCapacitor fluxCapacitor;
+  // deriving a public key from a passphrase is much more expensive than evaluating a nonce, and miners submit many nonces per passphrase
+  private final Map<String, byte[]> publicKeys = Collections.synchronizedMap(new LinkedHashMap<String, byte[]>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+      return size() > MAX_CACHED_PUBLIC_KEYS;
+    }
+  });
+  private volatile MiningInfo miningInfo;
 
   public GeneratorImpl(Blockchain blockchain, TimeService timeService, FluxCapacitor fluxCapacitor) {
     this.blockchain = blockchain;
@@ -78,22 +92,40 @@ public class GeneratorImpl implements Generator {
 
   @Override
   public GeneratorState addNonce(String secretPhrase, Long nonce) {
-    byte[] publicKey = Crypto.getPublicKey(secretPhrase);
-    return addNonce(secretPhrase, nonce, publicKey);
+    return addNonce(secretPhrase, nonce, getPublicKey(secretPhrase));
   }
 
   @Override
   public GeneratorState addNonce(String secretPhrase, Long nonce, byte[] publicKey) {
+    return addNonces(secretPhrase, Collections.singletonList(nonce), publicKey);
+  }
+
+  @Override
+  public GeneratorState addNonces(String secretPhrase, Collection<Long> nonces, byte[] publicKey) {
+    if (nonces.isEmpty()) {
+      return null;
+    }
+
     byte[] publicKeyHash = Crypto.sha256().digest(publicKey);
     long id = Convert.fullHashToId(publicKeyHash);
 
-    GeneratorStateImpl generator = new GeneratorStateImpl(secretPhrase, nonce, publicKey, id);
-    GeneratorStateImpl curGen = generators.get(id);
-    if (curGen == null || generator.getBlock() > curGen.getBlock() || generator.getDeadline().compareTo(curGen.getDeadline()) < 0) {
-      generators.put(id, generator);
-      listeners.notify(generator, Event.NONCE_SUBMITTED);
+    MiningInfo info = getMiningInfo();
+    GeneratorStateImpl generator = null;
+    for (Long nonce : nonces) {
+      BigInteger deadline = calculateDeadline(id, nonce, info.generationSignature, info.scoop, info.baseTarget, info.height);
+      if (generator == null || deadline.compareTo(generator.getDeadline()) < 0) {
+        generator = new GeneratorStateImpl(secretPhrase, nonce, publicKey, id, info.height, deadline);
+      }
+    }
+
+    GeneratorStateImpl best = generator;
+    GeneratorStateImpl stored = generators.compute(id, (accountId, curGen) ->
+        curGen == null || best.getBlock() > curGen.getBlock()
+            || (best.getBlock() == curGen.getBlock() && best.getDeadline().compareTo(curGen.getDeadline()) < 0) ? best : curGen);
+    if (stored == best) {
+      listeners.notify(best, Event.NONCE_SUBMITTED);
       if (logger.isDebugEnabled()) {
-        logger.debug("Account {} started mining, deadline {} seconds", Convert.toUnsignedLong(id), generator.getDeadline());
+        logger.debug("Account {} started mining, deadline {} seconds", Convert.toUnsignedLong(id), best.getDeadline());
       }
     } else {
       if (logger.isDebugEnabled()) {
@@ -101,7 +133,27 @@ public class GeneratorImpl implements Generator {
       }
     }
 
-    return generator;
+    return best;
+  }
+
+  @Override
+  public byte[] getPublicKey(String secretPhrase) {
+    byte[] publicKey = publicKeys.get(secretPhrase);
+    if (publicKey == null) {
+      publicKey = Crypto.getPublicKey(secretPhrase);
+      publicKeys.put(secretPhrase, publicKey);
+    }
+    return publicKey;
+  }
+
+  private MiningInfo getMiningInfo() {
+    Block lastBlock = blockchain.getLastBlock();
+    MiningInfo info = miningInfo;
+    if (info == null || info.blockId != lastBlock.getId() || info.height != lastBlock.getHeight() + 1) {
+      info = new MiningInfo(lastBlock);
+      miningInfo = info;
+    }
+    return info;
   }
 
   @Override
@@ -119,13 +171,11 @@ public class GeneratorImpl implements Generator {
     return burstCrypto.calculateScoop(genSig, height);
   }
 
-  private int getPocVersion(int blockHeight) {
-    return fluxCapacitor.getValue(FluxValues.POC2, blockHeight) ? 2 : 1;
-  }
-
   @Override
   public BigInteger calculateHit(long accountId, long nonce, byte[] genSig, int scoop, int blockHeight) {
-    return burstCrypto.calculateHit(accountId, nonce, genSig, scoop, getPocVersion(blockHeight));
+    byte[] scoopData = new byte[MiningPlot.SCOOP_SIZE];
+    ScoopGenerator.generateScoop(accountId, nonce, scoop, fluxCapacitor.getValue(FluxValues.POC2, blockHeight), scoopData);
+    return burstCrypto.calculateHit(accountId, nonce, genSig, scoopData);
   }
 
   @Override
@@ -135,7 +185,7 @@ public class GeneratorImpl implements Generator {
 
   @Override
   public BigInteger calculateDeadline(long accountId, long nonce, byte[] genSig, int scoop, long baseTarget, int blockHeight) {
-    return burstCrypto.calculateDeadline(accountId, nonce, genSig, scoop, baseTarget, getPocVersion(blockHeight));
+    return calculateHit(accountId, nonce, genSig, scoop, blockHeight).divide(BigInteger.valueOf(baseTarget));
   }
 
   public class GeneratorStateImpl implements GeneratorState {
@@ -146,25 +196,14 @@ public class GeneratorImpl implements Generator {
     private final long nonce;
     private final long block;
 
-    private GeneratorStateImpl(String secretPhrase, Long nonce, byte[] publicKey, Long account) {
+    private GeneratorStateImpl(String secretPhrase, Long nonce, byte[] publicKey, Long account, int height, BigInteger deadline) {
       this.secretPhrase = secretPhrase;
       this.publicKey = publicKey;
       // need to store publicKey in addition to accountId, because the account may not have had its publicKey set yet
       this.accountId = account;
       this.nonce = nonce;
-
-      Block lastBlock = blockchain.getLastBlock();
-
-      this.block = (long) lastBlock.getHeight() + 1;
-
-      byte[] lastGenSig = lastBlock.getGenerationSignature();
-      Long lastGenerator = lastBlock.getGeneratorId();
-
-      byte[] newGenSig = calculateGenerationSignature(lastGenSig, lastGenerator);
-
-      int scoopNum = calculateScoop(newGenSig, lastBlock.getHeight() + 1L);
-
-      deadline = calculateDeadline(accountId, nonce, newGenSig, scoopNum, lastBlock.getBaseTarget(), lastBlock.getHeight() + 1);
+      this.block = height;
+      this.deadline = deadline;
     }
 
     @Override
@@ -187,6 +226,11 @@ public class GeneratorImpl implements Generator {
       return block;
     }
 
+    @Override
+    public long getNonce() {
+      return nonce;
+    }
+
     private void forge(BlockchainProcessor blockchainProcessor) throws BlockchainProcessor.BlockNotAcceptedException {
       Block lastBlock = blockchain.getLastBlock();
 
@@ -197,6 +241,25 @@ public class GeneratorImpl implements Generator {
     }
   }
 
+  /**
+   * Generation signature, scoop and base target of the block being mined, which are the same for every nonce submitted for it.
+   */
+  private class MiningInfo {
+    private final long blockId;
+    private final int height;
+    private final byte[] generationSignature;
+    private final int scoop;
+    private final long baseTarget;
+
+    private MiningInfo(Block lastBlock) {
+      this.blockId = lastBlock.getId();
+      this.height = lastBlock.getHeight() + 1;
+      this.generationSignature = calculateGenerationSignature(lastBlock.getGenerationSignature(), lastBlock.getGeneratorId());
+      this.scoop = calculateScoop(generationSignature, height);
+      this.baseTarget = lastBlock.getBaseTarget();
+    }
+  }
+
   public static class MockGenerator extends GeneratorImpl {
     private final PropertyService propertyService;
     public MockGenerator(PropertyService propertyService, Blockchain blockchain, TimeService timeService, FluxCapacitor fluxCapacitor) {
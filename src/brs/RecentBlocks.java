@@ -0,0 +1,120 @@
+package brs;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Headers of the most recent blocks, indexed by height and id, so lookups of recent blocks do not need the database.
+ * It always holds a contiguous part of the chain that ends at the last block.
+ * The headers load their transactions from the database when asked for them, so only the headers are kept in memory.
+ * Lookups return a fresh copy of the header, so the transactions it loads are dropped together with the copy
+ * instead of staying in the cache.
+ */
+final class RecentBlocks {
+
+  private final Block[] blocks;
+  private final Map<Long, Integer> heights = new HashMap<>();
+  private int topHeight = -1;
+  private int size;
+
+  RecentBlocks(int capacity) {
+    this.blocks = new Block[Math.max(capacity, 1)];
+  }
+
+  /**
+   * Moves the top of the cached chain to the given block.
+   * @return false if the block neither follows nor is part of the cached chain, in which case only this block is kept
+   */
+  synchronized boolean setLastBlock(Block block) {
+    int height = block.getHeight();
+    if (size > 0 && height == topHeight + 1 && get(topHeight).getId() == block.getPreviousBlockId()) {
+      if (size == blocks.length) {
+        heights.remove(get(topHeight - size + 1).getId());
+        size--;
+      }
+      get(topHeight).setNextBlockId(block.getId());
+      add(block);
+      return true;
+    }
+
+    if (contains(height) && get(height).getId() == block.getId()) {
+      while (topHeight > height) {
+        heights.remove(get(topHeight).getId());
+        blocks[index(topHeight)] = null;
+        topHeight--;
+        size--;
+      }
+      get(height).setNextBlockId(0);
+      return true;
+    }
+
+    clear();
+    add(block);
+    return false;
+  }
+
+  synchronized void clear() {
+    heights.clear();
+    for (int i = 0; i < blocks.length; i++) {
+      blocks[i] = null;
+    }
+    topHeight = -1;
+    size = 0;
+  }
+
+  synchronized Block getBlock(long blockId) {
+    Integer height = heights.get(blockId);
+    return height == null ? null : get(height).toHeader();
+  }
+
+  synchronized boolean hasBlock(long blockId) {
+    return heights.containsKey(blockId);
+  }
+
+  /**
+   * @return the block at the given height, or null if it is not cached
+   */
+  synchronized Block getBlockAtHeight(int height) {
+    return contains(height) ? get(height).toHeader() : null;
+  }
+
+  /**
+   * @return the highest block with a timestamp not after the given one, or null if that block is not cached
+   */
+  synchronized Block getLastBlock(int timestamp) {
+    if (size == 0 || get(topHeight - size + 1).getTimestamp() > timestamp) {
+      return null;
+    }
+    int low = topHeight - size + 1;
+    int high = topHeight;
+    while (low < high) {
+      int middle = (low + high + 1) >>> 1;
+      if (get(middle).getTimestamp() <= timestamp) {
+        low = middle;
+      } else {
+        high = middle - 1;
+      }
+    }
+    return get(low).toHeader();
+  }
+
+  private void add(Block block) {
+    Block header = block.toHeader();
+    topHeight = header.getHeight();
+    blocks[index(topHeight)] = header;
+    heights.put(header.getId(), topHeight);
+    size++;
+  }
+
+  private boolean contains(int height) {
+    return size > 0 && height <= topHeight && height > topHeight - size;
+  }
+
+  private Block get(int height) {
+    return blocks[index(height)];
+  }
+
+  private int index(int height) {
+    return height % blocks.length;
+  }
+}
@@ -15,6 +15,8 @@ import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.security.MessageDigest;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -189,6 +191,7 @@ public class Transaction implements Comparable<Transaction> {
   private final AtomicReference<String> stringId = new AtomicReference<>();
   private final AtomicLong senderId = new AtomicLong();
   private final AtomicReference<String> fullHash = new AtomicReference<>();
+  private final AtomicReference<BytesImage> bytesImage = new AtomicReference<>();
 
   private Transaction(Builder builder) throws BurstException.NotValidException {
 
@@ -364,14 +367,14 @@ public class Transaction implements Comparable<Transaction> {
         throw new IllegalStateException("Transaction is not signed yet");
       }
       byte[] hash;
-      if (useNQT()) {
-        byte[] data = zeroSignature(getBytes());
+      BytesImage image = getBytesImage();
+      if (image.nqt) {
         byte[] signatureHash = Crypto.sha256().digest(signature.get() != null ? signature.get() : new byte[64]);
         MessageDigest digest = Crypto.sha256();
-        digest.update(data);
+        digest.update(image.unsignedBytes);
         hash = digest.digest(signatureHash);
       } else {
-        hash = Crypto.sha256().digest(getBytes());
+        hash = Crypto.sha256().digest(image.bytes);
       }
       long longId = Convert.fullHashToId(hash);
       id.set(longId);
@@ -422,8 +425,53 @@ public class Transaction implements Comparable<Transaction> {
   }
 
   public byte[] getBytes() {
+    return getBytesImage().bytes.clone();
+  }
+
+  /**
+   * The transaction bytes without a copy, for callers that only read them such as payload digests.
+   * The returned array is shared and must not be modified.
+   */
+  byte[] getSharedBytes() {
+    return getBytesImage().bytes;
+  }
+
+  /**
+   * The bytes of all appendages, as they are stored next to the transaction.
+   * @return null if the transaction has no appendages with a payload
+   */
+  public byte[] getAppendagesBytes() {
+    if (appendagesSize == 0) {
+      return null;
+    }
+    byte[] bytes = getBytesImage().bytes;
+    return Arrays.copyOfRange(bytes, bytes.length - appendagesSize, bytes.length);
+  }
+
+  /**
+   * The serialised transaction is cached once computed, only {@link #sign} changes it afterwards. Whether the NQT
+   * layout is used can still change with the height of an unconfirmed transaction, so the image remembers which
+   * layout it was built with. Unsigned AT transactions depend on a fork flag at the current height and are not cached.
+   */
+  private BytesImage getBytesImage() {
+    boolean nqt = useNQT();
+    BytesImage image = bytesImage.get();
+    if (image == null || image.nqt != nqt) {
+      byte[] bytes = serialize(nqt);
+      byte[] unsignedBytes = bytes.clone();
+      int start = signatureOffset(nqt);
+      Arrays.fill(unsignedBytes, start, start + 64, (byte) 0);
+      image = new BytesImage(nqt, bytes, unsignedBytes);
+      if (type.isSigned()) {
+        bytesImage.set(image);
+      }
+    }
+    return image;
+  }
+
+  private byte[] serialize(boolean nqt) {
     try {
-      ByteBuffer buffer = ByteBuffer.allocate(getSize());
+      ByteBuffer buffer = ByteBuffer.allocate(signatureOffset(nqt) + 64 + (version > 0 ? 4 + 4 + 8 : 0) + appendagesSize);
       buffer.order(ByteOrder.LITTLE_ENDIAN);
       buffer.put(type.getType());
       buffer.put((byte) ((version << 4) | ( type.getSubtype() & 0xff ) ));
@@ -436,7 +484,7 @@ public class Transaction implements Comparable<Transaction> {
         buffer.put(new byte[24]);
       }
       buffer.putLong(type.hasRecipient() ? recipientId : Genesis.CREATOR_ID);
-      if (useNQT()) {
+      if (nqt) {
         buffer.putLong(amountNQT);
         buffer.putLong(feeNQT);
         if (referencedTransactionFullHash != null) {
@@ -470,6 +518,10 @@ public class Transaction implements Comparable<Transaction> {
   }
 
   public static Transaction parseTransaction(byte[] bytes) throws BurstException.ValidationException {
+    return parseTransaction(bytes, Integer.MAX_VALUE);
+  }
+
+  static Transaction parseTransaction(byte[] bytes, int height) throws BurstException.ValidationException {
     try {
       ByteBuffer buffer = ByteBuffer.wrap(bytes);
       buffer.order(ByteOrder.LITTLE_ENDIAN);
@@ -507,7 +559,8 @@ public class Transaction implements Comparable<Transaction> {
           .referencedTransactionFullHash(referencedTransactionFullHash)
           .signature(signature)
           .ecBlockHeight(ecBlockHeight)
-          .ecBlockId(ecBlockId);
+          .ecBlockId(ecBlockId)
+          .height(height);
       if (transactionType.hasRecipient()) {
         builder.recipientId(recipientId);
       }
@@ -524,7 +577,7 @@ public class Transaction implements Comparable<Transaction> {
   }
 
   public byte[] getUnsignedBytes() {
-    return zeroSignature(getBytes());
+    return getBytesImage().unsignedBytes.clone();
   }
 
   public JsonObject getJsonObject() {
@@ -610,6 +663,7 @@ public class Transaction implements Comparable<Transaction> {
       throw new IllegalStateException("Transaction already signed");
     }
     signature.set(Crypto.sign(getBytes(), secretPhrase));
+    bytesImage.set(null);
   }
 
   @Override
@@ -627,8 +681,29 @@ public class Transaction implements Comparable<Transaction> {
   }
 
   public boolean verifySignature() {
-    byte[] data = zeroSignature(getBytes());
-    return Crypto.verify(signature.get(), data, senderPublicKey, useNQT());
+    BytesImage image = getBytesImage();
+    return Crypto.verify(signature.get(), image.unsignedBytes, senderPublicKey, image.nqt);
+  }
+
+  /**
+   * Verifies the signatures of all given transactions as one batch, see {@link Crypto#verifyBatch}.
+   * @return the indices of the transactions with an invalid signature
+   */
+  public static BitSet verifySignatures(List<Transaction> transactions) {
+    int size = transactions.size();
+    byte[][] signatures = new byte[size][];
+    byte[][] messages = new byte[size][];
+    byte[][] publicKeys = new byte[size][];
+    boolean[] enforceCanonical = new boolean[size];
+    for (int i = 0; i < size; i++) {
+      Transaction transaction = transactions.get(i);
+      BytesImage image = transaction.getBytesImage();
+      signatures[i] = transaction.signature.get();
+      messages[i] = image.unsignedBytes;
+      publicKeys[i] = transaction.senderPublicKey;
+      enforceCanonical[i] = image.nqt;
+    }
+    return Crypto.verifyBatch(signatures, messages, publicKeys, enforceCanonical);
   }
 
   public int getSize() {
@@ -640,7 +715,11 @@ public class Transaction implements Comparable<Transaction> {
   }
 
   private int signatureOffset() {
-    return 1 + 1 + 4 + 2 + 32 + 8 + (useNQT() ? 8 + 8 + 32 : 4 + 4 + 8);
+    return signatureOffset(useNQT());
+  }
+
+  private static int signatureOffset(boolean nqt) {
+    return 1 + 1 + 4 + 2 + 32 + 8 + (nqt ? 8 + 8 + 32 : 4 + 4 + 8);
   }
 
   private boolean useNQT() {
@@ -649,14 +728,6 @@ public class Transaction implements Comparable<Transaction> {
             || Burst.getBlockchain().getHeight() >= Constants.NQT_BLOCK);
   }
 
-  private byte[] zeroSignature(byte[] data) {
-    int start = signatureOffset();
-    for (int i = start; i < start + 64; i++) {
-      data[i] = 0;
-    }
-    return data;
-  }
-
   private int getFlags() {
     int flags = 0;
     int position = 1;
@@ -681,4 +752,16 @@ public class Transaction implements Comparable<Transaction> {
   public TransactionDuplicationKey getDuplicationKey() {
     return type.getDuplicationKey(this);
   }
+
+  private static class BytesImage {
+    private final boolean nqt;
+    private final byte[] bytes;
+    private final byte[] unsignedBytes;
+
+    private BytesImage(boolean nqt, byte[] bytes, byte[] unsignedBytes) {
+      this.nqt = nqt;
+      this.bytes = bytes;
+      this.unsignedBytes = unsignedBytes;
+    }
+  }
 }
@@ -11,6 +11,8 @@ import brs.props.Props;
 import brs.services.AccountService;
 import brs.services.TimeService;
 import brs.services.TransactionService;
+import brs.statistics.TransactionIngestionStatistics;
+import brs.statistics.TransactionIngestionStatistics.Stage;
 import brs.unconfirmedtransactions.UnconfirmedTransactionStore;
 import brs.util.JSON;
 import brs.util.Listener;
@@ -22,11 +24,10 @@ import com.google.gson.JsonObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Collections;
-import java.util.List;
+import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -54,6 +55,10 @@ public class TransactionProcessorImpl implements TransactionProcessor {
   private final UnconfirmedTransactionStore unconfirmedTransactionStore;
   private final Function<Peer, List<Transaction>> foodDispenser;
   private final BiConsumer<Peer, List<Transaction>> doneFeedingLog;
+  private final TransactionIngestionStatistics ingestionStatistics = new TransactionIngestionStatistics();
+  private final AtomicBoolean fullRevalidationPending = new AtomicBoolean();
+  // accounts whose unconfirmed balance changed since the last pushed block was revalidated
+  private final Set<Long> balanceChangedAccountIds = ConcurrentHashMap.newKeySet();
 
   public TransactionProcessorImpl(PropertyService propertyService,
       EconomicClustering economicClustering, Blockchain blockchain, Stores stores, TimeService timeService, Dbs dbs, AccountService accountService,
@@ -74,54 +79,32 @@ public class TransactionProcessorImpl implements TransactionProcessor {
     this.foodDispenser = (unconfirmedTransactionStore::getAllFor);
     this.doneFeedingLog = (unconfirmedTransactionStore::markFingerPrintsOf);
 
+    // subscription payments, AT payments and escrow or purchase settlements change balances without a transaction of the block
+    accountService.addListener(account -> balanceChangedAccountIds.add(account.getId()), Account.Event.UNCONFIRMED_BALANCE);
+
       Runnable getUnconfirmedTransactions = () -> {
           try {
               try {
-                  synchronized (unconfirmedTransactionsSyncObj) {
-                      Peer peer = Peers.getAnyPeer(Peer.State.CONNECTED);
-                      if (peer == null) {
-                          return;
-                      }
-                      JsonObject response = Peers.readUnconfirmedTransactionsNonBlocking(peer).get();
-                      if (response == null) {
-                          return;
-                      }
-
-                      JsonArray transactionsData = JSON.getAsJsonArray(response.get(UNCONFIRMED_TRANSACTIONS_RESPONSE));
-
-                      if (transactionsData == null) {
-                          return;
-                      }
-                      try {
-                          List<Transaction> addedTransactions = processPeerTransactions(transactionsData, peer);
-                          Peers.feedingTime(peer, foodDispenser, doneFeedingLog);
-
-                          if (!addedTransactions.isEmpty()) {
-                              List<Peer> activePrioPlusExtra = Peers.getAllActivePriorityPlusSomeExtraPeers();
-                              activePrioPlusExtra.remove(peer);
-
-                              List<CompletableFuture<?>> expectedResults = new ArrayList<>();
-
-                              for (Peer otherPeer : activePrioPlusExtra) {
-                                  CompletableFuture<JsonObject> unconfirmedTransactionsResult = Peers.readUnconfirmedTransactionsNonBlocking(otherPeer);
-
-                                  unconfirmedTransactionsResult.whenComplete((jsonObject, throwable) -> {
-                                      try {
-                                          processPeerTransactions(transactionsData, otherPeer);
-                                          Peers.feedingTime(otherPeer, foodDispenser, doneFeedingLog);
-                                      } catch (ValidationException | RuntimeException e) {
-                                          peer.blacklist(e, "pulled invalid data using getUnconfirmedTransactions");
-                                      }
-                                  });
-
-                                  expectedResults.add(unconfirmedTransactionsResult);
-                              }
-
-                              CompletableFuture.allOf(expectedResults.toArray(new CompletableFuture[0])).join();
-                          }
-                      } catch (ValidationException | RuntimeException e) {
-                          peer.blacklist(e, "pulled invalid data using getUnconfirmedTransactions");
-                      }
+                  // No lock is held while talking to peers: block pushing and generation only ever wait for the short commit stage
+                  Peer peer = Peers.getAnyPeer(Peer.State.CONNECTED);
+                  if (peer == null) {
+                      return;
+                  }
+                  List<Transaction> addedTransactions = ingestPeerTransactions(Peers.readUnconfirmedTransactionsNonBlocking(peer), peer).get();
+                  if (addedTransactions == null) {
+                      return;
+                  }
+                  Peers.feedingTime(peer, foodDispenser, doneFeedingLog);
+
+                  if (!addedTransactions.isEmpty()) {
+                      List<Peer> activePrioPlusExtra = Peers.getAllActivePriorityPlusSomeExtraPeers();
+                      activePrioPlusExtra.remove(peer);
+
+                      // the responses are parsed and verified in parallel as they arrive, waiting here only keeps pulls from overlapping
+                      ingestFromPeers(activePrioPlusExtra, Peers::readUnconfirmedTransactionsNonBlocking).join();
+                  }
+                  if (logger.isDebugEnabled()) {
+                      logger.debug("Unconfirmed transaction ingestion: {}", ingestionStatistics);
                   }
               } catch (Exception e) {
                   logger.debug("Error processing unconfirmed transactions", e);
@@ -153,6 +136,10 @@ public class TransactionProcessorImpl implements TransactionProcessor {
     return unconfirmedTransactionsSyncObj;
   }
 
+  public TransactionIngestionStatistics getIngestionStatistics() {
+    return ingestionStatistics;
+  }
+
   @Override
   public List<Transaction> getAllUnconfirmedTransactions() {
     return unconfirmedTransactionStore.getAll();
@@ -227,7 +214,7 @@ public class TransactionProcessorImpl implements TransactionProcessor {
   @Override
   public void processPeerTransactions(JsonObject request, Peer peer) throws BurstException.ValidationException {
     JsonArray transactionsData = JSON.getAsJsonArray(request.get("transactions"));
-    List<Transaction> processedTransactions = processPeerTransactions(transactionsData, peer);
+    List<Transaction> processedTransactions = processPeerTransactions(transactionsData, peer, System.nanoTime());
 
     if(! processedTransactions.isEmpty()) {
       broadcastToPeers(false);
@@ -266,10 +253,15 @@ public class TransactionProcessorImpl implements TransactionProcessor {
     }
   }
 
-  void requeueAllUnconfirmedTransactions() {
-    synchronized (unconfirmedTransactionsSyncObj) {
-      unconfirmedTransactionStore.resetAccountBalances();
-    }
+  /**
+   * Popped off blocks revert state no change set describes, so the next pushed block revalidates the whole pool.
+   */
+  void requireFullRevalidation() {
+    fullRevalidationPending.set(true);
+  }
+
+  private boolean requiresFullRevalidation(Block block) {
+    return fullRevalidationPending.get() || Burst.getFluxCapacitor().isHistoricalMoment(block.getHeight());
   }
 
   @Override
@@ -289,63 +281,165 @@ public class TransactionProcessorImpl implements TransactionProcessor {
     }
   }
 
-  private List<Transaction> processPeerTransactions(JsonArray transactionsData, Peer peer) throws BurstException.ValidationException {
+  /**
+   * Requests the unconfirmed transactions of all peers at once, ingests every response with the peer that sent it,
+   * and feeds the peers that answered with valid data.
+   */
+  CompletableFuture<Void> ingestFromPeers(Collection<Peer> peers, Function<Peer, CompletableFuture<JsonObject>> request) {
+    List<CompletableFuture<?>> expectedResults = new ArrayList<>();
+    for (Peer peer : peers) {
+      expectedResults.add(ingestPeerTransactions(request.apply(peer), peer)
+          .thenAccept(addedTransactions -> {
+            if (addedTransactions != null) {
+              Peers.feedingTime(peer, foodDispenser, doneFeedingLog);
+            }
+          }));
+    }
+    return CompletableFuture.allOf(expectedResults.toArray(new CompletableFuture[0]));
+  }
+
+  /**
+   * Fetches, verifies and commits the transactions of one peer response. Only the commit stage takes the
+   * unconfirmed transactions lock.
+   * @return the transactions added to the pool, null if the response was missing or invalid
+   */
+  CompletableFuture<List<Transaction>> ingestPeerTransactions(CompletableFuture<JsonObject> response, Peer peer) {
+    long fetchStart = System.nanoTime();
+    return response.handle((json, throwable) -> {
+      JsonArray transactionsData = json == null ? null : JSON.getAsJsonArray(json.get(UNCONFIRMED_TRANSACTIONS_RESPONSE));
+      if (transactionsData == null) {
+        return null;
+      }
+      try {
+        return processPeerTransactions(transactionsData, peer, fetchStart);
+      } catch (ValidationException | RuntimeException e) {
+        peer.blacklist(e, "pulled invalid data using getUnconfirmedTransactions");
+        return null;
+      }
+    });
+  }
+
+  private List<Transaction> processPeerTransactions(JsonArray transactionsData, Peer peer, long fetchStart) throws BurstException.ValidationException {
 	  if (blockchain.getLastBlock().getTimestamp() < timeService.getEpochTime() - 60 * 1440 && ! testUnconfirmedTransactions) {
       return new ArrayList<>();
     }
     if (blockchain.getHeight() <= Constants.NQT_BLOCK) {
       return new ArrayList<>();
     }
-    List<Transaction> transactions = new ArrayList<>();
-    for (JsonElement transactionData : transactionsData) {
-      try {
-        Transaction transaction = parseTransaction(JSON.getAsJsonObject(transactionData));
-        transactionService.validate(transaction);
-        if(!this.economicClustering.verifyFork(transaction)) {
-          continue;
+    int batchSize = transactionsData.size();
+    ingestionStatistics.batchQueued(batchSize);
+    try {
+      List<Transaction> parsedTransactions = new ArrayList<>(batchSize);
+      for (JsonElement transactionData : transactionsData) {
+        try {
+          parsedTransactions.add(parseTransaction(JSON.getAsJsonObject(transactionData)));
+        } catch (BurstException.NotValidException e) {
+          if (logger.isDebugEnabled()) {
+            logger.debug("Invalid transaction from peer: {}", JSON.toJsonString(transactionData));
+          }
+          throw e;
         }
-        transactions.add(transaction);
-      } catch (BurstException.NotCurrentlyValidException ignore) {
-      } catch (BurstException.NotValidException e) {
-        if (logger.isDebugEnabled()) {
-          logger.debug("Invalid transaction from peer: {}", JSON.toJsonString(transactionData));
+      }
+      ingestionStatistics.record(Stage.FETCH, fetchStart, batchSize);
+
+      long verifyStart = System.nanoTime();
+      List<Transaction> transactions = new ArrayList<>(parsedTransactions.size());
+      for (Transaction transaction : parsedTransactions) {
+        try {
+          transactionService.validate(transaction);
+          if (this.economicClustering.verifyFork(transaction)) {
+            transactions.add(transaction);
+          }
+        } catch (BurstException.NotCurrentlyValidException ignore) {
+        } catch (BurstException.NotValidException e) {
+          if (logger.isDebugEnabled()) {
+            logger.debug("Invalid transaction from peer: {}", JSON.toJsonString(transaction.getJsonObject()));
+          }
+          throw e;
         }
-        throw e;
       }
+      List<Transaction> verifiedTransactions = verifyTransactions(transactions, peer);
+      ingestionStatistics.record(Stage.VERIFY, verifyStart, batchSize);
+
+      return commitTransactions(verifiedTransactions, peer);
+    } finally {
+      ingestionStatistics.batchDone(batchSize);
     }
-    return processTransactions(transactions, peer);
   }
 
   private List<Transaction> processTransactions(Collection<Transaction> transactions, Peer peer) throws BurstException.ValidationException {
-    synchronized (unconfirmedTransactionsSyncObj) {
-      if (transactions.isEmpty()) {
-        return Collections.emptyList();
+    return commitTransactions(verifyTransactions(transactions, peer), peer);
+  }
+
+  /**
+   * Drops expired, already known and badly signed transactions without holding the unconfirmed transactions lock.
+   * Everything that depends on account state is left to {@link #commitTransactions}.
+   */
+  List<Transaction> verifyTransactions(Collection<Transaction> transactions, Peer peer) {
+    if (transactions.isEmpty()) {
+      return Collections.emptyList();
+    }
+
+    List<Transaction> knownTransactions = new ArrayList<>();
+    List<Transaction> signatureCandidates = new ArrayList<>(transactions.size());
+    int curTime = timeService.getEpochTime();
+    for (Transaction transaction : transactions) {
+      if (transaction.getTimestamp() > curTime + 15 || transaction.getExpiration() < curTime
+          || transaction.getDeadline() > 1440) {
+        continue;
+      }
+      if (unconfirmedTransactionStore.exists(transaction.getId()) || dbs.getTransactionDb().hasTransaction(transaction.getId())) {
+        knownTransactions.add(transaction);
+        continue;
+      }
+      signatureCandidates.add(transaction);
+    }
+    if (!knownTransactions.isEmpty()) {
+      unconfirmedTransactionStore.markFingerPrintsOf(peer, knownTransactions);
+    }
+
+    // Verify the signatures of all transactions we do not know yet in one parallel batch
+    BitSet invalidSignatures = Transaction.verifySignatures(signatureCandidates);
+    List<Transaction> verifiedTransactions = new ArrayList<>(signatureCandidates.size());
+    for (int i = 0; i < signatureCandidates.size(); i++) {
+      if (invalidSignatures.get(i)) {
+        if (logger.isDebugEnabled()) {
+          logger.debug("Transaction {} failed to verify", JSON.toJsonString(signatureCandidates.get(i).getJsonObject()));
+        }
+      } else {
+        verifiedTransactions.add(signatureCandidates.get(i));
       }
+    }
+    return verifiedTransactions;
+  }
 
+  private List<Transaction> commitTransactions(List<Transaction> transactions, Peer peer) throws BurstException.ValidationException {
+    if (transactions.isEmpty()) {
+      return Collections.emptyList();
+    }
+
+    // measured from before taking the lock, so time spent waiting for block pushing or generation is included
+    long commitStart = System.nanoTime();
+    synchronized (unconfirmedTransactionsSyncObj) {
       List<Transaction> addedUnconfirmedTransactions = new ArrayList<>();
 
       for (Transaction transaction : transactions) {
 
         try {
-          int curTime = timeService.getEpochTime();
-          if (transaction.getTimestamp() > curTime + 15 || transaction.getExpiration() < curTime
-              || transaction.getDeadline() > 1440) {
-            continue;
-          }
-
           try {
             stores.beginTransaction();
             if (blockchain.getHeight() < Constants.NQT_BLOCK) {
               break; // not ready to process transactions
             }
 
+            // the pool or the chain may have taken the transaction since it was verified
             if (dbs.getTransactionDb().hasTransaction(transaction.getId()) || unconfirmedTransactionStore.exists(transaction.getId())) {
               stores.commitTransaction();
               unconfirmedTransactionStore.markFingerPrintsOf(peer, Collections.singletonList(transaction));
               continue;
             }
 
-            if (!(transaction.verifySignature() && transactionService.verifyPublicKey(transaction))) {
+            if (!transactionService.verifyPublicKey(transaction)) {
               if (accountService.getAccount(transaction.getSenderId()) != null && logger.isDebugEnabled()) {
                 logger.debug("Transaction {} failed to verify", JSON.toJsonString(transaction.getJsonObject()));
               }
@@ -373,6 +467,7 @@ public class TransactionProcessorImpl implements TransactionProcessor {
         transactionListeners.notify(addedUnconfirmedTransactions, Event.ADDED_UNCONFIRMED_TRANSACTIONS);
       }
 
+      ingestionStatistics.record(Stage.COMMIT, commitStart, transactions.size());
       return addedUnconfirmedTransactions;
     }
   }
@@ -389,20 +484,55 @@ public class TransactionProcessorImpl implements TransactionProcessor {
     return peersToSendTo.size();
   }
 
-  public void revalidateUnconfirmedTransactions() {
-    final List<Transaction> invalidTransactions = new ArrayList<>();
-
-    for(Transaction t: unconfirmedTransactionStore.getAll()) {
-      try {
-        this.transactionService.validate(t);
-      } catch (ValidationException e) {
-        invalidTransactions.add(t);
+  /**
+   * Re-reserves the balances of the senders whose balance changed while the block was accepted, and validates again
+   * the unconfirmed transactions the block affects. Both are done for the whole pool when it has to be revalidated
+   * as a whole.
+   */
+  public void revalidateUnconfirmedTransactions(Block block) {
+    boolean fullRevalidation = requiresFullRevalidation(block);
+    fullRevalidationPending.set(false);
+    BlockChangeSet changeSet = BlockChangeSet.of(block, drainBalanceChangedAccountIds());
+
+    final List<Transaction> candidates;
+    synchronized (unconfirmedTransactionsSyncObj) {
+      if (fullRevalidation) {
+        unconfirmedTransactionStore.resetAccountBalances();
+        candidates = unconfirmedTransactionStore.getAll();
+      } else {
+        unconfirmedTransactionStore.resetAccountBalances(changeSet.getAccountIds());
+        candidates = unconfirmedTransactionStore.getAll().stream().filter(changeSet::affects).collect(Collectors.toList());
       }
     }
 
+    final List<Transaction> invalidTransactions = candidates.parallelStream()
+        .filter(t -> {
+          try {
+            this.transactionService.validate(t);
+            return false;
+          } catch (ValidationException e) {
+            return true;
+          }
+        })
+        .collect(Collectors.toList());
+
     for(Transaction t:invalidTransactions) {
       unconfirmedTransactionStore.remove(t);
     }
+
+    if (logger.isDebugEnabled()) {
+      logger.debug("Revalidated {} of {} unconfirmed transactions after block {}, removed {}", candidates.size(),
+          unconfirmedTransactionStore.getAmount(), block.getHeight(), invalidTransactions.size());
+    }
+  }
+
+  private Set<Long> drainBalanceChangedAccountIds() {
+    final Set<Long> accountIds = new HashSet<>();
+    for (Iterator<Long> it = balanceChangedAccountIds.iterator(); it.hasNext(); ) {
+      accountIds.add(it.next());
+      it.remove();
+    }
+    return accountIds;
   }
 
   public void removeForgedTransactions(List<Transaction> transactions) {
@@ -11,20 +11,16 @@ import brs.*;
 import brs.db.BurstKey;
 import brs.db.TransactionDb;
 import brs.db.VersionedEntityTable;
+import brs.props.Props;
 import brs.services.AccountService;
 import brs.util.Listener;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
 
 public class AT extends AtMachineState {
 
@@ -145,36 +141,14 @@ public class AT extends AtMachineState {
         if (stateBytes == null || stateBytes.length == 0) {
             return null;
         }
-
-        try (ByteArrayOutputStream bos = new ByteArrayOutputStream()) {
-            try (GZIPOutputStream gzip = new GZIPOutputStream(bos)) {
-                gzip.write(stateBytes);
-                gzip.flush();
-            }
-            return bos.toByteArray();
-        } catch (IOException e) {
-            throw new RuntimeException(e.getMessage(), e);
-        }
+        return AtStateCodec.encode(stateBytes, AtStateCodec.Codec.byName(Burst.getPropertyService().getString(Props.AT_STATE_CODEC)));
     }
 
     public static byte[] decompressState(byte[] stateBytes) {
         if (stateBytes == null || stateBytes.length == 0) {
             return null;
         }
-
-        try (ByteArrayInputStream bis = new ByteArrayInputStream(stateBytes);
-             GZIPInputStream gzip = new GZIPInputStream(bis);
-             ByteArrayOutputStream bos = new ByteArrayOutputStream()) {
-            byte[] buffer = new byte[256];
-            int read;
-            while ((read = gzip.read(buffer, 0, buffer.length)) > 0) {
-                bos.write(buffer, 0, read);
-            }
-            bos.flush();
-            return bos.toByteArray();
-        } catch (IOException e) {
-            throw new RuntimeException(e.getMessage(), e);
-        }
+        return AtStateCodec.decode(stateBytes);
     }
 
     public void saveState() {
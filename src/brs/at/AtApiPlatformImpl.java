@@ -1,6 +1,7 @@
 package brs.at;
 
 import brs.Appendix;
+import brs.Block;
 import brs.Burst;
 import brs.Transaction;
 import brs.crypto.Crypto;
@@ -12,6 +13,7 @@ import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.security.MessageDigest;
 import java.util.Arrays;
+import java.util.Map;
 
 public class AtApiPlatformImpl extends AtApiImpl {
 
@@ -28,11 +30,46 @@ public class AtApiPlatformImpl extends AtApiImpl {
     }
 
     private static Long findTransaction(int startHeight, int endHeight, Long atID, int numOfTx, long minAmount) {
-        return Burst.getStores().getAtStore().findTransaction(startHeight, endHeight, atID, numOfTx, minAmount);
+        return AtParallelValidator.onTransactionThread(() -> Burst.getStores().getAtStore().findTransaction(startHeight, endHeight, atID, numOfTx, minAmount));
     }
 
     private static int findTransactionHeight(Long transactionId, int height, Long atID, long minAmount) {
-        return Burst.getStores().getAtStore().findTransactionHeight(transactionId, height, atID, minAmount);
+        return AtParallelValidator.onTransactionThread(() -> Burst.getStores().getAtStore().findTransactionHeight(transactionId, height, atID, minAmount));
+    }
+
+    private static AtIncomingTransactions incomingTransactions(AtMachineState state) {
+        AtIncomingTransactions incomingTransactions = state.getIncomingTransactions();
+        if (incomingTransactions == null || !incomingTransactions.isFor(state.getHeight(), state.minActivationAmount())) {
+            long atId = AtApiHelper.getLong(state.getId());
+            int endHeight = state.getHeight();
+            long minAmount = state.minActivationAmount();
+            incomingTransactions = new AtIncomingTransactions(new AtIncomingTransactions.Source() {
+                @Override
+                public Map<Long, Integer> load(int startHeight, int limit) {
+                    return AtParallelValidator.onTransactionThread(() -> Burst.getStores().getAtStore().getIncomingTransactions(atId, startHeight, endHeight, minAmount, limit));
+                }
+
+                @Override
+                public long findTransaction(int startHeight, int numOfTx) {
+                    return AtApiPlatformImpl.findTransaction(startHeight, endHeight, atId, numOfTx, minAmount);
+                }
+
+                @Override
+                public int findTransactionHeight(long transactionId, int height) {
+                    return AtApiPlatformImpl.findTransactionHeight(transactionId, height, atId, minAmount);
+                }
+            }, endHeight, minAmount);
+            state.setIncomingTransactions(incomingTransactions);
+        }
+        return incomingTransactions;
+    }
+
+    private static Transaction getTransaction(long transactionId) {
+        return AtParallelValidator.onTransactionThread(() -> Burst.getBlockchain().getTransaction(transactionId));
+    }
+
+    private static Block getBlockAtHeight(int height) {
+        return AtParallelValidator.onTransactionThread(() -> Burst.getBlockchain().getBlockAtHeight(height));
     }
 
     @Override
@@ -57,7 +94,7 @@ public class AtApiPlatformImpl extends AtApiImpl {
         ByteBuffer b = ByteBuffer.allocate(state.getA1().length * 4);
         b.order(ByteOrder.LITTLE_ENDIAN);
 
-        b.put(Burst.getBlockchain().getBlockAtHeight(state.getHeight() - 1).getBlockHash());
+        b.put(getBlockAtHeight(state.getHeight() - 1).getBlockHash());
 
         b.clear();
 
@@ -82,9 +119,7 @@ public class AtApiPlatformImpl extends AtApiImpl {
         int height = AtApiHelper.longToHeight(val);
         int numOfTx = AtApiHelper.longToNumOfTx(val);
 
-        byte[] b = state.getId();
-
-        long tx = findTransaction(height, state.getHeight(), AtApiHelper.getLong(b), numOfTx, state.minActivationAmount());
+        long tx = incomingTransactions(state).findTransaction(height, numOfTx);
         logger.debug("tx with id {} found", tx);
         clearA(state);
         state.setA1(AtApiHelper.getByteArray(tx));
@@ -95,7 +130,7 @@ public class AtApiPlatformImpl extends AtApiImpl {
     public long getTypeForTxInA(AtMachineState state) {
         long txid = AtApiHelper.getLong(state.getA1());
 
-        Transaction tx = Burst.getBlockchain().getTransaction(txid);
+        Transaction tx = getTransaction(txid);
 
         if (tx == null || (tx.getHeight() >= state.getHeight())) {
             return -1;
@@ -112,7 +147,7 @@ public class AtApiPlatformImpl extends AtApiImpl {
     public long getAmountForTxInA(AtMachineState state) {
         long txId = AtApiHelper.getLong(state.getA1());
 
-        Transaction tx = Burst.getBlockchain().getTransaction(txId);
+        Transaction tx = getTransaction(txId);
 
         if (tx == null || (tx.getHeight() >= state.getHeight())) {
             return -1;
@@ -129,15 +164,14 @@ public class AtApiPlatformImpl extends AtApiImpl {
     public long getTimestampForTxInA(AtMachineState state) {
         long txId = AtApiHelper.getLong(state.getA1());
         logger.debug("get timestamp for tx with id {} found", txId);
-        Transaction tx = Burst.getBlockchain().getTransaction(txId);
+        Transaction tx = getTransaction(txId);
 
         if (tx == null || (tx.getHeight() >= state.getHeight())) {
             return -1;
         }
 
-        byte[] b = state.getId();
         int blockHeight = tx.getHeight();
-        int txHeight = findTransactionHeight(txId, blockHeight, AtApiHelper.getLong(b), state.minActivationAmount());
+        int txHeight = incomingTransactions(state).findTransactionHeight(txId, blockHeight);
 
         return AtApiHelper.getLongTimestamp(blockHeight, txHeight);
     }
@@ -146,7 +180,7 @@ public class AtApiPlatformImpl extends AtApiImpl {
     public long getRandomIdForTxInA(AtMachineState state) {
         long txId = AtApiHelper.getLong(state.getA1());
 
-        Transaction tx = Burst.getBlockchain().getTransaction(txId);
+        Transaction tx = getTransaction(txId);
 
         if (tx == null || (tx.getHeight() >= state.getHeight())) {
             return -1;
@@ -168,7 +202,7 @@ public class AtApiPlatformImpl extends AtApiImpl {
 
         ByteBuffer bf = ByteBuffer.allocate(32 + Long.SIZE + senderPublicKey.length);
         bf.order(ByteOrder.LITTLE_ENDIAN);
-        bf.put(Burst.getBlockchain().getBlockAtHeight(blockHeight - 1).getGenerationSignature());
+        bf.put(getBlockAtHeight(blockHeight - 1).getGenerationSignature());
         bf.putLong(tx.getId());
         bf.put(senderPublicKey);
 
@@ -182,7 +216,7 @@ public class AtApiPlatformImpl extends AtApiImpl {
     public void messageFromTxInAToB(AtMachineState state) {
         long txid = AtApiHelper.getLong(state.getA1());
 
-        Transaction tx = Burst.getBlockchain().getTransaction(txid);
+        Transaction tx = getTransaction(txid);
         if (tx != null && tx.getHeight() >= state.getHeight()) {
             tx = null;
         }
@@ -223,7 +257,7 @@ public class AtApiPlatformImpl extends AtApiImpl {
 
         clearB(state);
 
-        Transaction tx = Burst.getBlockchain().getTransaction(txId);
+        Transaction tx = getTransaction(txId);
         if (tx != null && tx.getHeight() >= state.getHeight()) {
             tx = null;
         }
@@ -248,7 +282,7 @@ public class AtApiPlatformImpl extends AtApiImpl {
         ByteBuffer b = ByteBuffer.allocate(state.getA1().length * 4);
         b.order(ByteOrder.LITTLE_ENDIAN);
 
-        b.put(Burst.getBlockchain().getBlockAtHeight(state.getHeight() - 1).getGenerationSignature());
+        b.put(getBlockAtHeight(state.getHeight() - 1).getGenerationSignature());
 
         byte[] temp = new byte[8];
 
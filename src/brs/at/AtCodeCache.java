@@ -0,0 +1,73 @@
+package brs.at;
+
+import java.util.*;
+
+/**
+ * Keeps the jump table and decoded operands of each AT so its code does not have to be disassembled and
+ * decoded again on every block. AT code cannot change after creation, but an entry is still only used if the code
+ * and sizes match the ones it was built from, so an AT recreated under the same id after a rollback never sees stale data.
+ */
+final class AtCodeCache {
+    private static final int MAX_ENTRIES = 4096;
+
+    private static final Map<Long, Entry> entries = Collections.synchronizedMap(new LinkedHashMap<Long, Entry>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    });
+
+    private AtCodeCache() {
+    }
+
+    static Set<Integer> getJumps(AtMachineState state) {
+        Entry entry = getEntry(state);
+        return entry == null ? null : entry.jumps;
+    }
+
+    static void putJumps(AtMachineState state, Set<Integer> jumps) {
+        getOrAddEntry(state).jumps = Collections.unmodifiableSet(new TreeSet<>(jumps));
+    }
+
+    static AtDecodedCode getDecodedCode(AtMachineState state) {
+        return getOrAddEntry(state).decodedCode;
+    }
+
+    static void invalidate(AtMachineState state) {
+        entries.remove(AtApiHelper.getLong(state.getId()));
+    }
+
+    private static Entry getEntry(AtMachineState state) {
+        Entry entry = entries.get(AtApiHelper.getLong(state.getId()));
+        if (entry == null || entry.cSize != state.getcSize() || entry.dSize != state.getdSize() || !Arrays.equals(entry.code, state.getApCodeBytes())) {
+            return null;
+        }
+        return entry;
+    }
+
+    private static Entry getOrAddEntry(AtMachineState state) {
+        synchronized (entries) {
+            Entry entry = getEntry(state);
+            if (entry == null) {
+                entry = new Entry(state.getApCodeBytes().clone(), state.getcSize(), state.getdSize());
+                entries.put(AtApiHelper.getLong(state.getId()), entry);
+            }
+            return entry;
+        }
+    }
+
+    private static class Entry {
+        private final byte[] code;
+        private final int cSize;
+        private final int dSize;
+        private final AtDecodedCode decodedCode;
+        private volatile Set<Integer> jumps;
+
+        private Entry(byte[] code, int cSize, int dSize) {
+            this.code = code;
+            this.cSize = cSize;
+            this.dSize = dSize;
+            this.decodedCode = new AtDecodedCode(cSize);
+        }
+    }
+}
@@ -15,6 +15,9 @@ import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.security.MessageDigest;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 public abstract class AtController {
     private AtController() {
@@ -31,7 +34,15 @@ public abstract class AtController {
         state.getMachineState().dead = false;
         state.getMachineState().steps = 0;
 
-        AtMachineProcessor processor = new AtMachineProcessor(state, Burst.getPropertyService().getBoolean(Props.ENABLE_AT_DEBUG_LOG));
+        // the plain processor stays the default until the pre-decoded one has been checked against stored chain state
+        boolean enableLogger = Burst.getPropertyService().getBoolean(Props.ENABLE_AT_DEBUG_LOG);
+        AtMachineProcessor processor = null;
+        AtPreDecodedMachineProcessor preDecodedProcessor = null;
+        if (Burst.getPropertyService().getBoolean(Props.ENABLE_AT_PRE_DECODE)) {
+            preDecodedProcessor = new AtPreDecodedMachineProcessor(state, enableLogger, AtCodeCache.getDecodedCode(state));
+        } else {
+            processor = new AtMachineProcessor(state, enableLogger);
+        }
 
         state.setFreeze(false);
 
@@ -51,7 +62,7 @@ public abstract class AtController {
 
             state.setgBalance(state.getgBalance() - (stepFee * numSteps));
             state.getMachineState().steps += numSteps;
-            int rc = processor.processOp(false, false);
+            int rc = preDecodedProcessor != null ? preDecodedProcessor.processOp(false, false) : processor.processOp(false, false);
 
             if (rc >= 0) {
                 if (state.getMachineState().stopped) {
@@ -93,23 +104,40 @@ public abstract class AtController {
 
     public static void resetMachine(AtMachineState state) {
         state.getMachineState().reset();
+        AtCodeCache.invalidate(state);
         listCode(state, true, true);
     }
 
     private static void listCode(AtMachineState state, boolean disassembly, boolean determineJumps) {
 
-        AtMachineProcessor machineProcessor = new AtMachineProcessor(state, Burst.getPropertyService().getBoolean(Props.ENABLE_AT_DEBUG_LOG));
-
         int opc = state.getMachineState().pc;
         int osteps = state.getMachineState().steps;
 
         state.getApCode().order(ByteOrder.LITTLE_ENDIAN);
         state.getApData().order(ByteOrder.LITTLE_ENDIAN);
 
+        if (determineJumps) {
+            Set<Integer> cachedJumps = AtCodeCache.getJumps(state);
+            if (cachedJumps != null) {
+                state.getMachineState().jumps.addAll(cachedJumps);
+                state.getMachineState().opc = opc;
+                return;
+            }
+        }
+
+        AtMachineProcessor machineProcessor = new AtMachineProcessor(state, Burst.getPropertyService().getBoolean(Props.ENABLE_AT_DEBUG_LOG));
+
         state.getMachineState().pc = 0;
         state.getMachineState().opc = opc;
 
+        // disassembling SET_IDX reads (and writes) the data pages, so the jumps of code using it are not cached
+        boolean cacheable = determineJumps && state.getMachineState().jumps.isEmpty();
+
         while (true) {
+            int pc = state.getMachineState().pc;
+            if (pc >= 0 && pc < state.getApCode().capacity() && state.getApCode().get(pc) == OpCode.E_OP_CODE_SET_IDX) {
+                cacheable = false;
+            }
 
             int rc = machineProcessor.processOp(disassembly, determineJumps);
             if (rc <= 0) break;
@@ -117,6 +145,10 @@ public abstract class AtController {
             state.getMachineState().pc += rc;
         }
 
+        if (cacheable) {
+            AtCodeCache.putJumps(state, state.getMachineState().jumps);
+        }
+
         state.getMachineState().steps = osteps;
         state.getMachineState().pc = opc;
     }
@@ -292,9 +324,8 @@ public abstract class AtController {
         byte[] md5;
         long totalAmount = 0;
 
-        for (Map.Entry<ByteBuffer, byte[]> entry : ats.entrySet()) {
-            ByteBuffer atIdBuffer = entry.getKey();
-            byte[] receivedMd5 = entry.getValue();
+        List<AT> preparedATs = new ArrayList<>();
+        for (ByteBuffer atIdBuffer : ats.keySet()) {
             byte[] atId = atIdBuffer.array();
             AT at = AT.getAT(atId);
             try {
@@ -319,9 +350,21 @@ public abstract class AtController {
                 at.setgBalance(atAccountBalance);
 
                 listCode(at, true, true);
+            } catch (Exception e) {
+                debugLogger.debug("ATs error", e);
+                throw new AtException("ATs error. Block rejected", e);
+            }
+            preparedATs.add(at);
+        }
 
-                runSteps(at);
+        // ATs only read committed chain data and their own state while running, so they can run independently.
+        // Everything that depends on the order of the ATs in the block happens afterwards, in block order.
+        runAll(preparedATs);
 
+        Iterator<byte[]> receivedMd5s = ats.values().iterator();
+        for (AT at : preparedATs) {
+            byte[] receivedMd5 = receivedMd5s.next();
+            try {
                 long fee = at.getMachineState().steps * AtConstants.getInstance().stepFee(at.getCreationBlockHeight());
                 if (at.getMachineState().dead) {
                     fee += at.getgBalance();
@@ -336,7 +379,7 @@ public abstract class AtController {
                 }
 
                 totalFee += fee;
-                AT.addPendingFee(atId, fee);
+                AT.addPendingFee(at.getId(), fee);
 
                 processedATs.add(at);
 
@@ -357,6 +400,33 @@ public abstract class AtController {
         return new AtBlock(totalFee, totalAmount, new byte[1]);
     }
 
+    private static void runAll(List<AT> ats) throws AtException {
+        try {
+            if (ats.size() > 1 && Burst.getPropertyService().getBoolean(Props.ENABLE_AT_PARALLEL_VALIDATION)) {
+                List<Callable<Integer>> tasks = new ArrayList<>(ats.size());
+                for (AT at : ats) {
+                    tasks.add(() -> runSteps(at));
+                }
+                for (Future<Integer> result : AtParallelValidator.runAll(tasks)) {
+                    result.get();
+                }
+            } else {
+                for (AT at : ats) {
+                    runSteps(at);
+                }
+            }
+        } catch (ExecutionException e) {
+            debugLogger.debug("ATs error", e.getCause());
+            throw new AtException("ATs error. Block rejected", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AtException("ATs error. Block rejected", e);
+        } catch (Exception e) {
+            debugLogger.debug("ATs error", e);
+            throw new AtException("ATs error. Block rejected", e);
+        }
+    }
+
     private static LinkedHashMap<ByteBuffer, byte[]> getATsFromBlock(byte[] blockATs) throws AtException {
         if (blockATs.length > 0 && blockATs.length % (getCostOfOneAT()) != 0) {
             throw new AtException("blockATs must be a multiple of cost of one AT ( " + getCostOfOneAT() + " )");
@@ -0,0 +1,101 @@
+package brs.at;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Operands of AT code decoded once per code position, so the processor does not have to read and
+ * validate them from the code buffer again every time the instruction runs.
+ * An instruction reads up to two operand groups, the second one (of SET_IDX, IDX_DAT and EXT_FUN_RET_DAT_2) with the
+ * code buffer positioned past the first. Each group is kept as a record in flat arrays, holding exactly what the
+ * operand reader of {@link AtPreDecodedMachineProcessor} produced: its result code and the operand fields it got far enough to
+ * write. Records are added by whichever thread runs the code first and are never changed afterwards.
+ */
+final class AtDecodedCode {
+    static final int FIELD_FUN = 1;
+    static final int FIELD_ADDR1 = 1 << 1;
+    static final int FIELD_ADDR2 = 1 << 2;
+    static final int FIELD_ADDR3 = 1 << 3;
+    static final int FIELD_VAL = 1 << 4;
+    static final int FIELD_OFF = 1 << 5;
+
+    private static final int GROUPS = 2;
+
+    private static final int RC = 0;
+    private static final int FIELDS = 1;
+    private static final int FUN = 2;
+    private static final int ADDR1 = 3;
+    private static final int ADDR2 = 4;
+    private static final int ADDR3 = 5;
+    private static final int OFF = 6;
+    private static final int RECORD_INTS = 7;
+
+    // record number + 1 of every code position and operand group, 0 as long as it has not been decoded
+    private final AtomicIntegerArray index;
+    private volatile int[] ints = new int[16 * RECORD_INTS];
+    private volatile long[] vals = new long[16];
+    private int records;
+
+    AtDecodedCode(int cSize) {
+        this.index = new AtomicIntegerArray(Math.max(cSize, 0) * GROUPS);
+    }
+
+    /**
+     * @return the record of the operand group decoded at the given code position, -1 if it has not been decoded yet
+     */
+    int find(int pc, int group) {
+        int slot = pc * GROUPS + group;
+        if (pc < 0 || group >= GROUPS || slot >= index.length()) {
+            return -1;
+        }
+        return index.get(slot) - 1;
+    }
+
+    /**
+     * Writes the operand fields of the record the same way its reader did.
+     * @return the result code of the reader
+     */
+    int replay(int record, AtPreDecodedMachineProcessor.Fun fun) {
+        // the index entry read before publishes the record, and arrays only ever grow with all records copied
+        int[] ints = this.ints;
+        int base = record * RECORD_INTS;
+        int fields = ints[base + FIELDS];
+        if ((fields & FIELD_FUN) != 0) fun.fun = (short) ints[base + FUN];
+        if ((fields & FIELD_ADDR1) != 0) fun.addr1 = ints[base + ADDR1];
+        if ((fields & FIELD_ADDR2) != 0) fun.addr2 = ints[base + ADDR2];
+        if ((fields & FIELD_ADDR3) != 0) fun.addr3 = ints[base + ADDR3];
+        if ((fields & FIELD_VAL) != 0) fun.val = vals[record];
+        if ((fields & FIELD_OFF) != 0) fun.off = (byte) ints[base + OFF];
+        return ints[base + RC];
+    }
+
+    /**
+     * Records the result of an operand reader, taking the fields it wrote from the processor's operand state.
+     */
+    synchronized void add(int pc, int group, int rc, int fields, AtPreDecodedMachineProcessor.Fun fun) {
+        int slot = pc * GROUPS + group;
+        if (pc < 0 || group >= GROUPS || slot >= index.length() || index.get(slot) != 0) {
+            return;
+        }
+
+        int[] ints = this.ints;
+        long[] vals = this.vals;
+        if (records == vals.length) {
+            ints = Arrays.copyOf(ints, ints.length * 2);
+            vals = Arrays.copyOf(vals, vals.length * 2);
+            this.ints = ints;
+            this.vals = vals;
+        }
+        int base = records * RECORD_INTS;
+        ints[base + RC] = rc;
+        ints[base + FIELDS] = fields;
+        ints[base + FUN] = fun.fun;
+        ints[base + ADDR1] = fun.addr1;
+        ints[base + ADDR2] = fun.addr2;
+        ints[base + ADDR3] = fun.addr3;
+        ints[base + OFF] = fun.off;
+        vals[records] = fun.val;
+        records++;
+        index.set(slot, records);
+    }
+}
@@ -0,0 +1,99 @@
+package brs.at;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Incoming transactions of one AT below the height it runs at, read from the database in windows ordered by height and id.
+ * An AT that walks through its incoming transactions asks for the next one after a given height many times in one run;
+ * those lookups are answered from the window instead of issuing a query each time.
+ */
+final class AtIncomingTransactions {
+
+    interface Source {
+        /**
+         * Returns up to limit transaction ids mapped to their heights, from startHeight up to the end height
+         * and ordered by height and id.
+         */
+        Map<Long, Integer> load(int startHeight, int limit);
+
+        long findTransaction(int startHeight, int numOfTx);
+
+        int findTransactionHeight(long transactionId, int height);
+    }
+
+    private static final int WINDOW = 64;
+    private static final int MAX_CACHED_INDEX = 1024;
+
+    private final Source source;
+    private final int endHeight;
+    private final long minAmount;
+
+    private int fromHeight = Integer.MAX_VALUE;
+    private long[] ids = new long[0];
+    private int[] heights = new int[0];
+    // whether the window holds every incoming transaction from fromHeight on
+    private boolean complete;
+
+    AtIncomingTransactions(Source source, int endHeight, long minAmount) {
+        this.source = source;
+        this.endHeight = endHeight;
+        this.minAmount = minAmount;
+    }
+
+    boolean isFor(int endHeight, long minAmount) {
+        return this.endHeight == endHeight && this.minAmount == minAmount;
+    }
+
+    long findTransaction(int startHeight, int numOfTx) {
+        int index = numOfTx < 0 ? 0 : numOfTx;
+        if (index > MAX_CACHED_INDEX) {
+            return source.findTransaction(startHeight, numOfTx);
+        }
+
+        if (startHeight < fromHeight || (!complete && firstIndexAt(startHeight) + index >= ids.length)) {
+            load(startHeight, index + WINDOW);
+        }
+
+        int position = firstIndexAt(startHeight) + index;
+        return position < ids.length ? ids[position] : 0L;
+    }
+
+    int findTransactionHeight(long transactionId, int height) {
+        if (height < fromHeight || height >= endHeight || (!complete && (heights.length == 0 || height >= heights[heights.length - 1]))) {
+            return source.findTransactionHeight(transactionId, height);
+        }
+
+        int counter = 0;
+        for (int i = firstIndexAt(height); i < ids.length && heights[i] == height; i++) {
+            counter++;
+            if (ids[i] == transactionId) break;
+        }
+        return counter;
+    }
+
+    private void load(int startHeight, int limit) {
+        Map<Long, Integer> rows = source.load(startHeight, limit);
+        ids = new long[rows.size()];
+        heights = new int[rows.size()];
+        int i = 0;
+        for (Map.Entry<Long, Integer> row : rows.entrySet()) {
+            ids[i] = row.getKey();
+            heights[i] = row.getValue();
+            i++;
+        }
+        fromHeight = startHeight;
+        complete = rows.size() < limit;
+    }
+
+    private int firstIndexAt(int height) {
+        int index = Arrays.binarySearch(heights, height);
+        if (index < 0) {
+            return -index - 1;
+        }
+        while (index > 0 && heights[index - 1] == height) {
+            index--;
+        }
+        return index;
+    }
+}
@@ -38,6 +38,7 @@ public class AtMachineState {
     private long minActivationAmount;
     private ByteBuffer apData;
     private int height;
+    private AtIncomingTransactions incomingTransactions;
 
     protected AtMachineState(byte[] atId, byte[] creator, short version,
                              byte[] stateBytes, int cSize, int dSize, int cUserStackBytes, int cCallStackBytes,
@@ -350,6 +351,14 @@ public class AtMachineState {
         this.height = height;
     }
 
+    AtIncomingTransactions getIncomingTransactions() {
+        return incomingTransactions;
+    }
+
+    void setIncomingTransactions(AtIncomingTransactions incomingTransactions) {
+        this.incomingTransactions = incomingTransactions;
+    }
+
     private byte[] getTransactionBytes() {
         ByteBuffer b = ByteBuffer.allocate((creator.length + 8) * transactions.size());
         b.order(ByteOrder.LITTLE_ENDIAN);
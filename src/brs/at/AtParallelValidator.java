@@ -0,0 +1,115 @@
+package brs.at;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs the ATs of a block on several threads while the validating thread keeps ownership of the block transaction.
+ * Database reads made by an AT on a worker thread are handed back to the validating thread, so they see the
+ * same uncommitted state as a sequential run would.
+ */
+final class AtParallelValidator {
+
+    private static final long READ_POLL_MILLIS = 100;
+
+    private static final ThreadLocal<Session> transactionThreadSession = new ThreadLocal<>();
+
+    private static final AtomicInteger threadNumber = new AtomicInteger();
+
+    private static final ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+        Thread thread = new Thread(runnable, "at-validation-" + threadNumber.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private AtParallelValidator() {
+    }
+
+    /**
+     * Reads queued by the workers of one {@link #runAll} call. Once the validating thread stops serving them, the
+     * session is closed and workers waiting for a read give up instead of waiting forever.
+     */
+    private static final class Session {
+        private final BlockingQueue<Runnable> queue = new LinkedBlockingQueue<>();
+        private volatile boolean closed;
+    }
+
+    /**
+     * Runs a read on the validating thread when called from an AT running on a worker thread, or directly otherwise.
+     * @throws CancellationException if the validating thread stopped serving reads, or the worker was interrupted
+     */
+    static <T> T onTransactionThread(Supplier<T> read) {
+        Session session = transactionThreadSession.get();
+        if (session == null) {
+            return read.get();
+        }
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        session.queue.add(() -> {
+            try {
+                result.complete(read.get());
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+        });
+        while (true) {
+            if (session.closed && !result.isDone()) {
+                throw new CancellationException("AT validation was aborted");
+            }
+            try {
+                return result.get(READ_POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // check whether the validating thread is still serving reads
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("AT validation was interrupted");
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new CompletionException(e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Runs the tasks on the worker threads and serves their reads until all of them are done.
+     * The returned futures are complete and in the same order as the tasks.
+     * If serving the reads fails or the calling thread is interrupted, the tasks still running are cancelled.
+     */
+    static <T> List<Future<T>> runAll(List<Callable<T>> tasks) throws InterruptedException {
+        Session session = new Session();
+        int[] remaining = {tasks.size()};
+
+        List<Future<T>> results = new ArrayList<>(tasks.size());
+        try {
+            for (Callable<T> task : tasks) {
+                results.add(executor.submit(() -> {
+                    transactionThreadSession.set(session);
+                    try {
+                        return task.call();
+                    } finally {
+                        transactionThreadSession.remove();
+                        session.queue.add(() -> remaining[0]--);
+                    }
+                }));
+            }
+
+            while (remaining[0] > 0) {
+                session.queue.take().run();
+            }
+        } finally {
+            if (remaining[0] > 0) {
+                session.closed = true;
+                for (Future<T> result : results) {
+                    result.cancel(true);
+                }
+            }
+        }
+
+        return results;
+    }
+}
@@ -0,0 +1,184 @@
+package brs.at;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
+
+/**
+ * Encodes AT machine states and code for storage.
+ * Encoded values start with a header naming the codec, followed by the original length and the codec's data.
+ * Values written before the header existed are plain GZIP streams; they are recognised by the GZIP magic bytes and still read,
+ * and can still be written for databases that older versions have to open.
+ */
+final class AtStateCodec {
+
+    private static final byte MAGIC = (byte) 0xA7;
+    private static final byte GZIP_MAGIC_1 = (byte) 0x1f;
+    private static final byte GZIP_MAGIC_2 = (byte) 0x8b;
+    private static final int HEADER_SIZE = 2 + 4;
+
+    enum Codec {
+        GZIP("gzip", (byte) -1),
+        STORED("stored", (byte) 0),
+        DEFLATE_FAST("deflate-fast", (byte) 1);
+
+        private final String name;
+        private final byte id;
+
+        Codec(String name, byte id) {
+            this.name = name;
+            this.id = id;
+        }
+
+        static Codec byName(String name) {
+            for (Codec codec : values()) {
+                if (codec.name.equalsIgnoreCase(name.trim())) {
+                    return codec;
+                }
+            }
+            throw new IllegalArgumentException("Unknown AT state codec " + name);
+        }
+
+        static Codec byId(byte id) {
+            for (Codec codec : values()) {
+                if (codec != GZIP && codec.id == id) {
+                    return codec;
+                }
+            }
+            throw new IllegalArgumentException("Unknown AT state codec " + id);
+        }
+    }
+
+    private static final ThreadLocal<Deflater> deflaters = ThreadLocal.withInitial(() -> new Deflater(Deflater.BEST_SPEED, true));
+    private static final ThreadLocal<Inflater> inflaters = ThreadLocal.withInitial(() -> new Inflater(true));
+
+    private AtStateCodec() {
+    }
+
+    static byte[] encode(byte[] bytes) {
+        return encode(bytes, Codec.DEFLATE_FAST);
+    }
+
+    static byte[] encode(byte[] bytes, Codec codec) {
+        if (codec == Codec.GZIP) {
+            return gzip(bytes);
+        }
+        if (codec == Codec.DEFLATE_FAST) {
+            byte[] deflated = deflate(bytes);
+            if (deflated.length < bytes.length) {
+                return withHeader(Codec.DEFLATE_FAST, bytes.length, deflated, deflated.length);
+            }
+        }
+        return withHeader(Codec.STORED, bytes.length, bytes, bytes.length);
+    }
+
+    static byte[] decode(byte[] encoded) {
+        if (encoded.length >= 2 && encoded[0] == GZIP_MAGIC_1 && encoded[1] == GZIP_MAGIC_2) {
+            return gunzip(encoded);
+        }
+        if (encoded.length < HEADER_SIZE || encoded[0] != MAGIC) {
+            throw new IllegalArgumentException("Unknown AT state encoding");
+        }
+
+        Codec codec = Codec.byId(encoded[1]);
+        int length = ByteBuffer.wrap(encoded, 2, 4).getInt();
+        if (length < 0) {
+            throw new IllegalArgumentException("Invalid AT state length " + length);
+        }
+
+        switch (codec) {
+            case STORED:
+                if (encoded.length - HEADER_SIZE != length) {
+                    throw new IllegalArgumentException("Invalid AT state length " + length);
+                }
+                return Arrays.copyOfRange(encoded, HEADER_SIZE, encoded.length);
+            case DEFLATE_FAST:
+                return inflate(encoded, length);
+            default:
+                throw new IllegalArgumentException("Unknown AT state codec " + codec);
+        }
+    }
+
+    private static byte[] withHeader(Codec codec, int length, byte[] data, int dataLength) {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + dataLength);
+        buffer.put(MAGIC);
+        buffer.put(codec.id);
+        buffer.putInt(length);
+        buffer.put(data, 0, dataLength);
+        return buffer.array();
+    }
+
+    private static byte[] deflate(byte[] bytes) {
+        Deflater deflater = deflaters.get();
+        deflater.reset();
+        deflater.setInput(bytes);
+        deflater.finish();
+
+        byte[] buffer = new byte[bytes.length / 2 + 64];
+        int size = 0;
+        while (!deflater.finished()) {
+            if (size == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            size += deflater.deflate(buffer, size, buffer.length - size);
+        }
+        return Arrays.copyOf(buffer, size);
+    }
+
+    private static byte[] inflate(byte[] encoded, int length) {
+        Inflater inflater = inflaters.get();
+        inflater.reset();
+        inflater.setInput(encoded, HEADER_SIZE, encoded.length - HEADER_SIZE);
+
+        byte[] result = new byte[length];
+        try {
+            int size = 0;
+            while (size < length && !inflater.finished()) {
+                int read = inflater.inflate(result, size, length - size);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                size += read;
+            }
+            if (size != length || !inflater.finished()) {
+                throw new IllegalArgumentException("Corrupt AT state");
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Corrupt AT state", e);
+        }
+        return result;
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        try (ByteArrayOutputStream bos = new ByteArrayOutputStream()) {
+            try (GZIPOutputStream gzip = new GZIPOutputStream(bos)) {
+                gzip.write(bytes);
+            }
+            return bos.toByteArray();
+        } catch (IOException e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+    }
+
+    private static byte[] gunzip(byte[] encoded) {
+        try (ByteArrayInputStream bis = new ByteArrayInputStream(encoded);
+             GZIPInputStream gzip = new GZIPInputStream(bis);
+             ByteArrayOutputStream bos = new ByteArrayOutputStream()) {
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = gzip.read(buffer, 0, buffer.length)) > 0) {
+                bos.write(buffer, 0, read);
+            }
+            return bos.toByteArray();
+        } catch (IOException e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+    }
+}
@@ -6,10 +6,14 @@ import org.bouncycastle.jcajce.provider.digest.MD5;
 
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.BitSet;
+import java.util.stream.IntStream;
 
 public final class Crypto {
   static final BurstCrypto burstCrypto = BurstCrypto.getInstance();
 
+  private static final int VERIFY_BATCH_CHUNK_SIZE = 16;
+
   private Crypto() {
   } //never
 
@@ -49,6 +53,34 @@ public final class Crypto {
       return burstCrypto.verify(signature, message, publicKey, enforceCanonical);
   }
 
+  /**
+   * Verifies a batch of signatures, spread in chunks over the fork/join pool of the calling task, or over the common
+   * fork/join pool when not called from a fork/join task.
+   * All arrays are indexed alike and must have the same length.
+   * @return the indices of the signatures that failed to verify
+   */
+  public static BitSet verifyBatch(byte[][] signatures, byte[][] messages, byte[][] publicKeys, boolean[] enforceCanonical) {
+    int size = signatures.length;
+    if (messages.length != size || publicKeys.length != size || enforceCanonical.length != size) {
+      throw new IllegalArgumentException("Signature batch arrays differ in length");
+    }
+    boolean[] failed = new boolean[size];
+    int chunks = (size + VERIFY_BATCH_CHUNK_SIZE - 1) / VERIFY_BATCH_CHUNK_SIZE;
+    IntStream.range(0, chunks).parallel().forEach(chunk -> {
+      int end = Math.min(size, (chunk + 1) * VERIFY_BATCH_CHUNK_SIZE);
+      for (int i = chunk * VERIFY_BATCH_CHUNK_SIZE; i < end; i++) {
+        failed[i] = signatures[i] == null || !verify(signatures[i], messages[i], publicKeys[i], enforceCanonical[i]);
+      }
+    });
+    BitSet failedIndices = new BitSet(size);
+    for (int i = 0; i < size; i++) {
+      if (failed[i]) {
+        failedIndices.set(i);
+      }
+    }
+    return failedIndices;
+  }
+
   public static byte[] aesEncrypt(byte[] plaintext, byte[] myPrivateKey, byte[] theirPublicKey) {
     return burstCrypto.aesSharedEncrypt(plaintext, myPrivateKey, theirPublicKey);
   }
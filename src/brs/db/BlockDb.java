@@ -22,8 +22,13 @@ public interface BlockDb extends Table {
 
   void saveBlock(DSLContext ctx, Block block);
 
-  // relying on cascade triggers in the database to delete the transactions for all deleted blocks
   void deleteBlocksFrom(long blockId);
 
+  // keeps the height partitions ahead of the chain
+  void maintainPartitions(int height);
+
+  // compacts the height partitions that can no longer be rolled back, takes long and blocks writes meanwhile
+  void compactPartitions(int height);
+
   void deleteAll(boolean force);
 }
@@ -68,5 +68,19 @@ public interface VersionedBatchEntityTable<T> extends DerivedTable, EntityTable<
 
   Cache getCache();
 
+  /**
+   * Drops the cached entries, entries held in memory are read again from the database.
+   */
   void flushCache();
+
+  /**
+   * Fills the cache with the latest entries of the most recently changed keys, up to maxSize of them.
+   */
+  void preloadCache(int maxSize);
+
+  /**
+   * Holds the latest entry of every key in memory from now on, instead of reading entries missing from the cache from
+   * the database. Written entries are put there when their transaction commits.
+   */
+  void loadAllIntoMemory();
 }
@@ -24,11 +24,11 @@ public class DBCacheManagerImpl {
 
   private final HashMap<String, CacheConfiguration<BurstKey, ?>> caches = new HashMap<>();
 
-  public DBCacheManagerImpl(StatisticsManagerImpl statisticsManager) {
+  public DBCacheManagerImpl(StatisticsManagerImpl statisticsManager, int accountCacheSize) {
     this.statisticsManager = statisticsManager;
     statisticsEnabled = true;
 
-    caches.put("account", CacheConfigurationBuilder.newCacheConfigurationBuilder(BurstKey.class, Account.class, ResourcePoolsBuilder.heap(8192)).build());
+    caches.put("account", CacheConfigurationBuilder.newCacheConfigurationBuilder(BurstKey.class, Account.class, ResourcePoolsBuilder.heap(accountCacheSize)).build());
 
     CacheManagerBuilder cacheBuilder = CacheManagerBuilder.newCacheManagerBuilder();
     for (Map.Entry<String, CacheConfiguration<BurstKey, ?>> cache : caches.entrySet()) {
@@ -0,0 +1,129 @@
+package brs.db.sql;
+
+import brs.Block;
+import brs.Blockchain;
+import brs.Burst;
+import org.jooq.Condition;
+import org.jooq.Record;
+
+import java.util.*;
+
+import static brs.schema.Tables.*;
+
+/**
+ * Committed scheduling fields of every AT, so the ATs due in the next block can be found without joining
+ * the at, at_state and account tables. The index is brought up to date from the at_state rows written since
+ * the block it was last refreshed at, and reloaded completely if that block is no longer part of the chain.
+ */
+class ATScheduleIndex {
+
+  private static final Comparator<Entry> ORDER = Comparator
+      .comparingInt((Entry entry) -> entry.prevHeight)
+      .thenComparingInt(entry -> entry.nextHeight)
+      .thenComparingLong(entry -> entry.atId);
+
+  private final Map<Long, Entry> entries = new HashMap<>();
+  private int indexedHeight = -1;
+  private long indexedBlockId;
+
+  /**
+   * Returns the ids of the ATs whose next height is at most maxNextHeight and which are not frozen,
+   * ordered by previous height, next height and id, given the balances of their accounts.
+   */
+  synchronized List<Long> getOrderedATs(int maxNextHeight, long minBalance) {
+    refresh();
+
+    List<Entry> due = new ArrayList<>();
+    for (Entry entry : entries.values()) {
+      if (entry.nextHeight <= maxNextHeight) {
+        due.add(entry);
+      }
+    }
+    if (due.isEmpty()) {
+      return new ArrayList<>();
+    }
+
+    Map<Long, Long> balances = getBalances(due);
+    List<Entry> scheduled = new ArrayList<>();
+    for (Entry entry : due) {
+      Long balance = balances.get(entry.atId);
+      if (balance != null && balance >= minBalance && entry.canRun(balance)) {
+        scheduled.add(entry);
+      }
+    }
+    scheduled.sort(ORDER);
+
+    List<Long> result = new ArrayList<>(scheduled.size());
+    for (Entry entry : scheduled) {
+      result.add(entry.atId);
+    }
+    return result;
+  }
+
+  private void refresh() {
+    Blockchain blockchain = Burst.getBlockchain();
+    Block lastBlock = blockchain.getLastBlock();
+    int height = lastBlock.getHeight();
+
+    if (indexedHeight < 0 || indexedHeight > height || blockchain.getBlockIdAtHeight(indexedHeight) != indexedBlockId) {
+      entries.clear();
+      load(AT_STATE.HEIGHT.le(height));
+    } else {
+      // the rows of the last indexed block are read again in case it was popped and pushed again meanwhile
+      load(AT_STATE.HEIGHT.ge(indexedHeight).and(AT_STATE.HEIGHT.le(height)));
+    }
+
+    indexedHeight = height;
+    indexedBlockId = lastBlock.getId();
+  }
+
+  private void load(Condition condition) {
+    Db.useDSLContext(ctx -> {
+      for (Record record : ctx.select(AT_STATE.AT_ID, AT_STATE.PREV_HEIGHT, AT_STATE.NEXT_HEIGHT, AT_STATE.PREV_BALANCE,
+                                      AT_STATE.FREEZE_WHEN_SAME_BALANCE, AT_STATE.MIN_ACTIVATE_AMOUNT)
+          .from(AT_STATE.join(AT).on(AT.ID.eq(AT_STATE.AT_ID)))
+          .where(AT_STATE.LATEST.isTrue())
+          .and(AT.LATEST.isTrue())
+          .and(condition)
+          .fetch()) {
+        Entry entry = new Entry(record);
+        entries.put(entry.atId, entry);
+      }
+    });
+  }
+
+  private static Map<Long, Long> getBalances(List<Entry> due) {
+    List<Long> ids = new ArrayList<>(due.size());
+    for (Entry entry : due) {
+      ids.add(entry.atId);
+    }
+    return Db.useDSLContext(ctx -> {
+      return ctx.select(ACCOUNT.ID, ACCOUNT.BALANCE).from(ACCOUNT)
+          .where(ACCOUNT.LATEST.isTrue())
+          .and(ACCOUNT.ID.in(ids))
+          .fetchMap(ACCOUNT.ID, ACCOUNT.BALANCE);
+    });
+  }
+
+  private static class Entry {
+    private final long atId;
+    private final int prevHeight;
+    private final int nextHeight;
+    private final long prevBalance;
+    private final boolean freezeWhenSameBalance;
+    private final long minActivationAmount;
+
+    private Entry(Record record) {
+      this.atId = record.get(AT_STATE.AT_ID);
+      this.prevHeight = record.get(AT_STATE.PREV_HEIGHT);
+      this.nextHeight = record.get(AT_STATE.NEXT_HEIGHT);
+      this.prevBalance = record.get(AT_STATE.PREV_BALANCE);
+      this.freezeWhenSameBalance = record.get(AT_STATE.FREEZE_WHEN_SAME_BALANCE);
+      this.minActivationAmount = record.get(AT_STATE.MIN_ACTIVATE_AMOUNT);
+    }
+
+    private boolean canRun(long balance) {
+      return !freezeWhenSameBalance || balance - prevBalance >= minActivationAmount;
+    }
+  }
+}
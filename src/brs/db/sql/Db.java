@@ -25,7 +25,9 @@ import java.lang.reflect.Field;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.function.Consumer;
@@ -40,9 +42,13 @@ public final class Db {
   private static final ThreadLocal<Connection> localConnection = new ThreadLocal<>();
   private static final ThreadLocal<Map<String, Map<BurstKey, Object>>> transactionCaches = new ThreadLocal<>();
   private static final ThreadLocal<Map<String, Map<BurstKey, Object>>> transactionBatches = new ThreadLocal<>();
+  private static final ThreadLocal<List<Runnable>> transactionCommitActions = new ThreadLocal<>();
 
   private static DBCacheManagerImpl dbCacheManager;
 
+  private static Settings settings;
+  private static Settings transactionSettings;
+
   public static void init(PropertyService propertyService, DBCacheManagerImpl dbCacheManager) {
     Db.dbCacheManager = dbCacheManager;
 
@@ -62,6 +68,16 @@ public final class Db {
     }
     dialect = JDBCUtils.dialect(dbUrl);
 
+    settings = new Settings();
+    settings.setRenderSchema(Boolean.FALSE);
+    // Keeping bind variables inside block transactions lets the driver reuse its prepared statements
+    // and send batches as real JDBC batches instead of parsing a new inlined statement every time.
+    transactionSettings = new Settings();
+    transactionSettings.setRenderSchema(Boolean.FALSE);
+    if (!propertyService.getBoolean(Props.DB_PREPARED_STATEMENTS_IN_TRANSACTION)) {
+      transactionSettings.setStatementType(StatementType.STATIC_STATEMENT);
+    }
+
     logger.debug("Database jdbc url set to: {}", dbUrl);
     try {
       HikariConfig config = new HikariConfig();
@@ -126,6 +142,7 @@ public final class Db {
           config.addDataSourceProperty("prepStmtCacheSize", "250");
           config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
           config.addDataSourceProperty("DATABASE_TO_UPPER", "false");
+          config.addDataSourceProperty("QUERY_CACHE_SIZE", String.valueOf(propertyService.getInt(Props.DB_H2_QUERY_CACHE_SIZE)));
           config.addDataSourceProperty("CASE_INSENSITIVE_IDENTIFIERS", "true");
           break;
         default:
@@ -139,6 +156,7 @@ public final class Db {
         Flyway flyway = flywayBuilder.load();
         flyway.migrate();
       }
+      HeightPartitions.init(propertyService, dialect);
     } catch (Exception e) {
       throw new RuntimeException(e.toString(), e);
     }
@@ -216,8 +234,6 @@ public final class Db {
 
   private static DSLContext getDSLContext() {
     Connection con    = localConnection.get();
-    Settings settings = new Settings();
-    settings.setRenderSchema(Boolean.FALSE);
 
     if (con == null) {
       try ( DSLContext ctx = DSL.using(cp, dialect, settings) ) {
@@ -225,8 +241,7 @@ public final class Db {
       }
     }
     else {
-      settings.setStatementType(StatementType.STATIC_STATEMENT);
-      try ( DSLContext ctx = DSL.using(con, dialect, settings) ) {
+      try ( DSLContext ctx = DSL.using(con, dialect, transactionSettings) ) {
         return ctx;
       }
     }
@@ -248,6 +263,16 @@ public final class Db {
     return (Map<BurstKey, V>) transactionBatches.get().computeIfAbsent(tableName, k -> new HashMap<>());
   }
 
+  /**
+   * Runs the given action once the current transaction commits, it is dropped if the transaction is rolled back.
+   */
+  static void afterCommit(Runnable action) {
+    if (!isInTransaction()) {
+      throw new IllegalStateException("Not in transaction");
+    }
+    transactionCommitActions.get().add(action);
+  }
+
   public static boolean isInTransaction() {
     return localConnection.get() != null;
   }
@@ -263,6 +288,7 @@ public final class Db {
       localConnection.set(con);
       transactionCaches.set(new HashMap<>());
       transactionBatches.set(new HashMap<>());
+      transactionCommitActions.set(new ArrayList<>());
 
       return con;
     }
@@ -281,6 +307,11 @@ public final class Db {
     } catch (SQLException e) {
         throw new RuntimeException(e.toString(), e);
     }
+    List<Runnable> commitActions = transactionCommitActions.get();
+    for (Runnable action : commitActions) {
+      action.run();
+    }
+    commitActions.clear();
   }
 
   public static void rollbackTransaction() {
@@ -296,6 +327,7 @@ public final class Db {
     }
     transactionCaches.get().clear();
     transactionBatches.get().clear();
+    transactionCommitActions.get().clear();
     dbCacheManager.flushCache();
   }
 
@@ -309,6 +341,7 @@ public final class Db {
     transactionCaches.set(null);
     transactionBatches.get().clear();
     transactionBatches.set(null);
+    transactionCommitActions.set(null);
     DbUtils.close(con);
   }
 
@@ -0,0 +1,205 @@
+package brs.db.sql;
+
+import brs.props.PropertyService;
+import brs.props.Props;
+import org.jooq.DSLContext;
+import org.jooq.Record;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import static brs.schema.Tables.BLOCK;
+import static brs.schema.Tables.TRANSACTION;
+
+/**
+ * Optional layout splitting the block and transaction tables into ranges of a fixed number of blocks.
+ * On MariaDB the ranges are native partitions named after their first height, followed by an empty catch-all
+ * partition that new ranges are split off from before the chain reaches them. Queries bounded by height only read
+ * the partitions they need, and a range is compacted by a background job once it is older than the maximum rollback,
+ * as nothing writes to it anymore. H2 has no partitions, there the ranges only bound the account history queries.
+ */
+final class HeightPartitions {
+
+  private static final Logger logger = LoggerFactory.getLogger(HeightPartitions.class);
+
+  private static final String MAX_PARTITION = "pmax";
+  private static final List<String> TABLES = Arrays.asList(BLOCK.getName(), TRANSACTION.getName());
+
+  // MariaDB requires every unique key of a partitioned table to contain the partitioning column, and has no global
+  // indexes. Block and transaction ids (and with them the full hashes they are derived from) and block timestamps are
+  // therefore only unique per height in the database. Blocks are only written by pushBlock, which already rejects
+  // blocks and transactions whose id is known and blocks that are not newer than the previous one.
+  private static final Map<String, String> UNIQUE_KEYS_WITH_HEIGHT = new HashMap<>();
+
+  static {
+    UNIQUE_KEYS_WITH_HEIGHT.put(BLOCK.getName(), "DROP PRIMARY KEY, ADD PRIMARY KEY (db_id, height), "
+        + "DROP INDEX block_id_idx, ADD UNIQUE KEY block_id_idx (id, height), "
+        + "DROP INDEX block_timestamp_idx, ADD UNIQUE KEY block_timestamp_idx (timestamp, height)");
+    UNIQUE_KEYS_WITH_HEIGHT.put(TRANSACTION.getName(), "DROP PRIMARY KEY, ADD PRIMARY KEY (db_id, height), "
+        + "DROP INDEX transaction_id_idx, ADD UNIQUE KEY transaction_id_idx (id, height), "
+        + "DROP INDEX transaction_full_hash_idx, ADD UNIQUE KEY transaction_full_hash_idx (full_hash, height)");
+  }
+
+  private static volatile int partitionSize;
+  private static int maxRollback;
+  private static volatile boolean nativePartitions;
+  // bounded partitions of each table by their exclusive upper height, split off by the pushing thread and compacted
+  // by the background job
+  private static final Map<String, NavigableMap<Integer, String>> partitions = new ConcurrentHashMap<>();
+  private static final Object compactionLock = new Object();
+  // exclusive upper height up to which the ranges are compacted, or were already cold at startup
+  private static int compactedHeight;
+
+  private HeightPartitions() {
+  } // never
+
+  static synchronized void init(PropertyService propertyService, SQLDialect dialect) {
+    partitionSize = 0;
+    nativePartitions = false;
+    partitions.clear();
+    if (!propertyService.getBoolean(Props.DB_PARTITION_BY_HEIGHT)) {
+      return;
+    }
+    partitionSize = Math.max(propertyService.getInt(Props.DB_PARTITION_SIZE), 1000);
+    maxRollback = propertyService.getInt(Props.DB_MAX_ROLLBACK);
+    nativePartitions = dialect == SQLDialect.MARIADB || dialect == SQLDialect.MYSQL;
+    if (!nativePartitions) {
+      logger.info("Splitting account history queries into ranges of {} blocks", partitionSize);
+      return;
+    }
+
+    Db.useDSLContext(ctx -> {
+      Integer lastHeight = ctx.select(DSL.max(BLOCK.HEIGHT)).from(BLOCK).fetchOne(0, Integer.class);
+      int height = lastHeight == null ? 0 : lastHeight;
+      for (String table : TABLES) {
+        NavigableMap<Integer, String> tablePartitions = readPartitions(ctx, table);
+        if (tablePartitions.isEmpty()) {
+          logger.warn("Partitioning table {} by ranges of {} blocks, this can take a long time", table, partitionSize);
+          dropForeignKeys(ctx, TRANSACTION.getName());
+          dropForeignKeys(ctx, table);
+          StringBuilder definitions = new StringBuilder();
+          for (int lowerHeight = 0; lowerHeight <= height; lowerHeight += partitionSize) {
+            definitions.append(partitionDefinition(lowerHeight)).append(", ");
+          }
+          ctx.execute("ALTER TABLE `" + table + "` " + UNIQUE_KEYS_WITH_HEIGHT.get(table)
+              + " PARTITION BY RANGE (height) (" + definitions + maxPartitionDefinition() + ")");
+          tablePartitions = readPartitions(ctx, table);
+        }
+        partitions.put(table, new ConcurrentSkipListMap<>(tablePartitions));
+      }
+      logger.info("Tables {} are partitioned by height", TABLES);
+      splitAhead(ctx, height);
+      synchronized (compactionLock) {
+        compactedHeight = height - maxRollback;
+      }
+    });
+  }
+
+  /**
+   * @return the number of blocks per range, 0 if the tables are not split by height
+   */
+  static int getPartitionSize() {
+    return partitionSize;
+  }
+
+  /**
+   * Called after a block was pushed, outside of any database transaction, as partition changes commit implicitly.
+   * Only splits the still empty catch-all partition, which does not copy any rows.
+   */
+  static synchronized void maintain(int height) {
+    if (!nativePartitions) {
+      return;
+    }
+    try {
+      Db.useDSLContext(ctx -> {
+        splitAhead(ctx, height);
+      });
+    } catch (Exception e) {
+      logger.warn("Failed to maintain height partitions at height {}", height, e);
+    }
+  }
+
+  /**
+   * Compacts the ranges that became older than the maximum rollback since the last call. Rebuilding a partition
+   * copies all of its rows and blocks writes to the table meanwhile, so this runs in a background job instead of on
+   * the thread pushing blocks.
+   */
+  static void compact(int height) {
+    if (!nativePartitions) {
+      return;
+    }
+    synchronized (compactionLock) {
+      int coldHeight = height - maxRollback;
+      if (coldHeight <= compactedHeight) {
+        return;
+      }
+      try {
+        Db.useDSLContext(ctx -> {
+          for (String table : TABLES) {
+            for (String partition : partitions.get(table).subMap(compactedHeight, false, coldHeight, true).values()) {
+              logger.info("Compacting partition {} of table {}", partition, table);
+              ctx.execute("ALTER TABLE `" + table + "` REBUILD PARTITION " + partition);
+            }
+          }
+        });
+        compactedHeight = Math.max(compactedHeight, coldHeight);
+      } catch (Exception e) {
+        logger.warn("Failed to compact height partitions below height {}", coldHeight, e);
+      }
+    }
+  }
+
+  private static void splitAhead(DSLContext ctx, int height) {
+    for (String table : TABLES) {
+      NavigableMap<Integer, String> tablePartitions = partitions.get(table);
+      // splitting the catch-all partition is instant as long as it is still empty
+      while (tablePartitions.lastKey() <= height + 1) {
+        int lowerHeight = tablePartitions.lastKey();
+        ctx.execute("ALTER TABLE `" + table + "` REORGANIZE PARTITION " + MAX_PARTITION + " INTO ("
+            + partitionDefinition(lowerHeight) + ", " + maxPartitionDefinition() + ")");
+        tablePartitions.put(lowerHeight + partitionSize, partitionName(lowerHeight));
+      }
+    }
+  }
+
+  private static NavigableMap<Integer, String> readPartitions(DSLContext ctx, String table) {
+    NavigableMap<Integer, String> tablePartitions = new TreeMap<>();
+    for (Record partition : ctx.fetch("SELECT PARTITION_NAME, PARTITION_DESCRIPTION FROM information_schema.PARTITIONS "
+        + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL", table)) {
+      String name = partition.get(0, String.class);
+      if (!MAX_PARTITION.equals(name)) {
+        tablePartitions.put(Integer.parseInt(partition.get(1, String.class)), name);
+      }
+    }
+    return tablePartitions;
+  }
+
+  private static void dropForeignKeys(DSLContext ctx, String table) {
+    for (String constraint : ctx.fetch("SELECT CONSTRAINT_NAME FROM information_schema.REFERENTIAL_CONSTRAINTS "
+        + "WHERE CONSTRAINT_SCHEMA = DATABASE() AND TABLE_NAME = ?", table).getValues(0, String.class)) {
+      ctx.execute("ALTER TABLE `" + table + "` DROP FOREIGN KEY " + constraint);
+    }
+  }
+
+  private static String partitionName(int lowerHeight) {
+    return "p" + lowerHeight;
+  }
+
+  private static String partitionDefinition(int lowerHeight) {
+    return "PARTITION " + partitionName(lowerHeight) + " VALUES LESS THAN (" + (lowerHeight + partitionSize) + ")";
+  }
+
+  private static String maxPartitionDefinition() {
+    return "PARTITION " + MAX_PARTITION + " VALUES LESS THAN MAXVALUE";
+  }
+}
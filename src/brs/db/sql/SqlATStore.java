@@ -17,6 +17,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import static brs.schema.Tables.*;
 
@@ -39,6 +40,8 @@ public class SqlATStore implements ATStore {
 
   private final VersionedEntityTable<brs.at.AT.ATState> atStateTable;
 
+  private final ATScheduleIndex scheduleIndex = new ATScheduleIndex();
+
   public SqlATStore(DerivedTableManager derivedTableManager) {
     atTable = new VersionedEntitySqlTable<brs.at.AT>("at", brs.schema.Tables.AT, atDbKeyFactory, derivedTableManager) {
       @Override
@@ -112,6 +115,15 @@ public class SqlATStore implements ATStore {
 
   @Override
   public List<Long> getOrderedATs() {
+    if (Db.isInTransaction()) {
+      // the index only holds committed state
+      return getOrderedATsFromDb();
+    }
+    int height = Burst.getBlockchain().getHeight();
+    return scheduleIndex.getOrderedATs(height + 1, AtConstants.getInstance().stepFee(height) * AtConstants.getInstance().apiStepMultiplier(height));
+  }
+
+  private List<Long> getOrderedATsFromDb() {
     return Db.useDSLContext(ctx -> {
       return ctx.selectFrom(
               AT.join(AT_STATE).on(AT.ID.eq(AT_STATE.AT_ID)).join(ACCOUNT).on(AT.ID.eq(ACCOUNT.ID))
@@ -239,6 +251,21 @@ public class SqlATStore implements ATStore {
     });
   }
 
+  @Override
+  public Map<Long, Integer> getIncomingTransactions(Long atID, int startHeight, int endHeight, long minAmount, int limit) {
+    return Db.useDSLContext(ctx -> {
+      return ctx.select(TRANSACTION.ID, TRANSACTION.HEIGHT).from(TRANSACTION).where(
+        TRANSACTION.HEIGHT.between(startHeight, endHeight - 1)
+      ).and(
+        TRANSACTION.RECIPIENT_ID.eq(atID)
+      ).and(
+        TRANSACTION.AMOUNT.greaterOrEqual(minAmount)
+      ).orderBy(
+        TRANSACTION.HEIGHT, TRANSACTION.ID
+      ).limit(limit).fetchMap(TRANSACTION.ID, TRANSACTION.HEIGHT);
+    });
+  }
+
   class SqlATState extends brs.at.AT.ATState {
     private SqlATState(Record record) {
       super(
@@ -92,6 +92,11 @@ public class SqlAccountStore implements AccountStore {
         return new SqlAccount(rs);
       }
 
+      @Override
+      protected Account copy(Account account) {
+        return new SqlAccount(account);
+      }
+
       @Override
       protected void bulkInsert(DSLContext ctx, Collection<Account> accounts) {
         List<Query> accountQueries = new ArrayList<>();
@@ -247,6 +252,10 @@ public class SqlAccountStore implements AccountStore {
       this.name = record.get(ACCOUNT.NAME);
       this.description = record.get(ACCOUNT.DESCRIPTION);
     }
+
+    SqlAccount(Account account) {
+      super(account);
+    }
   }
 
   class SqlRewardRecipientAssignment extends Account.RewardRecipientAssignment {
@@ -20,6 +20,7 @@ import java.util.List;
 import java.util.Optional;
 
 import static brs.schema.Tables.BLOCK;
+import static brs.schema.Tables.TRANSACTION;
 
 public class SqlBlockDb implements BlockDb {
 
@@ -136,7 +137,7 @@ public class SqlBlockDb implements BlockDb {
     }
   }
 
-  // relying on cascade triggers in the database to delete the transactions for all deleted blocks
+  // not relying on cascade triggers, partitioned tables have no foreign keys
   @Override
   public void deleteBlocksFrom(long blockId) {
     if (!Db.isInTransaction()) {
@@ -160,13 +161,28 @@ public class SqlBlockDb implements BlockDb {
       Integer blockHeight = blockHeightQuery.fetchOne().get(BLOCK.HEIGHT);
 
       if (blockHeight != null) {
+        ctx.deleteFrom(TRANSACTION).where(TRANSACTION.HEIGHT.ge(blockHeight)).execute();
         DeleteQuery deleteQuery = ctx.deleteQuery(BLOCK);
         deleteQuery.addConditions(BLOCK.HEIGHT.ge(blockHeight));
         deleteQuery.execute();
+        ctx.update(BLOCK)
+                .set(BLOCK.NEXT_BLOCK_ID, (Long) null)
+                .where(BLOCK.HEIGHT.eq(blockHeight - 1))
+                .execute();
       }
     });
   }
 
+  @Override
+  public void maintainPartitions(int height) {
+    HeightPartitions.maintain(height);
+  }
+
+  @Override
+  public void compactPartitions(int height) {
+    HeightPartitions.compact(height);
+  }
+
   public void deleteAll(boolean force) {
     if (!Db.isInTransaction()) {
       try {
@@ -10,9 +10,11 @@ import brs.db.store.IndirectIncomingStore;
 import brs.schema.tables.records.BlockRecord;
 import brs.schema.tables.records.TransactionRecord;
 import org.jooq.*;
+import org.jooq.impl.DSL;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 
 import static brs.schema.Tables.BLOCK;
 import static brs.schema.Tables.TRANSACTION;
@@ -133,30 +135,61 @@ public class SqlBlockchainStore implements BlockchainStore {
         conditions.add(TRANSACTION.HEIGHT.le(height));
       }
 
-      SelectOrderByStep<TransactionRecord> select = ctx.selectFrom(TRANSACTION).where(conditions).and(
-              TRANSACTION.RECIPIENT_ID.eq(account.getId()).and(
-                      TRANSACTION.SENDER_ID.ne(account.getId())
-              )
-      ).unionAll(
-              ctx.selectFrom(TRANSACTION).where(conditions).and(
-                      TRANSACTION.SENDER_ID.eq(account.getId())
-              )
-      );
-
-      if (includeIndirectIncoming) {
-        select = select.unionAll(ctx.selectFrom(TRANSACTION)
-                .where(conditions)
-                .and(TRANSACTION.ID.in(indirectIncomingStore.getIndirectIncomings(account.getId(), from, to))));
+      int partitionSize = HeightPartitions.getPartitionSize();
+      if (partitionSize <= 0) {
+        return getTransactions(ctx, selectAccountTransactions(ctx, account, conditions, from, to, includeIndirectIncoming).fetch());
       }
 
-      SelectQuery<TransactionRecord> selectQuery = select
-              .orderBy(TRANSACTION.BLOCK_TIMESTAMP.desc(), TRANSACTION.ID.desc())
-              .getQuery();
+      // block timestamps grow with the height, so the newest transactions are in the newest height ranges
+      int lowestHeight = 0;
+      if (blockTimestamp > 0) {
+        Integer firstHeight = ctx.select(DSL.min(BLOCK.HEIGHT)).from(BLOCK)
+                .where(BLOCK.TIMESTAMP.ge(blockTimestamp))
+                .fetchOne(0, Integer.class);
+        if (firstHeight == null) {
+          return Collections.emptyList();
+        }
+        lowestHeight = firstHeight;
+      }
+      int limit = to >= 0 && to >= from && to < Integer.MAX_VALUE ? to - from + 1 : 0;
+      int newestRange = Math.min(height, Burst.getBlockchain().getHeight()) / partitionSize;
+      for (int ranges = 1; ; ranges *= 2) {
+        int windowHeight = limit > 0 ? Math.max(lowestHeight, (newestRange + 1 - ranges) * partitionSize) : lowestHeight;
+        ArrayList<Condition> windowConditions = new ArrayList<>(conditions);
+        windowConditions.add(TRANSACTION.HEIGHT.ge(windowHeight));
+        Result<TransactionRecord> result = selectAccountTransactions(ctx, account, windowConditions, from, to, includeIndirectIncoming).fetch();
+        // the window holds whole blocks, so if it holds the requested page no older transaction can belong to it
+        if (result.size() >= limit || windowHeight <= lowestHeight) {
+          return getTransactions(ctx, result);
+        }
+      }
+    });
+  }
 
-      DbUtils.applyLimits(selectQuery, from, to);
+  private SelectQuery<TransactionRecord> selectAccountTransactions(DSLContext ctx, Account account, ArrayList<Condition> conditions, int from, int to, boolean includeIndirectIncoming) {
+    SelectOrderByStep<TransactionRecord> select = ctx.selectFrom(TRANSACTION).where(conditions).and(
+            TRANSACTION.RECIPIENT_ID.eq(account.getId()).and(
+                    TRANSACTION.SENDER_ID.ne(account.getId())
+            )
+    ).unionAll(
+            ctx.selectFrom(TRANSACTION).where(conditions).and(
+                    TRANSACTION.SENDER_ID.eq(account.getId())
+            )
+    );
+
+    if (includeIndirectIncoming) {
+      select = select.unionAll(ctx.selectFrom(TRANSACTION)
+              .where(conditions)
+              .and(TRANSACTION.ID.in(indirectIncomingStore.getIndirectIncomings(account.getId(), from, to))));
+    }
 
-      return getTransactions(ctx, selectQuery.fetch());
-    });
+    SelectQuery<TransactionRecord> selectQuery = select
+            .orderBy(TRANSACTION.BLOCK_TIMESTAMP.desc(), TRANSACTION.ID.desc())
+            .getQuery();
+
+    DbUtils.applyLimits(selectQuery, from, to);
+
+    return selectQuery;
   }
 
   @Override
@@ -1,9 +1,11 @@
 package brs.db.sql;
 
+import brs.Burst;
 import brs.db.BlockDb;
 import brs.db.PeerDb;
 import brs.db.TransactionDb;
 import brs.db.store.Dbs;
+import brs.props.Props;
 
 public class SqlDbs implements Dbs {
 
@@ -13,7 +15,11 @@ public class SqlDbs implements Dbs {
 
   public SqlDbs() {
     this.blockDb       = new SqlBlockDb();
-    this.transactionDb = new SqlTransactionDb();
+    SqlTransactionDb sqlTransactionDb = new SqlTransactionDb();
+    if (Burst.getPropertyService().getBoolean(Props.DB_TRANSACTION_ID_FILTER)) {
+      sqlTransactionDb.loadTransactionIdFilter();
+    }
+    this.transactionDb = sqlTransactionDb;
     this.peerDb        = new SqlPeerDb();
   }
 
@@ -8,6 +8,10 @@ import brs.db.TransactionDb;
 import brs.schema.tables.records.TransactionRecord;
 import brs.util.Convert;
 import org.jooq.BatchBindStep;
+import org.jooq.Record2;
+import org.jooq.Result;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
@@ -18,8 +22,53 @@ import static brs.schema.Tables.TRANSACTION;
 
 public class SqlTransactionDb implements TransactionDb {
 
+  private static final Logger logger = LoggerFactory.getLogger(SqlTransactionDb.class);
+
+  private static final int FILTER_LOAD_PAGE_SIZE = 100000;
+
+  // null until loaded, and then every lookup of an id that is certainly not stored skips the query
+  private volatile TransactionIdFilter transactionIdFilter;
+
+  /**
+   * Fills the transaction id filter from the transaction table. Has to run before any transaction is saved.
+   */
+  void loadTransactionIdFilter() {
+    long startTime = System.currentTimeMillis();
+    TransactionIdFilter filter = Db.useDSLContext(ctx -> {
+      TransactionIdFilter loading = new TransactionIdFilter(ctx.fetchCount(TRANSACTION) * 2L);
+      long lastDbId = Long.MIN_VALUE;
+      Result<Record2<Long, Long>> page;
+      do {
+        page = ctx.select(TRANSACTION.DB_ID, TRANSACTION.ID).from(TRANSACTION)
+            .where(TRANSACTION.DB_ID.gt(lastDbId))
+            .orderBy(TRANSACTION.DB_ID)
+            .limit(FILTER_LOAD_PAGE_SIZE)
+            .fetch();
+        for (Record2<Long, Long> record : page) {
+          loading.add(record.value2());
+          lastDbId = record.value1();
+        }
+      } while (page.size() == FILTER_LOAD_PAGE_SIZE);
+      return loading;
+    });
+    transactionIdFilter = filter;
+    logger.info("Loaded transaction id filter in {} ms", System.currentTimeMillis() - startTime);
+  }
+
+  private boolean isCertainlyAbsent(long transactionId) {
+    TransactionIdFilter filter = transactionIdFilter;
+    return filter != null && !filter.mightContain(transactionId);
+  }
+
+  private boolean isCertainlyAbsent(byte[] fullHash) {
+    return fullHash != null && fullHash.length >= 8 && isCertainlyAbsent(Convert.fullHashToId(fullHash));
+  }
+
   @Override
   public Transaction findTransaction(long transactionId) {
+    if (isCertainlyAbsent(transactionId)) {
+      return null;
+    }
     return Db.useDSLContext(ctx -> {
       try {
         TransactionRecord transactionRecord = ctx.selectFrom(TRANSACTION).where(TRANSACTION.ID.eq(transactionId)).fetchOne();
@@ -32,6 +81,9 @@ public class SqlTransactionDb implements TransactionDb {
 
   @Override
   public Transaction findTransactionByFullHash(String fullHash) {
+    if (isCertainlyAbsent(Convert.parseHexString(fullHash))) {
+      return null;
+    }
     return Db.useDSLContext(ctx -> {
       try {
         TransactionRecord transactionRecord = ctx.selectFrom(TRANSACTION).where(TRANSACTION.FULL_HASH.eq(Convert.parseHexString(fullHash))).fetchOne();
@@ -44,6 +96,9 @@ public class SqlTransactionDb implements TransactionDb {
 
   @Override
   public boolean hasTransaction(long transactionId) {
+    if (isCertainlyAbsent(transactionId)) {
+      return false;
+    }
     return Db.useDSLContext(ctx -> {
       return ctx.fetchExists(ctx.selectFrom(TRANSACTION).where(TRANSACTION.ID.eq(transactionId)));
     });
@@ -51,6 +106,9 @@ public class SqlTransactionDb implements TransactionDb {
 
   @Override
   public boolean hasTransactionByFullHash(String fullHash) {
+    if (isCertainlyAbsent(Convert.parseHexString(fullHash))) {
+      return false;
+    }
     return Db.useDSLContext(ctx -> {
       return ctx.fetchExists(ctx.selectFrom(TRANSACTION).where(TRANSACTION.FULL_HASH.eq(Convert.parseHexString(fullHash))));
     });
@@ -119,25 +177,13 @@ public class SqlTransactionDb implements TransactionDb {
     });
   }
 
-  private byte[] getAttachmentBytes(Transaction transaction) {
-    int bytesLength = 0;
-    for (Appendix appendage : transaction.getAppendages()) {
-      bytesLength += appendage.getSize();
-    }
-    if (bytesLength == 0) {
-      return null;
-    } else {
-      ByteBuffer buffer = ByteBuffer.allocate(bytesLength);
-      buffer.order(ByteOrder.LITTLE_ENDIAN);
-      for (Appendix appendage : transaction.getAppendages()) {
-        appendage.putBytes(buffer);
-      }
-      return buffer.array();
-    }
-  }
-
   public void saveTransactions(List<Transaction> transactions) {
     if (!transactions.isEmpty()) {
+      TransactionIdFilter filter = transactionIdFilter;
+      if (filter != null) {
+        // added before the rows exist, so no lookup can miss a stored transaction
+        transactions.forEach(transaction -> filter.add(transaction.getId()));
+      }
       Db.useDSLContext(ctx -> {
         BatchBindStep insertBatch = ctx.batch(
             ctx.insertInto(TRANSACTION, TRANSACTION.ID, TRANSACTION.DEADLINE,
@@ -169,7 +215,7 @@ public class SqlTransactionDb implements TransactionDb {
               transaction.getType().getType(),
               transaction.getType().getSubtype(),
               transaction.getSenderId(),
-              getAttachmentBytes(transaction),
+              transaction.getAppendagesBytes(),
               transaction.getBlockTimestamp(),
               Convert.parseHexString(transaction.getFullHash()),
               transaction.getVersion(),
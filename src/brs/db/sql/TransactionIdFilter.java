@@ -0,0 +1,84 @@
+package brs.db.sql;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Scalable Bloom filter over the ids of confirmed transactions. A negative answer means the id is certainly not
+ * in the transaction table; a positive answer has to be confirmed with a query.
+ * Ids are never removed: transactions of popped blocks stay in the filter and only cost the query they would have
+ * cost without it. When the newest segment is full a segment of twice the size is added, so the false positive rate
+ * stays bounded as the chain grows.
+ */
+class TransactionIdFilter {
+
+  private static final int BITS_PER_ID = 10;
+  private static final int HASHES = 7;
+  private static final long MIN_CAPACITY = 1 << 16;
+
+  private final List<Segment> segments = new CopyOnWriteArrayList<>();
+
+  TransactionIdFilter(long expectedIds) {
+    segments.add(new Segment(Math.max(expectedIds, MIN_CAPACITY)));
+  }
+
+  synchronized void add(long id) {
+    Segment segment = segments.get(segments.size() - 1);
+    if (segment.count >= segment.capacity) {
+      segment = new Segment(segment.capacity * 2);
+      segments.add(segment);
+    }
+    segment.add(id);
+  }
+
+  boolean mightContain(long id) {
+    for (Segment segment : segments) {
+      if (segment.mightContain(id)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static class Segment {
+    private final long capacity;
+    private final long size;
+    private final AtomicLongArray bits;
+    private long count;
+
+    private Segment(long capacity) {
+      this.capacity = capacity;
+      this.bits = new AtomicLongArray((int) Math.min((capacity * BITS_PER_ID + 63) / 64, Integer.MAX_VALUE - 8));
+      this.size = bits.length() * 64L;
+    }
+
+    // only called while holding the filter lock, so reading and setting a word does not race with other adds
+    private void add(long id) {
+      long hash = secondHash(id);
+      for (int i = 0; i < HASHES; i++) {
+        long bit = Long.remainderUnsigned(id + i * hash, size);
+        int word = (int) (bit >>> 6);
+        bits.set(word, bits.get(word) | (1L << bit));
+      }
+      count++;
+    }
+
+    private boolean mightContain(long id) {
+      long hash = secondHash(id);
+      for (int i = 0; i < HASHES; i++) {
+        long bit = Long.remainderUnsigned(id + i * hash, size);
+        if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    // ids are already taken from a hash, so a cheap mix of the id is independent enough for double hashing
+    private static long secondHash(long id) {
+      long hash = id * 0x9E3779B97F4A7C15L;
+      return (hash ^ (hash >>> 29)) | 1;
+    }
+  }
+}
@@ -9,12 +9,18 @@ import org.jooq.*;
 import org.jooq.impl.TableImpl;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 public abstract class VersionedBatchEntitySqlTable<T> extends VersionedEntitySqlTable<T> implements VersionedBatchEntityTable<T> {
 
+  private static final int ROLLBACK_CHUNK_SIZE = 1000;
+
   private final DBCacheManagerImpl dbCacheManager;
   private final Class<T> tClass;
 
+  // latest entry of every key by its id once all of them are held in memory, null while they are read through the cache
+  private volatile Map<Long, T> entries;
+
   VersionedBatchEntitySqlTable(String table, TableImpl<?> tableClass, DbKey.Factory<T> dbKeyFactory, DerivedTableManager derivedTableManager, DBCacheManagerImpl dbCacheManager, Class<T> tClass) {
     super(table, tableClass, dbKeyFactory, derivedTableManager);
     this.dbCacheManager = dbCacheManager;
@@ -35,17 +41,34 @@ public abstract class VersionedBatchEntitySqlTable<T> extends VersionedEntitySql
 
   protected abstract void bulkInsert(DSLContext ctx, Collection<T> t);
 
+  /**
+   * @return an independent copy of the given entry, so that changes made in a transaction stay private to it
+   */
+  protected abstract T copy(T t);
+
+  private static long idOf(BurstKey dbKey) {
+    return dbKey.getPKValues()[0];
+  }
+
   @Override
   public boolean delete(T t) {
     assertNotInTransaction();
     DbKey dbKey = (DbKey)dbKeyFactory.newKey(t);
-    getCache().remove(dbKey);
+    if (entries != null) {
+      Db.getCache(table).remove(dbKey);
+    } else {
+      getCache().remove(dbKey);
+    }
     getBatch().remove(dbKey);
     return true;
   }
 
   @Override
   public T get(BurstKey dbKey) {
+    Map<Long, T> inMemory = entries;
+    if (inMemory != null) {
+      return get(inMemory, dbKey);
+    }
     if (getCache().containsKey(dbKey)) {
       return getCache().get(dbKey);
     }
@@ -59,12 +82,36 @@ public abstract class VersionedBatchEntitySqlTable<T> extends VersionedEntitySql
     return item;
   }
 
+  /**
+   * Outside a transaction the entries held in memory are returned as they are. A transaction works on copies of them,
+   * which are only published once it commits, so a rolled back transaction leaves the entries unchanged.
+   */
+  private T get(Map<Long, T> inMemory, BurstKey dbKey) {
+    if (!Db.isInTransaction()) {
+      return inMemory.get(idOf(dbKey));
+    }
+    if (getBatch().containsKey(dbKey)) {
+      return getBatch().get(dbKey);
+    }
+    Map<BurstKey, T> working = Db.getCache(table);
+    if (working.containsKey(dbKey)) {
+      // null if the entry is gone in this transaction
+      return working.get(dbKey);
+    }
+    T latest = inMemory.get(idOf(dbKey));
+    T t = latest == null ? null : copy(latest);
+    working.put(dbKey, t);
+    return t;
+  }
+
   @Override
   public void insert(T t) {
     assertNotInTransaction();
     BurstKey key = dbKeyFactory.newKey(t);
     getBatch().put(key, t);
-    getCache().put(key, t);
+    if (entries == null) {
+      getCache().put(key, t);
+    }
   }
 
   @Override
@@ -95,10 +142,28 @@ public abstract class VersionedBatchEntitySqlTable<T> extends VersionedEntitySql
       updateBatch.execute();
 
       bulkInsert(ctx, getBatch().values());
+      publishOnCommit(getBatch());
       getBatch().clear();
     });
   }
 
+  /**
+   * Keeps the written entries visible to the rest of the transaction and writes copies of them through to the entries
+   * held in memory once it commits.
+   */
+  private void publishOnCommit(Map<BurstKey, T> written) {
+    Map<Long, T> inMemory = entries;
+    if (inMemory == null) {
+      return;
+    }
+    Db.getCache(table).putAll(written);
+    Map<Long, T> committed = new HashMap<>();
+    for (Map.Entry<BurstKey, T> entry : written.entrySet()) {
+      committed.put(idOf(entry.getKey()), copy(entry.getValue()));
+    }
+    Db.afterCommit(() -> inMemory.putAll(committed));
+  }
+
   @Override
   public T get(BurstKey dbKey, int height) {
     assertInTransaction();
@@ -185,14 +250,74 @@ public abstract class VersionedBatchEntitySqlTable<T> extends VersionedEntitySql
 
   @Override
   public void rollback(int height) {
+    Map<Long, T> inMemory = entries;
+    if (inMemory == null) {
+      super.rollback(height);
+      getBatch().clear();
+      return;
+    }
+    Set<BurstKey> changedKeys = new HashSet<>();
+    Db.useDSLContext(ctx -> {
+      SelectQuery<Record> query = ctx.selectQuery();
+      query.setDistinct(true);
+      for (String column : dbKeyFactory.getPKColumns()) {
+        query.addSelect(tableClass.field(column, Long.class));
+      }
+      query.addFrom(tableClass);
+      query.addConditions(heightField.gt(height));
+      for (Record record : query.fetch()) {
+        changedKeys.add(dbKeyFactory.newKey(record));
+      }
+    });
     super.rollback(height);
     getBatch().clear();
+
+    // the keys changed after the height get the entry they had at that height, or none if they are newer
+    Map<BurstKey, T> restored = new HashMap<>();
+    for (BurstKey dbKey : changedKeys) {
+      restored.put(dbKey, null);
+    }
+    Db.useDSLContext(ctx -> {
+      List<BurstKey> keys = new ArrayList<>(changedKeys);
+      Field<Long> idField = tableClass.field(dbKeyFactory.getPKColumns()[0], Long.class);
+      for (int from = 0; from < keys.size(); from += ROLLBACK_CHUNK_SIZE) {
+        List<Long> ids = new ArrayList<>();
+        for (BurstKey dbKey : keys.subList(from, Math.min(keys.size(), from + ROLLBACK_CHUNK_SIZE))) {
+          ids.add(idOf(dbKey));
+        }
+        SelectQuery<Record> query = ctx.selectQuery();
+        query.addFrom(tableClass);
+        query.addConditions(latestField.isTrue());
+        query.addConditions(idField.in(ids));
+        for (Record record : query.fetch()) {
+          T t = load(ctx, record);
+          restored.put(dbKeyFactory.newKey(t), t);
+        }
+      }
+    });
+    Map<BurstKey, T> working = Db.getCache(table);
+    for (Map.Entry<BurstKey, T> entry : restored.entrySet()) {
+      working.put(entry.getKey(), entry.getValue() == null ? null : copy(entry.getValue()));
+    }
+    Db.afterCommit(() -> {
+      for (Map.Entry<BurstKey, T> entry : restored.entrySet()) {
+        if (entry.getValue() == null) {
+          inMemory.remove(idOf(entry.getKey()));
+        } else {
+          inMemory.put(idOf(entry.getKey()), entry.getValue());
+        }
+      }
+    });
   }
 
   @Override
   public void truncate() {
     super.truncate();
     getBatch().clear();
+    Map<Long, T> inMemory = entries;
+    if (inMemory != null) {
+      Db.afterCommit(inMemory::clear);
+    }
   }
 
   @Override
@@ -208,5 +333,46 @@ public abstract class VersionedBatchEntitySqlTable<T> extends VersionedEntitySql
   @Override
   public void flushCache() {
     getCache().clear();
+    if (entries != null) {
+      loadAllIntoMemory();
+    }
+  }
+
+  @Override
+  public void preloadCache(int maxSize) {
+    assertInTransaction();
+    Cache<BurstKey, T> cache = getCache();
+    Db.useDSLContext(ctx -> {
+      SelectQuery<Record> query = ctx.selectQuery();
+      query.addFrom(tableClass);
+      query.addConditions(latestField.isTrue());
+      query.addOrderBy(heightField.desc());
+      query.addLimit(maxSize);
+      for (Record record : query.fetch()) {
+        T t = load(ctx, record);
+        cache.put(dbKeyFactory.newKey(t), t);
+      }
+    });
+  }
+
+  @Override
+  public void loadAllIntoMemory() {
+    assertInTransaction();
+    if (dbKeyFactory.getPKColumns().length != 1) {
+      throw new IllegalStateException("Only tables with a single id column can be held in memory");
+    }
+    Map<Long, T> inMemory = new ConcurrentHashMap<>();
+    Db.useDSLContext(ctx -> {
+      SelectQuery<Record> query = ctx.selectQuery();
+      query.addFrom(tableClass);
+      query.addConditions(latestField.isTrue());
+      try (Cursor<Record> cursor = query.fetchLazy()) {
+        for (Record record : cursor) {
+          T t = load(ctx, record);
+          inMemory.put(idOf(dbKeyFactory.newKey(t)), t);
+        }
+      }
+    });
+    entries = inMemory;
   }
 }
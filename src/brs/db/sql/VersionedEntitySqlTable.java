@@ -28,37 +28,53 @@ public abstract class VersionedEntitySqlTable<T> extends EntitySqlTable<T> imple
     }
 
     Db.useDSLContext(ctx -> {
-      // get dbKey's for entries whose stuff newer than height would be deleted, to allow fixing
-      // their latest flag of the "potential" remaining newest entry
-      SelectQuery<Record> selectForDeleteQuery = ctx.selectQuery();
-      selectForDeleteQuery.addFrom(tableClass);
-      selectForDeleteQuery.addConditions(heightField.gt(height));
+      // get the newest remaining height of every dbKey with entries newer than height, so that the
+      // latest flag can be restored on those rows once the newer entries have been deleted
+      Table<?> innerTable = tableClass.as("b");
+      SelectQuery<Record> innerQuery = ctx.selectQuery();
+      innerQuery.addFrom(innerTable);
+      innerQuery.addConditions(innerTable.field(heightField.getName(), Integer.class).gt(height));
+      dbKeyFactory.applySelfJoin(innerQuery, innerTable, tableClass);
+
+      SelectQuery<Record> selectMaxHeightQuery = ctx.selectQuery();
+      selectMaxHeightQuery.addFrom(tableClass);
+      selectMaxHeightQuery.addSelect(DSL.max(heightField).as("max_height"));
       for (String column : dbKeyFactory.getPKColumns()) {
-        selectForDeleteQuery.addSelect(tableClass.field(column, Long.class));
+        Field<Long> pkField = tableClass.field(column, Long.class);
+        selectMaxHeightQuery.addSelect(pkField);
+        selectMaxHeightQuery.addGroupBy(pkField);
       }
-      selectForDeleteQuery.setDistinct(true);
-      List<DbKey> dbKeys = selectForDeleteQuery.fetch(r -> (DbKey) dbKeyFactory.newKey(r));
+      selectMaxHeightQuery.addConditions(heightField.le(height));
+      selectMaxHeightQuery.addConditions(DSL.exists(innerQuery));
+      Result<Record> remainingLatest = selectMaxHeightQuery.fetch();
 
       // delete all entries > height
       DeleteQuery deleteQuery = ctx.deleteQuery(tableClass);
       deleteQuery.addConditions(heightField.gt(height));
       deleteQuery.execute();
 
-      // update latest flags for remaining entries, if there any remaining (per deleted dbKey)
-      for (DbKey dbKey : dbKeys) {
-        SelectQuery<Record> selectMaxHeightQuery = ctx.selectQuery();
-        selectMaxHeightQuery.addFrom(tableClass);
-        selectMaxHeightQuery.addConditions(dbKey.getPKConditions(tableClass));
-        selectMaxHeightQuery.addSelect(DSL.max(heightField));
-        Integer maxHeight = selectMaxHeightQuery.fetchOne().get(DSL.max(heightField));
-
-        if (maxHeight != null) {
-          UpdateQuery setLatestQuery = ctx.updateQuery(tableClass);
-          setLatestQuery.addConditions(dbKey.getPKConditions(tableClass));
-          setLatestQuery.addConditions(heightField.eq(maxHeight));
-          setLatestQuery.addValue(latestField, true);
-          setLatestQuery.execute();
+      // update latest flags for remaining entries in one batch
+      UpdateQuery setLatestQuery = ctx.updateQuery(tableClass);
+      setLatestQuery.addValue(latestField, true);
+      setLatestQuery.addConditions(heightField.eq((Integer) null));
+      for (String column : dbKeyFactory.getPKColumns()) {
+        Field<Long> pkField = tableClass.field(column, Long.class);
+        setLatestQuery.addConditions(pkField.eq((Long) null));
+      }
+      BatchBindStep setLatestBatch = ctx.batch(setLatestQuery);
+
+      for (Record record : remainingLatest) {
+        DbKey dbKey = (DbKey) dbKeyFactory.newKey(record);
+        List<Object> bindValues = new ArrayList<>();
+        bindValues.add(true);
+        bindValues.add(record.get("max_height", Integer.class));
+        for (Long pkValue : dbKey.getPKValues()) {
+          bindValues.add(pkValue);
         }
+        setLatestBatch.bind(bindValues.toArray());
+      }
+      if (setLatestBatch.size() > 0) {
+        setLatestBatch.execute();
       }
     });
     Db.getCache(table).clear();
@@ -6,6 +6,7 @@ import brs.db.VersionedEntityTable;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public interface ATStore {
 
@@ -30,4 +31,6 @@ public interface ATStore {
   Long findTransaction(int startHeight, int endHeight, Long atID, int numOfTx, long minAmount);
 
   int findTransactionHeight(Long transactionId, int height, Long atID, long minAmount);
+
+  Map<Long, Integer> getIncomingTransactions(Long atID, int startHeight, int endHeight, long minAmount, int limit);
 }
@@ -4,4 +4,5 @@ public interface FluxCapacitor {
   <T> T getValue(FluxValue<T> fluxValue);
   <T> T getValue(FluxValue<T> fluxValue, int height);
   Integer getStartingHeight(FluxEnable fluxEnable);
+  boolean isHistoricalMoment(int height);
 }
@@ -67,4 +67,14 @@ public class FluxCapacitorImpl implements FluxCapacitor {
     public Integer getStartingHeight(FluxEnable fluxEnable) {
         return getHistoricalMomentHeight(fluxEnable.getEnablePoint());
     }
+
+    @Override
+    public boolean isHistoricalMoment(int height) {
+        for (HistoricalMoments historicalMoment : HistoricalMoments.values()) {
+            if (getHistoricalMomentHeight(historicalMoment) == height) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
@@ -3,7 +3,6 @@ package brs.grpc.handlers;
 import brs.Account;
 import brs.Blockchain;
 import brs.Generator;
-import brs.crypto.Crypto;
 import brs.grpc.GrpcApiHandler;
 import brs.grpc.proto.ApiException;
 import brs.grpc.proto.BrsApi;
@@ -58,7 +57,7 @@ public class SubmitNonceHandler implements GrpcApiHandler<BrsApi.SubmitNonceRequ
             throw new ApiException("This account is not allowed to mine on this node as the whitelist is enabled and it is not whitelisted.");
         }
 
-        byte[] secretPublicKey = Crypto.getPublicKey(secret);
+        byte[] secretPublicKey = generator.getPublicKey(secret);
         Account secretAccount = accountService.getAccount(secretPublicKey);
         if(secretAccount != null) {
             verifySecretAccount(accountService, blockchain, secretAccount, accountId);
@@ -66,7 +65,7 @@ public class SubmitNonceHandler implements GrpcApiHandler<BrsApi.SubmitNonceRequ
 
         Generator.GeneratorState generatorState;
         if (accountId == 0 || secretAccount == null) {
-            generatorState = generator.addNonce(secret, nonce);
+            generatorState = generator.addNonce(secret, nonce, secretPublicKey);
         }
         else {
             Account genAccount = accountService.getAccount(accountId);
@@ -43,6 +43,8 @@ public final class API {
   private static final String API_PATH = "/burst";
   @SuppressWarnings("squid:S1075")
   private static final String API_TEST_PATH = "/test";
+  @SuppressWarnings("squid:S1075")
+  private static final String MINING_INFO_PATH = API_PATH + "/miningInfo";
 
   private final Server apiServer;
 
@@ -158,6 +160,13 @@ public final class API {
 
       apiHandler.addServlet(new ServletHolder(new APITestServlet(apiServlet, allowedBotHosts)), API_TEST_PATH);
 
+      if (propertyService.getBoolean(Props.API_MINING_INFO_PUSH)) {
+        // not behind the DoS filter: held requests are cheap, and miners are expected to keep one open at all times
+        ServletHolder miningInfoServletHolder = new ServletHolder(new MiningInfoServlet(blockchainProcessor, blockchain, generator, propertyService, allowedBotHosts));
+        miningInfoServletHolder.setAsyncSupported(true);
+        apiHandler.addServlet(miningInfoServletHolder, MINING_INFO_PATH);
+      }
+
       RewriteHandler rewriteHandler = new RewriteHandler();
       rewriteHandler.setRewriteRequestURI(true);
       rewriteHandler.setRewritePathInfo(false);
@@ -232,7 +232,20 @@ public final class APIServlet extends HttpServlet {
     }
   }
 
-  private static void writeJsonToResponse(HttpServletResponse resp, JsonElement msg) throws IOException {
+  static boolean isAllowed(Set<Subnet> allowedBotHosts, HttpServletRequest req) throws IOException {
+    if (allowedBotHosts == null) {
+      return true;
+    }
+    InetAddress remoteAddress = InetAddress.getByName(req.getRemoteHost());
+    for (Subnet allowedSubnet : allowedBotHosts) {
+      if (allowedSubnet.isInNet(remoteAddress)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  static void writeJsonToResponse(HttpServletResponse resp, JsonElement msg) throws IOException {
     resp.setContentType("text/plain; charset=UTF-8");
     try (Writer writer = resp.getWriter()) {
       JSON.writeTo(msg, writer);
@@ -271,20 +284,10 @@ public final class APIServlet extends HttpServlet {
     resp.setHeader("Pragma", "no-cache");
     resp.setDateHeader("Expires", 0);
 
-    if (allowedBotHosts != null) {
-      InetAddress remoteAddress = InetAddress.getByName(req.getRemoteHost());
-      boolean allowed = false;
-      for (Subnet allowedSubnet : allowedBotHosts) {
-        if (allowedSubnet.isInNet(remoteAddress)) {
-          allowed = true;
-          break;
-        }
-      }
-      if (!allowed) {
-        resp.setStatus(HttpStatus.FORBIDDEN_403);
-        writeJsonToResponse(resp, ERROR_NOT_ALLOWED);
-        return;
-      }
+    if (!isAllowed(allowedBotHosts, req)) {
+      resp.setStatus(HttpStatus.FORBIDDEN_403);
+      writeJsonToResponse(resp, ERROR_NOT_ALLOWED);
+      return;
     }
 
     String requestType = req.getParameter("requestType");
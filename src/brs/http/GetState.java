@@ -85,6 +85,7 @@ final class GetState extends APIServlet.JsonRequestHandler {
     response.addProperty("lastBlockchainFeeder", lastBlockchainFeeder == null ? null : lastBlockchainFeeder.getAnnouncedAddress());
     response.addProperty("lastBlockchainFeederHeight", Burst.getBlockchainProcessor().getLastBlockchainFeederHeight());
     response.addProperty("isScanning", Burst.getBlockchainProcessor().isScanning());
+    response.add("unconfirmedTransactionIngestion", Burst.getTransactionProcessor().getIngestionStatistics().toJson());
     response.addProperty("availableProcessors", Runtime.getRuntime().availableProcessors());
     response.addProperty("maxMemory", Runtime.getRuntime().maxMemory());
     response.addProperty("totalMemory", Runtime.getRuntime().totalMemory());
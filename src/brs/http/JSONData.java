@@ -218,6 +218,9 @@ public final class JSONData {
     json.addProperty("platform", peer.getPlatform());
     json.addProperty("blacklisted", peer.isBlacklisted());
     json.addProperty("lastUpdated", peer.getLastUpdated());
+    json.addProperty("requests", peer.getRequestCount());
+    json.addProperty("failedRequests", peer.getFailedRequestCount());
+    json.addProperty("averageResponseTimeMs", peer.getAverageResponseTime());
     return json;
   }
 
@@ -138,6 +138,14 @@ public final class JSONResponses {
     ERROR_NOT_ALLOWED = response;
   }
 
+  public static final JsonElement ERROR_TOO_MANY_SUBSCRIPTIONS;
+  static {
+    JsonObject response = new JsonObject();
+    response.addProperty(ERROR_CODE_RESPONSE, 7);
+    response.addProperty(ERROR_DESCRIPTION_RESPONSE, "Too many open mining info requests");
+    ERROR_TOO_MANY_SUBSCRIPTIONS = response;
+  }
+
   public static final JsonElement ERROR_INCORRECT_REQUEST;
   static {
     JsonObject response  = new JsonObject();
@@ -0,0 +1,419 @@
+package brs.http;
+
+import brs.Block;
+import brs.Blockchain;
+import brs.BlockchainProcessor;
+import brs.Generator;
+import brs.props.PropertyService;
+import brs.props.Props;
+import brs.util.Convert;
+import brs.util.JSON;
+import brs.util.Subnet;
+import com.google.gson.JsonObject;
+import org.eclipse.jetty.http.HttpStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static brs.http.JSONResponses.ERROR_INCORRECT_REQUEST;
+import static brs.http.JSONResponses.ERROR_NOT_ALLOWED;
+import static brs.http.JSONResponses.ERROR_TOO_MANY_SUBSCRIPTIONS;
+
+/**
+ * Pushes mining info to miners instead of having them poll getMiningInfo through the API servlet.
+ * <ul>
+ *   <li>A plain GET returns the current mining info.</li>
+ *   <li>A GET with a height parameter equal to the height being mined is held until the next block arrives
+ *   or the push timeout passes (long-poll), and then returns the current mining info.</li>
+ *   <li>A GET accepting text/event-stream is kept open and receives every new mining info as a server-sent event.</li>
+ * </ul>
+ * The response body is serialised once per block and shared by all subscribers. Held requests are written to
+ * without blocking, and their number is limited in total and per remote host.
+ */
+public final class MiningInfoServlet extends HttpServlet {
+
+  private static final Logger logger = LoggerFactory.getLogger(MiningInfoServlet.class);
+
+  private static final String EVENT_STREAM = "text/event-stream";
+  private static final byte[] HEARTBEAT = ":\n\n".getBytes(StandardCharsets.UTF_8);
+  private static final long STREAM = -1;
+
+  private final Generator generator;
+  private final Set<Subnet> allowedBotHosts;
+  private final String allowedOrigins;
+  private final long timeout;
+  private final int maxSubscriptions;
+  private final int maxSubscriptionsPerHost;
+
+  // held long-polls and open event streams
+  private final Map<AsyncContext, Subscriber> subscribers = new ConcurrentHashMap<>();
+  // number of held requests by remote host, and in total, guarded by hostSubscriptions
+  private final Map<String, Integer> hostSubscriptions = new HashMap<>();
+  private int subscriptions;
+  // publishing, heartbeats and long-poll timeouts run on this thread, writes to miners never block it
+  private final ScheduledThreadPoolExecutor pushExecutor = new ScheduledThreadPoolExecutor(1, runnable -> {
+    Thread thread = new Thread(runnable, "mining-info-push");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  private volatile MiningInfo current;
+
+  MiningInfoServlet(BlockchainProcessor blockchainProcessor, Blockchain blockchain, Generator generator, PropertyService propertyService, Set<Subnet> allowedBotHosts) {
+    this.generator = generator;
+    this.allowedBotHosts = allowedBotHosts;
+    this.allowedOrigins = propertyService.getString(Props.API_ALLOWED_ORIGINS);
+    this.timeout = propertyService.getInt(Props.API_MINING_INFO_PUSH_TIMEOUT);
+    this.maxSubscriptions = propertyService.getInt(Props.API_MINING_INFO_PUSH_MAX_SUBSCRIPTIONS);
+    this.maxSubscriptionsPerHost = propertyService.getInt(Props.API_MINING_INFO_PUSH_MAX_SUBSCRIPTIONS_PER_HOST);
+
+    // answered long-polls must not keep their timeout task queued
+    pushExecutor.setRemoveOnCancelPolicy(true);
+    blockchainProcessor.addListener(this::onBlock, BlockchainProcessor.Event.BLOCK_PUSHED);
+    onBlock(blockchain.getLastBlock());
+    // keeps idle event streams from being closed by the connector idle timeout
+    pushExecutor.scheduleWithFixedDelay(this::sendHeartbeat, timeout, timeout, TimeUnit.MILLISECONDS);
+  }
+
+  private synchronized void onBlock(Block block) {
+    byte[] generationSignature = generator.calculateGenerationSignature(block.getGenerationSignature(), block.getGeneratorId());
+    MiningInfo miningInfo = current;
+    if (miningInfo == null || miningInfo.height != block.getHeight() + 1L || miningInfo.baseTarget != block.getBaseTarget()
+        || !Arrays.equals(miningInfo.generationSignature, generationSignature)) {
+      current = new MiningInfo(block.getHeight() + 1L, generationSignature, block.getBaseTarget());
+      pushExecutor.execute(this::publish);
+    }
+  }
+
+  @Override
+  public void destroy() {
+    pushExecutor.shutdownNow();
+    for (Subscriber subscriber : subscribers.values()) {
+      subscriber.close();
+    }
+    super.destroy();
+  }
+
+  @Override
+  protected void doGet(HttpServletRequest req, HttpServletResponse resp) {
+    try {
+      process(req, resp);
+    } catch (Exception e) { // We don't want to send exception information to client...
+      resp.setStatus(HttpStatus.INTERNAL_SERVER_ERROR_500);
+      logger.warn("Error handling mining info request", e);
+    }
+  }
+
+  private void process(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+    resp.setHeader("Access-Control-Allow-Methods", "GET");
+    resp.setHeader("Access-Control-Allow-Origin", allowedOrigins);
+    resp.setHeader("Cache-Control", "no-cache, no-store, must-revalidate, private");
+    resp.setHeader("Pragma", "no-cache");
+    resp.setDateHeader("Expires", 0);
+
+    if (!APIServlet.isAllowed(allowedBotHosts, req)) {
+      resp.setStatus(HttpStatus.FORBIDDEN_403);
+      APIServlet.writeJsonToResponse(resp, ERROR_NOT_ALLOWED);
+      return;
+    }
+
+    String accept = req.getHeader("Accept");
+    if (accept != null && accept.contains(EVENT_STREAM)) {
+      resp.setContentType(EVENT_STREAM + "; charset=UTF-8");
+      if (subscribe(req, resp, STREAM) != null) {
+        pushExecutor.execute(this::publish);
+      }
+      return;
+    }
+
+    String heightValue = Convert.emptyToNull(req.getParameter("height"));
+    if (heightValue != null) {
+      long height;
+      try {
+        height = Long.parseLong(heightValue);
+      } catch (NumberFormatException e) {
+        APIServlet.writeJsonToResponse(resp, ERROR_INCORRECT_REQUEST);
+        return;
+      }
+      if (height == current.height) {
+        Subscriber subscriber = subscribe(req, resp, height);
+        if (subscriber != null) {
+          subscriber.timeoutTask = pushExecutor.schedule(() -> answer(subscriber), timeout, TimeUnit.MILLISECONDS);
+          // a block pushed since the height was checked must not leave this request waiting for the next one
+          pushExecutor.execute(this::publish);
+        }
+        return;
+      }
+    }
+
+    writeMiningInfo(resp, current);
+  }
+
+  /**
+   * Holds the request open, unless its host or the servlet already hold as many requests as allowed.
+   * @param height the height a long-poll waits to change, or {@link #STREAM}
+   * @return the held request, null if it was refused
+   */
+  private Subscriber subscribe(HttpServletRequest req, HttpServletResponse resp, long height) throws IOException {
+    String host = req.getRemoteAddr();
+    if (!reserve(host)) {
+      resp.setStatus(HttpStatus.SERVICE_UNAVAILABLE_503);
+      APIServlet.writeJsonToResponse(resp, ERROR_TOO_MANY_SUBSCRIPTIONS);
+      return null;
+    }
+
+    try {
+      AsyncContext context = req.startAsync();
+      // timeouts are handled on the push thread, so the container never answers a request while it is written to
+      context.setTimeout(0);
+      Subscriber subscriber = new Subscriber(context, resp.getOutputStream(), host, height);
+      context.addListener(subscriber);
+      // only pushed to once it can be written to, and not held if it was closed in the meantime
+      subscriber.out.setWriteListener(subscriber);
+      subscribers.put(context, subscriber);
+      if (subscriber.closed.get()) {
+        subscribers.remove(context);
+      }
+      return subscriber;
+    } catch (IOException | RuntimeException e) {
+      release(host);
+      throw e;
+    }
+  }
+
+  private boolean reserve(String host) {
+    synchronized (hostSubscriptions) {
+      int held = hostSubscriptions.getOrDefault(host, 0);
+      if (subscriptions >= maxSubscriptions || held >= maxSubscriptionsPerHost) {
+        return false;
+      }
+      hostSubscriptions.put(host, held + 1);
+      subscriptions++;
+      return true;
+    }
+  }
+
+  private void release(String host) {
+    synchronized (hostSubscriptions) {
+      int held = hostSubscriptions.getOrDefault(host, 1) - 1;
+      if (held > 0) {
+        hostSubscriptions.put(host, held);
+      } else {
+        hostSubscriptions.remove(host);
+      }
+      subscriptions--;
+    }
+  }
+
+  private void publish() {
+    MiningInfo miningInfo = current;
+    for (Subscriber subscriber : subscribers.values()) {
+      if (subscriber.height == STREAM) {
+        if (subscriber.sent != miningInfo) {
+          subscriber.sent = miningInfo;
+          subscriber.send(miningInfo.event, false);
+        }
+      } else if (subscriber.height != miningInfo.height) {
+        answer(subscriber);
+      }
+    }
+  }
+
+  /**
+   * Answers a long-poll with the current mining info, once.
+   */
+  private void answer(Subscriber subscriber) {
+    if (subscriber.answered) {
+      return;
+    }
+    subscriber.answered = true;
+    MiningInfo miningInfo = current;
+    try {
+      HttpServletResponse resp = (HttpServletResponse) subscriber.context.getResponse();
+      resp.setContentType("text/plain; charset=UTF-8");
+      resp.setContentLength(miningInfo.json.length);
+    } catch (IllegalStateException e) {
+      logger.debug("Error answering mining info long-poll", e);
+      subscriber.close();
+      return;
+    }
+    subscriber.send(miningInfo.json, true);
+  }
+
+  private void sendHeartbeat() {
+    for (Subscriber subscriber : subscribers.values()) {
+      if (subscriber.height == STREAM) {
+        subscriber.sendHeartbeat();
+      }
+    }
+  }
+
+  private static void writeMiningInfo(HttpServletResponse resp, MiningInfo miningInfo) throws IOException {
+    resp.setContentType("text/plain; charset=UTF-8");
+    resp.setContentLength(miningInfo.json.length);
+    resp.getOutputStream().write(miningInfo.json);
+  }
+
+  /**
+   * A held request. While its miner is not ready to receive more, only the latest bytes sent to it are kept,
+   * so a slow miner skips mining info it cannot keep up with instead of piling it up or holding up the others.
+   */
+  private final class Subscriber implements AsyncListener, WriteListener {
+    private final AsyncContext context;
+    private final ServletOutputStream out;
+    private final String host;
+    private final long height;
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private volatile ScheduledFuture<?> timeoutTask;
+
+    // only used on the push thread
+    private MiningInfo sent;
+    private boolean answered;
+
+    // guarded by this
+    private byte[] pending;
+    private boolean unflushed;
+    private boolean completeWhenWritten;
+
+    private Subscriber(AsyncContext context, ServletOutputStream out, String host, long height) {
+      this.context = context;
+      this.out = out;
+      this.host = host;
+      this.height = height;
+    }
+
+    /**
+     * Writes the bytes as soon as the miner is ready for them, replacing any bytes still waiting to be written.
+     * @param complete whether to complete the request once they are written
+     */
+    private synchronized void send(byte[] bytes, boolean complete) {
+      pending = bytes;
+      completeWhenWritten = complete;
+      write();
+    }
+
+    private synchronized void sendHeartbeat() {
+      if (pending == null) {
+        pending = HEARTBEAT;
+        write();
+      }
+    }
+
+    @Override
+    public synchronized void onWritePossible() {
+      write();
+    }
+
+    private void write() {
+      if (closed.get()) {
+        return;
+      }
+      try {
+        while (out.isReady()) {
+          if (pending != null) {
+            byte[] bytes = pending;
+            pending = null;
+            unflushed = true;
+            out.write(bytes);
+          } else if (unflushed) {
+            unflushed = false;
+            out.flush();
+          } else {
+            if (completeWhenWritten) {
+              close();
+            }
+            return;
+          }
+        }
+      } catch (IOException | IllegalStateException e) {
+        logger.debug("Closing mining info request", e);
+        close();
+      }
+    }
+
+    @Override
+    public void onError(Throwable t) {
+      logger.debug("Closing mining info request", t);
+      close();
+    }
+
+    @Override
+    public void onTimeout(AsyncEvent event) {
+      close();
+    }
+
+    @Override
+    public void onError(AsyncEvent event) {
+      close();
+    }
+
+    @Override
+    public void onComplete(AsyncEvent event) {
+      close();
+    }
+
+    @Override
+    public void onStartAsync(AsyncEvent event) {
+      // nothing to set up
+    }
+
+    private void close() {
+      if (!closed.compareAndSet(false, true)) {
+        return;
+      }
+      subscribers.remove(context);
+      release(host);
+      ScheduledFuture<?> task = timeoutTask;
+      if (task != null) {
+        task.cancel(false);
+      }
+      try {
+        context.complete();
+      } catch (IllegalStateException ignored) {
+        // already completed
+      }
+    }
+  }
+
+  private static class MiningInfo {
+    private final long height;
+    private final byte[] generationSignature;
+    private final long baseTarget;
+    private final byte[] json;
+    private final byte[] event;
+
+    private MiningInfo(long height, byte[] generationSignature, long baseTarget) {
+      this.height = height;
+      this.generationSignature = generationSignature;
+      this.baseTarget = baseTarget;
+
+      // same fields as getMiningInfo
+      JsonObject response = new JsonObject();
+      response.addProperty("height", Long.toString(height));
+      response.addProperty("generationSignature", Convert.toHexString(generationSignature));
+      response.addProperty("baseTarget", Long.toString(baseTarget));
+      String json = JSON.toJsonString(response);
+      this.json = json.getBytes(StandardCharsets.UTF_8);
+      this.event = ("data: " + json + "\n\n").getBytes(StandardCharsets.UTF_8);
+    }
+  }
+}
@@ -3,7 +3,6 @@ package brs.http;
 import brs.Account;
 import brs.Blockchain;
 import brs.Generator;
-import brs.crypto.Crypto;
 import brs.grpc.handlers.SubmitNonceHandler;
 import brs.grpc.proto.ApiException;
 import brs.props.PropertyService;
@@ -16,6 +15,8 @@ import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 
 import javax.servlet.http.HttpServletRequest;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.function.Function;
@@ -26,6 +27,8 @@ import static brs.http.common.Parameters.*;
 
 final class SubmitNonce extends APIServlet.JsonRequestHandler {
 
+  static final int MAX_NONCES_PER_REQUEST = 1000;
+
   private final Map<Long, String> passphrases;
   private final boolean allowOtherSoloMiners;
   private final AccountService accountService;
@@ -48,7 +51,14 @@ final class SubmitNonce extends APIServlet.JsonRequestHandler {
   @Override
   JsonElement processRequest(HttpServletRequest req) {
     String secret = req.getParameter(SECRET_PHRASE_PARAMETER);
-    long nonce = Convert.parseUnsignedLong(req.getParameter(NONCE_PARAMETER));
+    List<Long> nonces;
+    try {
+      nonces = parseNonces(req.getParameterValues(NONCE_PARAMETER));
+    } catch (NumberFormatException e) {
+      JsonObject response = new JsonObject();
+      response.addProperty("result", "Given nonce is not a number");
+      return response;
+    }
 
     String accountId = req.getParameter(ACCOUNT_ID_PARAMETER);
 
@@ -56,6 +66,11 @@ final class SubmitNonce extends APIServlet.JsonRequestHandler {
 
     JsonObject response = new JsonObject();
 
+    if (nonces.size() > MAX_NONCES_PER_REQUEST) {
+      response.addProperty("result", "Too many nonces, at most " + MAX_NONCES_PER_REQUEST + " can be submitted at once");
+      return response;
+    }
+
     if (submissionHeight != null) {
       try {
         int height = Integer.parseInt(submissionHeight);
@@ -90,7 +105,7 @@ final class SubmitNonce extends APIServlet.JsonRequestHandler {
       return response;
     }
 
-    byte[] secretPublicKey = Crypto.getPublicKey(secret);
+    byte[] secretPublicKey = generator.getPublicKey(secret);
     Account secretAccount = accountService.getAccount(secretPublicKey);
     if(secretAccount != null) {
       try {
@@ -103,7 +118,7 @@ final class SubmitNonce extends APIServlet.JsonRequestHandler {
 
     Generator.GeneratorState generatorState = null;
     if(accountId == null || secretAccount == null) {
-      generatorState = generator.addNonce(secret, nonce);
+      generatorState = generator.addNonces(secret, nonces, secretPublicKey);
     }
     else {
       Account genAccount = accountService.getAccount(Convert.parseUnsignedLong(accountId));
@@ -112,7 +127,7 @@ final class SubmitNonce extends APIServlet.JsonRequestHandler {
       }
       else {
         byte[] publicKey = genAccount.getPublicKey();
-        generatorState = generator.addNonce(secret, nonce, publicKey);
+        generatorState = generator.addNonces(secret, nonces, publicKey);
       }
     }
 
@@ -123,10 +138,33 @@ final class SubmitNonce extends APIServlet.JsonRequestHandler {
 
     response.addProperty("result", "success");
     response.addProperty("deadline", generatorState.getDeadline());
+    if (nonces.size() > 1) {
+      response.addProperty("nonce", Convert.toUnsignedLong(generatorState.getNonce()));
+    }
 
     return response;
   }
 
+  /**
+   * Nonces can be given as several nonce parameters, as a comma separated list, or both.
+   */
+  static List<Long> parseNonces(String[] values) {
+    List<Long> nonces = new ArrayList<>();
+    if (values == null) {
+      // a missing nonce has always been taken as nonce 0
+      nonces.add(0L);
+      return nonces;
+    }
+    for (String value : values) {
+      for (String nonce : value.split(",")) {
+        if (!nonce.trim().isEmpty()) {
+          nonces.add(Convert.parseUnsignedLong(nonce.trim()));
+        }
+      }
+    }
+    return nonces;
+  }
+
   @Override
   boolean requirePost() {
     return true;
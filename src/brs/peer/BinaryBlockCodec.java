@@ -0,0 +1,86 @@
+package brs.peer;
+
+import brs.Block;
+import brs.Burst;
+import brs.fluxcapacitor.FluxCapacitor;
+import brs.fluxcapacitor.FluxValues;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Framing of the binary peer sync mode. A binary response is the number of blocks followed by the
+ * length-prefixed {@link Block#getBinaryBytes()} of each block. Peers announce support for it in getInfo,
+ * and only get a binary response if they ask for one, so JSON keeps working for older peers.
+ */
+public final class BinaryBlockCodec {
+
+  public static final String BINARY_RESPONSE_PARAMETER = "binaryResponse";
+  /** getNextBlocks answers hold at most this many blocks */
+  public static final int MAX_NEXT_BLOCKS = 100;
+
+  static final String BINARY_BLOCKS_CAPABILITY = "binaryBlocks";
+  static final String CONTENT_TYPE = "application/octet-stream";
+
+  // header fields, blockATs and transaction count of a block frame, see Block#getBinaryBytes()
+  private static final int MAX_BLOCK_HEADER_SIZE = 4 + 4 + 8 + 8 + 8 + 4 + 32 + 32 + 32 + 32 + 8 + 4 + 64 + 4;
+
+  private BinaryBlockCodec() {
+  }
+
+  static byte[] writeBlocks(Collection<? extends Block> blocks) {
+    List<byte[]> frames = new ArrayList<>(blocks.size());
+    int size = 4;
+    for (Block block : blocks) {
+      byte[] frame = block.getBinaryBytes();
+      frames.add(frame);
+      size += 4 + frame.length;
+    }
+    ByteBuffer buffer = ByteBuffer.allocate(size);
+    buffer.putInt(frames.size());
+    for (byte[] frame : frames) {
+      buffer.putInt(frame.length);
+      buffer.put(frame);
+    }
+    return buffer.array();
+  }
+
+  /**
+   * @return the largest binary response honest peers can send for the given number of blocks, counting every
+   * block at the maximum payload plus as many AT bytes and transaction frames as a block can carry
+   */
+  public static int maxResponseSize(int maxBlocks) {
+    FluxCapacitor fluxCapacitor = Burst.getFluxCapacitor();
+    long maxPayloadLength = fluxCapacitor.getValue(FluxValues.MAX_PAYLOAD_LENGTH);
+    long maxTransactions = fluxCapacitor.getValue(FluxValues.MAX_NUMBER_TRANSACTIONS);
+    long maxFrameSize = 4 + MAX_BLOCK_HEADER_SIZE + 2 * maxPayloadLength + 4 * maxTransactions;
+    return (int) Math.min(Integer.MAX_VALUE - 8, 4 + maxBlocks * maxFrameSize);
+  }
+
+  /**
+   * Splits a binary response into the frames of its blocks, see {@link Block#getBinaryBytes()}.
+   */
+  public static List<byte[]> readBlocks(byte[] response, int maxBlocks) {
+    ByteBuffer buffer = ByteBuffer.wrap(response);
+    int count = buffer.getInt();
+    if (count < 0 || count > maxBlocks) {
+      throw new IllegalArgumentException("Invalid number of blocks in binary response: " + count);
+    }
+    List<byte[]> frames = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      int length = buffer.getInt();
+      if (length < 0 || length > buffer.remaining()) {
+        throw new IllegalArgumentException("Invalid block length in binary response: " + length);
+      }
+      byte[] frame = new byte[length];
+      buffer.get(frame);
+      frames.add(frame);
+    }
+    if (buffer.hasRemaining()) {
+      throw new IllegalArgumentException("Binary response has " + buffer.remaining() + " trailing bytes");
+    }
+    return frames;
+  }
+}
@@ -46,6 +46,7 @@ final class GetInfo implements PeerServlet.PeerRequestHandler {
     peerImpl.setPlatform(platform.trim());
 
     peerImpl.setShareAddress(Boolean.TRUE.equals(JSON.getAsBoolean(request.get("shareAddress"))));
+    peerImpl.negotiateBinaryBlocks(JSON.getAsBoolean(request.get(BinaryBlockCodec.BINARY_BLOCKS_CAPABILITY)));
     peerImpl.setLastUpdated(timeService.getEpochTime());
 
     Peers.notifyListeners(peerImpl, Peers.Event.ADDED_ACTIVE_PEER);
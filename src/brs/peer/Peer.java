@@ -91,10 +91,29 @@ public interface Peer extends Comparable<Peer> {
 
   long getUploadedVolume();
 
+  long getRequestCount();
+
+  long getFailedRequestCount();
+
+  /**
+   * @return the average time in milliseconds it took this peer to answer our requests
+   */
+  long getAverageResponseTime();
+
   int getLastUpdated();
 
   JsonObject send(JsonElement request);
 
+  /**
+   * Sends a request asking for a binary response. A peer answering it in JSON no longer counts as supporting
+   * binary blocks, so the format is only ever negotiated once per peer.
+   * @param maxResponseSize the response is dropped and the peer blacklisted if it gets larger than this
+   * @return the body of a binary response, or null if the peer failed or answered in JSON
+   */
+  byte[] sendBinary(JsonElement request, int maxResponseSize);
+
+  boolean supportsBinaryBlocks();
+
   static boolean isHigherOrEqualVersion(Version ourVersion, Version possiblyLowerVersion) {
     if (ourVersion == null || possiblyLowerVersion == null) {
       return false;
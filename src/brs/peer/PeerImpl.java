@@ -35,10 +35,15 @@ final class PeerImpl implements Peer {
   private final AtomicReference<String> application = new AtomicReference<>();
   private final AtomicReference<Version> version = new AtomicReference<>();
   private final AtomicBoolean isOldVersion = new AtomicBoolean(false);
+  private final AtomicBoolean binaryBlocks = new AtomicBoolean(false);
+  private final AtomicBoolean binaryBlocksNegotiated = new AtomicBoolean(false);
   private final AtomicLong blacklistingTime = new AtomicLong();
   private final AtomicReference<State> state = new AtomicReference<>();
   private final AtomicLong downloadedVolume = new AtomicLong();
   private final AtomicLong uploadedVolume = new AtomicLong();
+  private final AtomicLong requestCount = new AtomicLong();
+  private final AtomicLong failedRequestCount = new AtomicLong();
+  private final AtomicLong totalResponseTime = new AtomicLong();
   private final AtomicInteger lastUpdated = new AtomicInteger();
   private byte[] lastDownloadedTransactionsDigest;
   private final Object lastDownloadedTransactionsLock = new Object();
@@ -83,6 +88,10 @@ final class PeerImpl implements Peer {
       this.state.set(state);
       Peers.notifyListeners(this, Peers.Event.CHANGED_ACTIVE_PEER);
     }
+    if (state != State.CONNECTED) {
+      // the next handshake negotiates the block format again
+      binaryBlocksNegotiated.set(false);
+    }
   }
 
   @Override
@@ -90,6 +99,22 @@ final class PeerImpl implements Peer {
     return downloadedVolume.get();
   }
 
+  @Override
+  public long getRequestCount() {
+    return requestCount.get();
+  }
+
+  @Override
+  public long getFailedRequestCount() {
+    return failedRequestCount.get();
+  }
+
+  @Override
+  public long getAverageResponseTime() {
+    long requests = requestCount.get();
+    return requests == 0 ? 0 : totalResponseTime.get() / requests;
+  }
+
   public boolean diffLastDownloadedTransactions( byte[] data ) {
     synchronized (lastDownloadedTransactionsLock) {
       byte[] newDigest = Crypto.sha256().digest(data);
@@ -183,6 +208,21 @@ final class PeerImpl implements Peer {
     this.shareAddress.set(shareAddress);
   }
 
+  @Override
+  public boolean supportsBinaryBlocks() {
+    return binaryBlocks.get();
+  }
+
+  /**
+   * Records whether the peer takes binary block requests. The format is negotiated once per connection, when the
+   * handshake completes, later info exchanges leave it as it is until the peer disconnects.
+   */
+  void negotiateBinaryBlocks(Boolean binaryBlocks) {
+    if (binaryBlocksNegotiated.compareAndSet(false, true)) {
+      this.binaryBlocks.set(Boolean.TRUE.equals(binaryBlocks));
+    }
+  }
+
   @Override
   public String getAnnouncedAddress() {
     return announcedAddress.get();
@@ -300,18 +340,12 @@ final class PeerImpl implements Peer {
     String log = null;
     boolean showLog = false;
     HttpURLConnection connection = null;
+    boolean success = false;
+    long startTime = System.currentTimeMillis();
 
     try {
 
-      String address = announcedAddress.get() != null ? announcedAddress.get() : peerAddress;
-      StringBuilder buf = new StringBuilder(Constants.HTTP);
-      buf.append(address);
-      if (port.get() <= 0) {
-        buf.append(':');
-        buf.append(Burst.getPropertyService().getBoolean(Props.DEV_TESTNET) ? Peers.TESTNET_PEER_PORT : Peers.DEFAULT_PEER_PORT);
-      }
-      buf.append("/burst");
-      URL url = new URL(buf.toString());
+      URL url = getUrl();
 
       if (Peers.communicationLoggingMask != 0) {
         StringWriter stringWriter = new StringWriter();
@@ -319,20 +353,7 @@ final class PeerImpl implements Peer {
         log = "\"" + url.toString() + "\": " + stringWriter.toString();
       }
 
-      connection = (HttpURLConnection)url.openConnection();
-      connection.setRequestMethod("POST");
-      connection.setDoOutput(true);
-      connection.setConnectTimeout(Peers.connectTimeout);
-      connection.setReadTimeout(Peers.readTimeout);
-      connection.addRequestProperty("User-Agent", "BRS/" + Burst.VERSION.toString());
-      connection.setRequestProperty("Accept-Encoding", "gzip");
-      connection.setRequestProperty("Connection", "close");
-
-      CountingOutputStream cos = new CountingOutputStream(connection.getOutputStream());
-      try (Writer writer = new BufferedWriter(new OutputStreamWriter(cos, StandardCharsets.UTF_8))) {
-        JSON.writeTo(request, writer);
-      } // rico666: no catch?
-      updateUploadedVolume(cos.getCount());
+      connection = openConnection(url, request);
 
       if (connection.getResponseCode() == HttpURLConnection.HTTP_OK) {
         CountingInputStream cis = new CountingInputStream(connection.getInputStream());
@@ -363,6 +384,7 @@ final class PeerImpl implements Peer {
           }
         }
         updateDownloadedVolume(cis.getCount());
+        success = true;
       }
       else {
 
@@ -396,14 +418,117 @@ final class PeerImpl implements Peer {
       logger.info(log);
     }
 
-    if (connection != null) {
-      connection.disconnect();
-    }
+    finishRequest(connection, startTime, success, success);
 
     return response;
 
   }
 
+  private URL getUrl() throws MalformedURLException {
+    String address = announcedAddress.get() != null ? announcedAddress.get() : peerAddress;
+    StringBuilder buf = new StringBuilder(Constants.HTTP);
+    buf.append(address);
+    if (port.get() <= 0) {
+      buf.append(':');
+      buf.append(Burst.getPropertyService().getBoolean(Props.DEV_TESTNET) ? Peers.TESTNET_PEER_PORT : Peers.DEFAULT_PEER_PORT);
+    }
+    buf.append("/burst");
+    return new URL(buf.toString());
+  }
+
+  private HttpURLConnection openConnection(URL url, JsonElement request) throws IOException {
+    HttpURLConnection connection = (HttpURLConnection)url.openConnection();
+    connection.setRequestMethod("POST");
+    connection.setDoOutput(true);
+    connection.setConnectTimeout(Peers.connectTimeout);
+    connection.setReadTimeout(Peers.readTimeout);
+    connection.addRequestProperty("User-Agent", "BRS/" + Burst.VERSION.toString());
+    connection.setRequestProperty("Accept-Encoding", "gzip");
+    if (!Peers.keepAlive) {
+      connection.setRequestProperty("Connection", "close");
+    }
+
+    CountingOutputStream cos = new CountingOutputStream(connection.getOutputStream());
+    try (Writer writer = new BufferedWriter(new OutputStreamWriter(cos, StandardCharsets.UTF_8))) {
+      JSON.writeTo(request, writer);
+    } // rico666: no catch?
+    updateUploadedVolume(cos.getCount());
+    return connection;
+  }
+
+  @Override
+  public byte[] sendBinary(final JsonElement request, int maxResponseSize) {
+    HttpURLConnection connection = null;
+    boolean success = false;
+    boolean reusable = false;
+    long startTime = System.currentTimeMillis();
+    try {
+      connection = openConnection(getUrl(), request);
+      if (connection.getResponseCode() != HttpURLConnection.HTTP_OK) {
+        if (state.get() == State.CONNECTED) {
+          setState(State.DISCONNECTED);
+        } else {
+          setState(State.NON_CONNECTED);
+        }
+        return null;
+      }
+      String contentType = connection.getContentType();
+      if (contentType == null || !contentType.startsWith(BinaryBlockCodec.CONTENT_TYPE)) {
+        // peer answered in JSON, so it is asked in JSON from now on
+        binaryBlocks.set(false);
+        success = true;
+        return null;
+      }
+      CountingInputStream cis = new CountingInputStream(connection.getInputStream());
+      InputStream responseStream = cis;
+      if ("gzip".equals(connection.getHeaderField("Content-Encoding"))) {
+        responseStream = new GZIPInputStream(cis);
+      }
+      ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+      byte[] buffer = new byte[8192];
+      int numberOfBytes;
+      try (InputStream inputStream = responseStream) {
+        while ((numberOfBytes = inputStream.read(buffer, 0, buffer.length)) > 0) {
+          if (byteArrayOutputStream.size() + numberOfBytes > maxResponseSize) {
+            updateDownloadedVolume(cis.getCount());
+            blacklist("sent a binary response larger than " + maxResponseSize + " bytes");
+            return null;
+          }
+          byteArrayOutputStream.write(buffer, 0, numberOfBytes);
+        }
+      }
+      updateDownloadedVolume(cis.getCount());
+      success = true;
+      reusable = true;
+      return byteArrayOutputStream.toByteArray();
+    } catch (RuntimeException|IOException e) {
+      if (!isConnectionException(e)) {
+        logger.debug("Error sending binary request", e);
+      }
+      if (state.get() == State.CONNECTED) {
+        setState(State.DISCONNECTED);
+      }
+      return null;
+    } finally {
+      finishRequest(connection, startTime, success, reusable);
+    }
+  }
+
+  /**
+   * Updates the request metrics and, unless the response has been fully read, closes the connection.
+   * A fully read response lets {@link HttpURLConnection} keep the socket alive for the next request to this peer.
+   */
+  private void finishRequest(HttpURLConnection connection, long startTime, boolean success, boolean reusable) {
+    requestCount.incrementAndGet();
+    totalResponseTime.addAndGet(System.currentTimeMillis() - startTime);
+    if (!success) {
+      failedRequestCount.incrementAndGet();
+    }
+    if (connection != null && (!reusable || !Peers.keepAlive)) {
+      connection.disconnect();
+    }
+  }
+
   private boolean isConnectionException(Throwable e) {
     if (e instanceof UnknownHostException || e instanceof SocketTimeoutException || e instanceof SocketException) return true;
     if (e.getCause() == null) return false;
@@ -434,6 +559,7 @@ final class PeerImpl implements Peer {
         setAnnouncedAddress(peerAddress);
       }
 
+      negotiateBinaryBlocks(JSON.getAsBoolean(response.get(BinaryBlockCodec.BINARY_BLOCKS_CAPABILITY)));
       setState(State.CONNECTED);
       Peers.updateAddress(this);
       lastUpdated.set(currentTime);
@@ -40,6 +40,13 @@ public final class PeerServlet extends HttpServlet {
     abstract ExtendedProcessRequest extendedProcessRequest(JsonObject request, Peer peer);
   }
 
+  interface BinaryPeerRequestHandler extends PeerRequestHandler {
+    /**
+     * @return the binary response, or null if the request should be answered in JSON
+     */
+    byte[] processBinaryRequest(JsonObject request, Peer peer);
+  }
+
   static class ExtendedProcessRequest {
     final JsonElement response;
     final RequestLifecycleHook afterRequestHook;
@@ -111,7 +118,8 @@ public final class PeerServlet extends HttpServlet {
 
   private void process(HttpServletRequest req, HttpServletResponse resp) throws IOException {
     Peer peer = null;
-    JsonElement response;
+    JsonElement response = null;
+    byte[] binaryResponse = null;
 
     ExtendedProcessRequest extendedProcessRequest = null;
 
@@ -142,7 +150,11 @@ public final class PeerServlet extends HttpServlet {
       if (request.get(PROTOCOL) != null && JSON.getAsString(request.get(PROTOCOL)).equals("B1")) {
         requestType = "" + JSON.getAsString(request.get("requestType"));
         PeerRequestHandler peerRequestHandler = peerRequestHandlers.get(JSON.getAsString(request.get("requestType")));
-        if (peerRequestHandler != null) {
+        if (peerRequestHandler instanceof BinaryPeerRequestHandler
+            && JSON.getAsBoolean(request.get(BinaryBlockCodec.BINARY_RESPONSE_PARAMETER))) {
+          binaryResponse = ((BinaryPeerRequestHandler) peerRequestHandler).processBinaryRequest(request, peer);
+        }
+        if (binaryResponse == null && peerRequestHandler != null) {
           if(peerRequestHandler instanceof ExtendedPeerRequestHandler) {
             extendedProcessRequest = ((ExtendedPeerRequestHandler) peerRequestHandler).extendedProcessRequest(request, peer);
             response = extendedProcessRequest.response;
@@ -150,7 +162,7 @@ public final class PeerServlet extends HttpServlet {
             response = peerRequestHandler.processRequest(request, peer);
           }
         }
-        else {
+        else if (binaryResponse == null) {
           response = UNSUPPORTED_REQUEST_TYPE;
         }
       }
@@ -168,13 +180,19 @@ public final class PeerServlet extends HttpServlet {
       response = json;
     }
 
-    resp.setContentType("text/plain; charset=UTF-8");
+    resp.setContentType(binaryResponse != null ? BinaryBlockCodec.CONTENT_TYPE : "text/plain; charset=UTF-8");
     try {
       long byteCount;
 
       CountingOutputStream cos = new CountingOutputStream(resp.getOutputStream());
-      try (Writer writer = new OutputStreamWriter(cos, StandardCharsets.UTF_8)) {
-        JSON.writeTo(response, writer);
+      if (binaryResponse != null) {
+        try (OutputStream outputStream = cos) {
+          outputStream.write(binaryResponse);
+        }
+      } else {
+        try (Writer writer = new OutputStreamWriter(cos, StandardCharsets.UTF_8)) {
+          JSON.writeTo(response, writer);
+        }
       }
       byteCount = cos.getCount();
       if (peer != null) {
@@ -38,6 +38,7 @@ import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import static brs.Constants.MIN_VERSION;
@@ -86,6 +87,7 @@ public final class Peers {
 
   static int connectTimeout;
   static int readTimeout;
+  static boolean keepAlive;
   static int blacklistingPeriod;
   static boolean getMorePeers;
 
@@ -180,6 +182,9 @@ public final class Peers {
     json.addProperty("version",      Burst.VERSION.toString());
     json.addProperty("platform",     Peers.myPlatform);
     json.addProperty("shareAddress", Peers.shareMyAddress);
+    if (propertyService.getBoolean(Props.P2P_BINARY_BLOCKS)) {
+      json.addProperty(BinaryBlockCodec.BINARY_BLOCKS_CAPABILITY, true);
+    }
     if (logger.isDebugEnabled()) {
       logger.debug("My peer info: {}", JSON.toJsonString(json));
     }
@@ -222,6 +227,8 @@ public final class Peers {
     maxNumberOfConnectedPublicPeers = propertyService.getInt(Props.P2P_MAX_CONNECTIONS);
     connectTimeout = propertyService.getInt(Props.P2P_TIMEOUT_CONNECT_MS);
     readTimeout = propertyService.getInt(Props.P2P_TIMEOUT_READ_MS);
+    // the keep-alive pool of HttpURLConnection itself is sized in Burst.loadWallet, before any connection is opened
+    keepAlive = propertyService.getBoolean(Props.P2P_KEEP_ALIVE);
 
     blacklistingPeriod = propertyService.getInt(Props.P2P_BLACKLISTING_TIME_MS);
     communicationLoggingMask = propertyService.getInt(Props.BRS_COMMUNICATION_LOGGING_MASK);
@@ -634,6 +641,7 @@ public final class Peers {
     }
 
     threadPool.shutdownExecutor(sendBlocksToPeersService);
+    threadPool.shutdownExecutor(blocksReceivingService);
   }
 
   public static boolean removeListener(Listener<Peer> listener, Event eventType) {
@@ -803,6 +811,12 @@ public final class Peers {
     return CompletableFuture.supplyAsync(() -> peer.send(getUnconfirmedTransactionsRequest), utReceivingService);
   }
 
+  private static final ExecutorService blocksReceivingService = Executors.newCachedThreadPool();
+
+  public static <T> CompletableFuture<T> downloadNonBlocking(Supplier<T> download) {
+    return CompletableFuture.supplyAsync(download, blocksReceivingService);
+  }
+
   private static final ExecutorService utSendingService = Executors.newCachedThreadPool();
 
   private static final List<Peer> processingQueue = new ArrayList<>();
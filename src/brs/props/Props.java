@@ -53,6 +53,8 @@ public class Props {
 
   // CPU options
   public static final Prop<Integer> CPU_NUM_CORES = new Prop<>("CPU.NumCores", -1);
+  public static final Prop<Boolean> CPU_PARALLEL_VERIFY    = new Prop<>("CPU.ParallelVerify", true);
+  public static final Prop<Integer> CPU_VERIFY_BATCH_SIZE  = new Prop<>("CPU.VerifyBatchSize", 64);
 
 
   // DB options
@@ -61,6 +63,14 @@ public class Props {
   public static final Prop<String> DB_PASSWORD     = new Prop<>("DB.Password", "");
   public static final Prop<Integer> DB_CONNECTIONS  = new Prop<>("DB.Connections", 30);
   public static final Prop<Integer> DB_LOCK_TIMEOUT = new Prop<>("DB.LockTimeout", 60);
+  public static final Prop<Boolean> DB_PREPARED_STATEMENTS_IN_TRANSACTION = new Prop<>("DB.PreparedStatementsInTransaction", false);
+  public static final Prop<Integer> DB_H2_QUERY_CACHE_SIZE = new Prop<>("DB.H2.QueryCacheSize", 256);
+  public static final Prop<Integer> DB_ACCOUNT_CACHE_SIZE = new Prop<>("DB.AccountCacheSize", 65536);
+  public static final Prop<Boolean> DB_ACCOUNT_CACHE_PRELOAD = new Prop<>("DB.AccountCachePreload", true);
+  public static final Prop<Boolean> DB_ACCOUNTS_IN_MEMORY = new Prop<>("DB.AccountsInMemory", false);
+  public static final Prop<Boolean> DB_TRANSACTION_ID_FILTER = new Prop<>("DB.TransactionIdFilter", true);
+  public static final Prop<Boolean> DB_PARTITION_BY_HEIGHT = new Prop<>("DB.PartitionByHeight", false);
+  public static final Prop<Integer> DB_PARTITION_SIZE = new Prop<>("DB.PartitionSize", 100000);
 
   public static final Prop<Boolean> DB_TRIM_DERIVED_TABLES = new Prop<>("DB.trimDerivedTables", true);
   public static final Prop<Integer> DB_MAX_ROLLBACK        = new Prop<>("DB.maxRollback", 1440);
@@ -88,6 +98,8 @@ public class Props {
   public static final Prop<Integer> P2P_MAX_CONNECTIONS = new Prop<>("P2P.MaxConnections", 20);
   public static final Prop<Integer> P2P_TIMEOUT_CONNECT_MS = new Prop<>("P2P.TimeoutConnect_ms", 4000);
   public static final Prop<Integer> P2P_TIMEOUT_READ_MS = new Prop<>("P2P.TimeoutRead_ms", 8000);
+  public static final Prop<Boolean> P2P_KEEP_ALIVE = new Prop<>("P2P.keepAlive", true);
+  public static final Prop<Integer> P2P_MAX_CONNECTIONS_PER_PEER = new Prop<>("P2P.maxConnectionsPerPeer", 5);
   public static final Prop<Integer> P2P_BLACKLISTING_TIME_MS = new Prop<>("P2P.BlacklistingTime_ms", 600000);
 
   public static final Prop<Integer> P2P_TIMEOUT_IDLE_MS = new Prop<>("P2P.TimeoutIdle_ms", 30000);
@@ -104,6 +116,10 @@ public class Props {
 
   public static final Prop<Integer> P2P_MAX_UNCONFIRMED_TRANSACTIONS_RAW_SIZE_BYTES_TO_SEND = new Prop<>("P2P.maxUTRawSizeBytesToSend", 175000);
 
+  public static final Prop<Boolean> P2P_BINARY_BLOCKS = new Prop<>("P2P.binaryBlocks", true);
+  public static final Prop<Integer> P2P_PARALLEL_DOWNLOAD_PEERS = new Prop<>("P2P.parallelDownloadPeers", 4);
+  public static final Prop<Integer> P2P_PARALLEL_DOWNLOAD_BLOCKS = new Prop<>("P2P.parallelDownloadBlocks", 100);
+
   // API options
   public static final Prop<Boolean> API_DEBUG   = new Prop<>("API.Debug", false);
   public static final Prop<Boolean> API_SSL     = new Prop<>("API.SSL", false);
@@ -124,6 +140,10 @@ public class Props {
   public static final Prop<Integer> API_SERVER_IDLE_TIMEOUT = new Prop<>("API.ServerIdleTimeout", 30000);
   public static final Prop<Boolean> API_SERVER_ENFORCE_POST = new Prop<>("API.ServerEnforcePOST", true);
   public static final Prop<String> API_ALLOWED_ORIGINS = new Prop<>("API.AllowedOrigins", "*");
+  public static final Prop<Boolean> API_MINING_INFO_PUSH = new Prop<>("API.MiningInfoPush", true);
+  public static final Prop<Integer> API_MINING_INFO_PUSH_TIMEOUT = new Prop<>("API.MiningInfoPush.Timeout", 25000);
+  public static final Prop<Integer> API_MINING_INFO_PUSH_MAX_SUBSCRIPTIONS = new Prop<>("API.MiningInfoPush.MaxSubscriptions", 2000);
+  public static final Prop<Integer> API_MINING_INFO_PUSH_MAX_SUBSCRIPTIONS_PER_HOST = new Prop<>("API.MiningInfoPush.MaxSubscriptionsPerHost", 20);
 
   public static final Prop<Boolean> JETTY_API_GZIP_FILTER = new Prop<>("JETTY.API.GzipFilter", true);
   public static final Prop<String> JETTY_API_GZIP_FILTER_METHODS = new Prop<>("JETTY.API.GZIPFilter.methods", "GET, POST");
@@ -168,9 +188,14 @@ public class Props {
   public static final Prop<Boolean> AUTO_POP_OFF_ENABLED = new Prop<>("AutoPopOff.Enable", true);
 
   public static final Prop<Boolean> ENABLE_AT_DEBUG_LOG = new Prop<>("ATDebugLog.Enable", false);
+  public static final Prop<Boolean> ENABLE_AT_PRE_DECODE = new Prop<>("ATPreDecode.Enable", false);
+  public static final Prop<Boolean> ENABLE_AT_PARALLEL_VALIDATION = new Prop<>("ATParallelValidation.Enable", false);
+  public static final Prop<String> AT_STATE_CODEC = new Prop<>("ATStateCodec", "gzip");
 
   public static final Prop<String> SOLO_MINING_PASSPHRASES = new Prop<>("SoloMiningPassphrases", "");
   public static final Prop<Boolean> ALLOW_OTHER_SOLO_MINERS = new Prop<>("AllowOtherSoloMiners", true);
+  public static final Prop<Integer> BLOCK_TEMPLATE_LEAD_TIME = new Prop<>("BlockTemplateLeadTime", 5);
+  public static final Prop<Integer> BLOCK_TEMPLATE_REBUILD_INTERVAL = new Prop<>("BlockTemplateRebuildInterval", 2000);
 
   private Props() { //no need to construct
   }
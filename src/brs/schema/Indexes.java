@@ -119,6 +119,7 @@ public class Indexes {
     public static final Index TRANSACTION_TRANSACTION_FULL_HASH_IDX = Indexes0.TRANSACTION_TRANSACTION_FULL_HASH_IDX;
     public static final Index TRANSACTION_TRANSACTION_ID_IDX = Indexes0.TRANSACTION_TRANSACTION_ID_IDX;
     public static final Index TRANSACTION_TRANSACTION_RECIPIENT_ID_AMOUNT_HEIGHT_IDX = Indexes0.TRANSACTION_TRANSACTION_RECIPIENT_ID_AMOUNT_HEIGHT_IDX;
+    public static final Index TRANSACTION_TRANSACTION_RECIPIENT_ID_HEIGHT_IDX = Indexes0.TRANSACTION_TRANSACTION_RECIPIENT_ID_HEIGHT_IDX;
     public static final Index TRANSACTION_TRANSACTION_RECIPIENT_ID_IDX = Indexes0.TRANSACTION_TRANSACTION_RECIPIENT_ID_IDX;
     public static final Index TRANSACTION_TRANSACTION_SENDER_ID_IDX = Indexes0.TRANSACTION_TRANSACTION_SENDER_ID_IDX;
     public static final Index UNCONFIRMED_TRANSACTION_PRIMARY = Indexes0.UNCONFIRMED_TRANSACTION_PRIMARY;
@@ -220,6 +221,7 @@ public class Indexes {
         public static Index TRANSACTION_TRANSACTION_FULL_HASH_IDX = Internal.createIndex("transaction_full_hash_idx", Transaction.TRANSACTION, new OrderField[] { Transaction.TRANSACTION.FULL_HASH }, true);
         public static Index TRANSACTION_TRANSACTION_ID_IDX = Internal.createIndex("transaction_id_idx", Transaction.TRANSACTION, new OrderField[] { Transaction.TRANSACTION.ID }, true);
         public static Index TRANSACTION_TRANSACTION_RECIPIENT_ID_AMOUNT_HEIGHT_IDX = Internal.createIndex("transaction_recipient_id_amount_height_idx", Transaction.TRANSACTION, new OrderField[] { Transaction.TRANSACTION.RECIPIENT_ID, Transaction.TRANSACTION.AMOUNT, Transaction.TRANSACTION.HEIGHT }, false);
+        public static Index TRANSACTION_TRANSACTION_RECIPIENT_ID_HEIGHT_IDX = Internal.createIndex("transaction_recipient_id_height_idx", Transaction.TRANSACTION, new OrderField[] { Transaction.TRANSACTION.RECIPIENT_ID, Transaction.TRANSACTION.HEIGHT, Transaction.TRANSACTION.ID }, false);
         public static Index TRANSACTION_TRANSACTION_RECIPIENT_ID_IDX = Internal.createIndex("transaction_recipient_id_idx", Transaction.TRANSACTION, new OrderField[] { Transaction.TRANSACTION.RECIPIENT_ID }, false);
         public static Index TRANSACTION_TRANSACTION_SENDER_ID_IDX = Internal.createIndex("transaction_sender_id_idx", Transaction.TRANSACTION, new OrderField[] { Transaction.TRANSACTION.SENDER_ID }, false);
         public static Index UNCONFIRMED_TRANSACTION_PRIMARY = Internal.createIndex("PRIMARY", UnconfirmedTransaction.UNCONFIRMED_TRANSACTION, new OrderField[] { UnconfirmedTransaction.UNCONFIRMED_TRANSACTION.DB_ID }, true);
@@ -5,12 +5,17 @@ import brs.BlockchainProcessor;
 import brs.BlockchainProcessor.BlockNotAcceptedException;
 import brs.BlockchainProcessor.BlockOutOfOrderException;
 
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
 public interface BlockService {
 
   void preVerify(Block block) throws BlockchainProcessor.BlockNotAcceptedException, InterruptedException;
 
   void preVerify(Block block, byte[] scoopData) throws BlockchainProcessor.BlockNotAcceptedException, InterruptedException;
 
+  void preVerify(List<Block> blocks, ForkJoinPool pool) throws InterruptedException;
+
   long getBlockReward(Block block);
 
   void calculateBaseTarget(Block block, Block lastBlock) throws BlockOutOfOrderException;
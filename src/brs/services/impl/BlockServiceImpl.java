@@ -18,9 +18,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.math.BigInteger;
-import java.util.Arrays;
-import java.util.Collection;
-import java.util.Iterator;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 import static brs.http.common.ResultFields.ALIAS_NAME_RESPONSE;
 import static brs.http.common.ResultFields.ALIAS_URI_RESPONSE;
@@ -132,18 +132,65 @@ public class BlockServiceImpl implements BlockService {
       return;
     }
 
-    for (Transaction transaction : block.getTransactions()) {
-      if (!transaction.verifySignature()) {
-        if (logger.isInfoEnabled()) {
-          logger.info("Bad transaction signature during block pre-verification for tx: {} at block height: {}", Convert.toUnsignedLong(transaction.getId()), block.getHeight());
-        }
-        throw new BlockchainProcessor.TransactionNotAcceptedException("Invalid signature for tx: " + Convert.toUnsignedLong(transaction.getId()) + " at block height: " + block.getHeight(),
-            transaction);
+    if (Thread.currentThread().isInterrupted() || ! ThreadPool.running.get() )
+      throw new InterruptedException();
+
+    int failedIndex = Transaction.verifySignatures(block.getTransactions()).nextSetBit(0);
+    if (failedIndex >= 0) {
+      Transaction transaction = block.getTransactions().get(failedIndex);
+      if (logger.isInfoEnabled()) {
+        logger.info("Bad transaction signature during block pre-verification for tx: {} at block height: {}", Convert.toUnsignedLong(transaction.getId()), block.getHeight());
       }
-      if (Thread.currentThread().isInterrupted() || ! ThreadPool.running.get() )
-        throw new InterruptedException();
+      throw new BlockchainProcessor.TransactionNotAcceptedException("Invalid signature for tx: " + Convert.toUnsignedLong(transaction.getId()) + " at block height: " + block.getHeight(),
+          transaction);
+    }
+
+  }
+
+  @Override
+  public void preVerify(List<Block> blocks, ForkJoinPool pool) throws InterruptedException {
+    // Fan out first, so the hit of every block is calculated on its own and the transaction signatures
+    // of the whole batch are checked as one signature batch, then collect the results in chain order.
+    List<ForkJoinTask<BigInteger>> hitTasks = new ArrayList<>(blocks.size());
+    List<Transaction> transactions = new ArrayList<>();
+    int[] firstTransactionIndex = new int[blocks.size()];
+    for (int i = 0; i < blocks.size(); i++) {
+      Block block = blocks.get(i);
+      firstTransactionIndex[i] = transactions.size();
+      if (block.isVerified()) {
+        hitTasks.add(null);
+        continue;
+      }
+      hitTasks.add(pool.submit(() -> generator.calculateHit(block.getGeneratorId(), block.getNonce(), block.getGenerationSignature(), getScoopNum(block), block.getHeight())));
+      transactions.addAll(block.getTransactions());
     }
+    // Run from a task of the pool, the chunks of the batch are spread over the same pool
+    ForkJoinTask<BitSet> signatureTask = pool.submit(() -> Transaction.verifySignatures(transactions));
 
+    for (int i = 0; i < blocks.size(); i++) {
+      if (Thread.currentThread().isInterrupted() || ! ThreadPool.running.get()) {
+        throw new InterruptedException();
+      }
+      Block block = blocks.get(i);
+      ForkJoinTask<BigInteger> hitTask = hitTasks.get(i);
+      if (hitTask == null) {
+        continue;
+      }
+      try {
+        int first = firstTransactionIndex[i];
+        int failedIndex = signatureTask.join().nextSetBit(first);
+        boolean signaturesValid = failedIndex < 0 || failedIndex >= first + block.getTransactions().size();
+        if (!signaturesValid && logger.isInfoEnabled()) {
+          logger.info("Bad transaction signature during block pre-verification for tx: {} at block height: {}", Convert.toUnsignedLong(transactions.get(failedIndex).getId()), block.getHeight());
+        }
+        // A block with a bad signature stays unverified, so the importer runs it through preVerify again and rejects it
+        if (signaturesValid) {
+          block.setPocTime(hitTask.join());
+        }
+      } catch (RuntimeException e) {
+        logger.info("Error pre-verifying block generation signature", e);
+      }
+    }
   }
 
   @Override
@@ -0,0 +1,116 @@
+package brs.statistics;
+
+import com.google.gson.JsonObject;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Queue depth and per stage latency of the unconfirmed transaction ingestion pipeline.
+ * All counters are lock free, the pipeline stages record into them from any thread.
+ */
+public class TransactionIngestionStatistics {
+
+  public enum Stage {
+    /** Waiting for a peer's response and parsing it, done without any lock */
+    FETCH,
+    /** Stateless validation and batch signature verification, done without any lock */
+    VERIFY,
+    /** Adding the verified transactions to the store, the only stage holding the unconfirmed transactions lock */
+    COMMIT
+  }
+
+  private final AtomicInteger queuedBatches = new AtomicInteger();
+  private final AtomicInteger queuedTransactions = new AtomicInteger();
+  private final AtomicInteger maxQueuedBatches = new AtomicInteger();
+
+  private final Map<Stage, StageStatistics> stages = new EnumMap<>(Stage.class);
+
+  public TransactionIngestionStatistics() {
+    for (Stage stage : Stage.values()) {
+      stages.put(stage, new StageStatistics());
+    }
+  }
+
+  public void batchQueued(int transactions) {
+    int depth = queuedBatches.incrementAndGet();
+    queuedTransactions.addAndGet(transactions);
+    maxQueuedBatches.accumulateAndGet(depth, Math::max);
+  }
+
+  public void batchDone(int transactions) {
+    queuedBatches.decrementAndGet();
+    queuedTransactions.addAndGet(-transactions);
+  }
+
+  public void record(Stage stage, long startNanos, int transactions) {
+    stages.get(stage).record(System.nanoTime() - startNanos, transactions);
+  }
+
+  public int getQueuedBatches() {
+    return queuedBatches.get();
+  }
+
+  public int getQueuedTransactions() {
+    return queuedTransactions.get();
+  }
+
+  public JsonObject toJson() {
+    JsonObject json = new JsonObject();
+    json.addProperty("queuedBatches", queuedBatches.get());
+    json.addProperty("queuedTransactions", queuedTransactions.get());
+    json.addProperty("maxQueuedBatches", maxQueuedBatches.get());
+    for (Map.Entry<Stage, StageStatistics> stage : stages.entrySet()) {
+      json.add(stage.getKey().name().toLowerCase(), stage.getValue().toJson());
+    }
+    return json;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder result = new StringBuilder("queued ").append(queuedBatches.get()).append(" batches/")
+        .append(queuedTransactions.get()).append(" transactions");
+    for (Map.Entry<Stage, StageStatistics> stage : stages.entrySet()) {
+      StageStatistics statistics = stage.getValue();
+      result.append(String.format(", %s avg/max %.2f/%.2f ms", stage.getKey().name().toLowerCase(),
+          statistics.getAverageMillis(), statistics.getMaxMillis()));
+    }
+    return result.toString();
+  }
+
+  private static class StageStatistics {
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder transactions = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    private void record(long nanos, int transactionCount) {
+      batches.increment();
+      transactions.add(transactionCount);
+      totalNanos.add(nanos);
+      maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    private double getAverageMillis() {
+      long count = batches.sum();
+      return count == 0 ? 0 : totalNanos.sum() / (double) count / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    private double getMaxMillis() {
+      return maxNanos.get() / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    private JsonObject toJson() {
+      JsonObject json = new JsonObject();
+      json.addProperty("batches", batches.sum());
+      json.addProperty("transactions", transactions.sum());
+      json.addProperty("averageMillis", getAverageMillis());
+      json.addProperty("maxMillis", getMaxMillis());
+      return json;
+    }
+  }
+}
@@ -10,6 +10,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 
@@ -72,6 +73,19 @@ class ReservedBalanceCache {
   public List<Transaction> rebuild(List<Transaction> transactions) {
     clear();
 
+    return reserveAll(transactions);
+  }
+
+  /**
+   * Rebuilds the reserved balances of the given accounts only, the transactions have to be exactly theirs
+   */
+  public List<Transaction> rebuild(Collection<Long> accountIds, List<Transaction> transactions) {
+    accountIds.forEach(reservedBalanceCache::remove);
+
+    return reserveAll(transactions);
+  }
+
+  private List<Transaction> reserveAll(List<Transaction> transactions) {
     final List<Transaction> insufficientFundsTransactions = new ArrayList<>();
 
     for(Transaction t : transactions) {
@@ -5,6 +5,7 @@ import brs.Transaction;
 import brs.peer.Peer;
 
 import java.util.List;
+import java.util.Set;
 
 public interface UnconfirmedTransactionStore {
 
@@ -28,9 +29,19 @@ public interface UnconfirmedTransactionStore {
    */
   void resetAccountBalances();
 
+  /**
+   * Like {@link #resetAccountBalances()}, but only for the transactions sent by the given accounts
+   */
+  void resetAccountBalances(Set<Long> accountIds);
+
   void markFingerPrintsOf(Peer peer, List<Transaction> transactions);
 
   void removeForgedTransactions(List<Transaction> transactions);
 
   int getAmount();
+
+  /**
+   * @return a number that changes whenever transactions are added to or removed from the store
+   */
+  long getVersion();
 }
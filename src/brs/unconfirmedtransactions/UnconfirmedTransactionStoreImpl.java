@@ -19,6 +19,9 @@ import java.util.*;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 public class UnconfirmedTransactionStoreImpl implements UnconfirmedTransactionStore {
@@ -32,8 +35,14 @@ public class UnconfirmedTransactionStoreImpl implements UnconfirmedTransactionSt
   private final HashMap<Transaction, HashSet<Peer>> fingerPrintsOverview = new HashMap<>();
 
   private final SortedMap<Long, List<Transaction>> internalStore;
+  private final Map<Long, Transaction> transactionsById = new HashMap<>();
 
-  private int totalSize;
+  // Readers (API, peer feeding, block generation) share the read lock, only changes to the store are exclusive.
+  private final ReadWriteLock storeLock = new ReentrantReadWriteLock();
+  private volatile List<Transaction> allTransactions;
+
+  private volatile int totalSize;
+  private volatile long version;
   private final int maxSize;
 
   private final int maxRawUTBytesToSend;
@@ -58,20 +67,19 @@ public class UnconfirmedTransactionStoreImpl implements UnconfirmedTransactionSt
 
       ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
     Runnable cleanupExpiredTransactions = () -> {
-      synchronized (internalStore) {
-        final List<Transaction> expiredTransactions = getAll()
-                .stream()
-                .filter(t -> timeService.getEpochTime() > t.getExpiration() || transactionDb.hasTransaction(t.getId()))
-                .collect(Collectors.toList());
-        expiredTransactions.forEach(this::removeTransaction);
-      }
+      final List<Transaction> expiredTransactions = getAll()
+              .stream()
+              .filter(t -> timeService.getEpochTime() > t.getExpiration() || transactionDb.hasTransaction(t.getId()))
+              .collect(Collectors.toList());
+      writeLocked(() -> expiredTransactions.forEach(this::removeById));
     };
     scheduler.scheduleWithFixedDelay(cleanupExpiredTransactions, 1, 1, TimeUnit.MINUTES);
   }
 
   @Override
   public boolean put(Transaction transaction, Peer peer) throws ValidationException {
-    synchronized (internalStore) {
+    storeLock.writeLock().lock();
+    try {
       if (transactionIsCurrentlyInCache(transaction)) {
         if (peer != null) {
           logger.info("Transaction {}: Added fingerprint of {}", transaction.getId(), peer.getPeerAddress());
@@ -97,6 +105,7 @@ public class UnconfirmedTransactionStoreImpl implements UnconfirmedTransactionSt
             }
           } else {
             logger.info("Transaction {}: Will not add a cheaper duplicate UT", transaction.getId());
+            this.reservedBalanceCache.refundBalance(transaction);
           }
         } else {
           addTransaction(transaction, peer);
@@ -115,46 +124,43 @@ public class UnconfirmedTransactionStoreImpl implements UnconfirmedTransactionSt
       }
 
       return false;
+    } finally {
+      storeLock.writeLock().unlock();
     }
   }
 
   @Override
   public Transaction get(Long transactionId) {
-    synchronized (internalStore) {
-      for (List<Transaction> amountSlot : internalStore.values()) {
-        for (Transaction t : amountSlot) {
-          if (t.getId() == transactionId) {
-            return t;
-          }
-        }
-      }
-      return null;
-    }
+    return readLocked(() -> transactionsById.get(transactionId));
   }
 
   @Override
   public boolean exists(Long transactionId) {
-    synchronized (internalStore) {
-      return get(transactionId) != null;
-    }
+    return readLocked(() -> transactionsById.containsKey(transactionId));
   }
 
   @Override
   public List<Transaction> getAll() {
-    synchronized (internalStore) {
-      final ArrayList<Transaction> flatTransactionList = new ArrayList<>();
+    List<Transaction> result = allTransactions;
+    if (result == null) {
+      result = readLocked(() -> {
+        final ArrayList<Transaction> flatTransactionList = new ArrayList<>(totalSize);
 
-      for (List<Transaction> amountSlot : internalStore.values()) {
-        flatTransactionList.addAll(amountSlot);
-      }
+        for (List<Transaction> amountSlot : internalStore.values()) {
+          flatTransactionList.addAll(amountSlot);
+        }
 
-      return flatTransactionList;
+        // no writer can hold the lock while we do, so this snapshot is still current
+        allTransactions = Collections.unmodifiableList(flatTransactionList);
+        return allTransactions;
+      });
     }
+    return result;
   }
 
   @Override
   public List<Transaction> getAllFor(Peer peer) {
-    synchronized (internalStore) {
+    return readLocked(() -> {
       final List<Transaction> untouchedTransactions = fingerPrintsOverview.entrySet().stream()
           .filter(e -> !e.getValue().contains(peer))
           .map(Map.Entry::getKey).collect(Collectors.toList());
@@ -174,59 +180,68 @@ public class UnconfirmedTransactionStoreImpl implements UnconfirmedTransactionSt
       }
 
       return resultList;
-    }
+    });
   }
 
   @Override
   public void remove(Transaction transaction) {
-    synchronized (internalStore) {
-      // Make sure that we are acting on our own copy of the transaction, as this is the one we want to remove.
-      Transaction internalTransaction = get(transaction.getId());
-      if (internalTransaction != null) {
-        logger.debug("Removing {}", transaction.getId());
-        removeTransaction(internalTransaction);
-      }
-    }
+    writeLocked(() -> removeById(transaction));
   }
 
   @Override
   public void clear() {
-    synchronized (internalStore) {
+    writeLocked(() -> {
       logger.info("Clearing UTStore");
       totalSize = 0;
       internalStore.clear();
+      transactionsById.clear();
+      fingerPrintsOverview.clear();
+      allTransactions = null;
+      version++;
       reservedBalanceCache.clear();
       transactionDuplicatesChecker.clear();
-    }
+    });
   }
 
   @Override
   public void resetAccountBalances() {
-    synchronized (internalStore) {
+    writeLocked(() -> {
       for(Transaction insufficientFundsTransactions: reservedBalanceCache.rebuild(getAll())) {
         this.removeTransaction(insufficientFundsTransactions);
       }
-    }
+    });
+  }
+
+  @Override
+  public void resetAccountBalances(Set<Long> accountIds) {
+    writeLocked(() -> {
+      final List<Transaction> transactionsOfAccounts = getAll().stream()
+          .filter(t -> accountIds.contains(t.getSenderId()))
+          .collect(Collectors.toList());
+      for(Transaction insufficientFundsTransactions: reservedBalanceCache.rebuild(accountIds, transactionsOfAccounts)) {
+        this.removeTransaction(insufficientFundsTransactions);
+      }
+    });
   }
 
   @Override
   public void markFingerPrintsOf(Peer peer, List<Transaction> transactions) {
-    synchronized (internalStore) {
+    writeLocked(() -> {
       for (Transaction transaction : transactions) {
         if (fingerPrintsOverview.containsKey(transaction)) {
           fingerPrintsOverview.get(transaction).add(peer);
         }
       }
-    }
+    });
   }
 
   @Override
   public void removeForgedTransactions(List<Transaction> transactions) {
-    synchronized (internalStore) {
+    writeLocked(() -> {
       for (Transaction t : transactions) {
-        remove(t);
+        removeById(t);
       }
-    }
+    });
   }
 
   @Override
@@ -234,9 +249,41 @@ public class UnconfirmedTransactionStoreImpl implements UnconfirmedTransactionSt
     return totalSize;
   }
 
+  @Override
+  public long getVersion() {
+    return version;
+  }
+
+  private <T> T readLocked(Supplier<T> reader) {
+    storeLock.readLock().lock();
+    try {
+      return reader.get();
+    } finally {
+      storeLock.readLock().unlock();
+    }
+  }
+
+  private void writeLocked(Runnable writer) {
+    storeLock.writeLock().lock();
+    try {
+      writer.run();
+    } finally {
+      storeLock.writeLock().unlock();
+    }
+  }
+
+  private void removeById(Transaction transaction) {
+    // Make sure that we are acting on our own copy of the transaction, as this is the one we want to remove.
+    Transaction internalTransaction = transactionsById.get(transaction.getId());
+    if (internalTransaction != null) {
+      logger.debug("Removing {}", transaction.getId());
+      reservedBalanceCache.refundBalance(internalTransaction);
+      removeTransaction(internalTransaction);
+    }
+  }
+
   private boolean transactionIsCurrentlyInCache(Transaction transaction) {
-    final List<Transaction> amountSlot = internalStore.get(amountSlotForTransaction(transaction));
-    return amountSlot != null && amountSlot.stream().anyMatch(t -> t.getId() == transaction.getId());
+    return transactionsById.containsKey(transaction.getId());
   }
 
   private boolean transactionCanBeAddedToCache(Transaction transaction) {
@@ -287,6 +334,9 @@ public class UnconfirmedTransactionStoreImpl implements UnconfirmedTransactionSt
   private void addTransaction(Transaction transaction, Peer peer) {
     final List<Transaction> slot = getOrCreateAmountSlotForTransaction(transaction);
     slot.add(transaction);
+    transactionsById.put(transaction.getId(), transaction);
+    allTransactions = null;
+    version++;
     totalSize++;
 
     fingerPrintsOverview.put(transaction, new HashSet<>());
@@ -342,6 +392,9 @@ public class UnconfirmedTransactionStoreImpl implements UnconfirmedTransactionSt
 
     fingerPrintsOverview.remove(transaction);
     amountSlot.remove(transaction);
+    transactionsById.remove(transaction.getId());
+    allTransactions = null;
+    version++;
     totalSize--;
     transactionDuplicatesChecker.removeTransaction(transaction);
 
@@ -211,6 +211,22 @@ public final class DownloadCacheImpl {
     }
   }
 
+  public List<Block> pollUnverifiedBlocks(int maxSize) {
+    long stamp = dcsl.writeLock();
+    try {
+      List<Block> blocks = new ArrayList<>(Math.min(maxSize, unverified.size()));
+      while (!unverified.isEmpty() && blocks.size() < maxSize) {
+        Block block = blockCache.get(unverified.remove(0));
+        if (block != null) {
+          blocks.add(block);
+        }
+      }
+      return blocks;
+    } finally {
+      dcsl.unlockWrite(stamp);
+    }
+  }
+
   public void removeUnverified(long blockId) {
     long stamp = dcsl.writeLock();
     try {
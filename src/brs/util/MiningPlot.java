@@ -9,13 +9,13 @@ import java.security.MessageDigest;
 import java.util.Arrays;
 
 public class MiningPlot {
-  private static final int HASH_SIZE = 32;
+  static final int HASH_SIZE = 32;
   private static final int HASHES_PER_SCOOP = 2;
   public static final int SCOOP_SIZE = HASHES_PER_SCOOP * HASH_SIZE;
   public static final int SCOOPS_PER_PLOT = 4096; // original 1MB/plot = 16384
   public static final int PLOT_SIZE = SCOOPS_PER_PLOT * SCOOP_SIZE;
 
-  private static final int HASH_CAP = 4096;
+  static final int HASH_CAP = 4096;
 
   private final byte[] data = new byte[PLOT_SIZE];
 
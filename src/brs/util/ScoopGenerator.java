@@ -0,0 +1,63 @@
+package brs.util;
+
+import brs.crypto.Crypto;
+
+import java.security.DigestException;
+import java.security.MessageDigest;
+
+import static brs.util.MiningPlot.*;
+
+/**
+ * Generates a single scoop of a nonce into a caller supplied buffer.
+ * Unlike {@link MiningPlot} the plot buffers are allocated once per thread and reused,
+ * and only the bytes of the requested scoop (and its PoC2 mirror) are unmasked.
+ * The hash chain itself still has to be computed in full, as every hash depends on the ones following it.
+ */
+public final class ScoopGenerator {
+  private static final int BASE_SIZE = 16;
+
+  private static final ThreadLocal<ScoopGenerator> generators = ThreadLocal.withInitial(ScoopGenerator::new);
+
+  private final MessageDigest shabal256 = Crypto.shabal256();
+  private final byte[] gendata = new byte[PLOT_SIZE + BASE_SIZE];
+  private final byte[] finalHash = new byte[HASH_SIZE];
+
+  private ScoopGenerator() {
+  }
+
+  /**
+   * @param out buffer of at least {@link MiningPlot#SCOOP_SIZE} bytes the scoop is written to
+   */
+  public static void generateScoop(long addr, long nonce, int scoop, boolean poc2, byte[] out) {
+    generators.get().generate(addr, nonce, scoop, poc2, out);
+  }
+
+  private void generate(long addr, long nonce, int scoop, boolean poc2, byte[] out) {
+    if (scoop < 0 || scoop >= SCOOPS_PER_PLOT) {
+      throw new IllegalArgumentException("Invalid scoop " + scoop);
+    }
+    for (int i = 0; i < 8; i++) {
+      gendata[PLOT_SIZE + i] = (byte) (addr >>> (56 - 8 * i));
+      gendata[PLOT_SIZE + 8 + i] = (byte) (nonce >>> (56 - 8 * i));
+    }
+    try {
+      for (int i = PLOT_SIZE; i > 0; i -= HASH_SIZE) {
+        int len = Math.min(PLOT_SIZE + BASE_SIZE - i, HASH_CAP);
+        shabal256.update(gendata, i, len);
+        shabal256.digest(gendata, i - HASH_SIZE, HASH_SIZE);
+      }
+      shabal256.update(gendata);
+      shabal256.digest(finalHash, 0, HASH_SIZE);
+    } catch (DigestException e) {
+      throw new IllegalStateException(e);
+    }
+
+    int firstHashOffset = scoop * SCOOP_SIZE;
+    // PoC2 moves the second hash of each scoop to the scoop mirrored around the middle of the plot
+    int secondHashOffset = (poc2 ? SCOOPS_PER_PLOT - 1 - scoop : scoop) * SCOOP_SIZE + HASH_SIZE;
+    for (int i = 0; i < HASH_SIZE; i++) {
+      out[i] = (byte) (gendata[firstHashOffset + i] ^ finalHash[i]);
+      out[HASH_SIZE + i] = (byte) (gendata[secondHashOffset + i] ^ finalHash[i]);
+    }
+  }
+}
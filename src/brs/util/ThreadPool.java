@@ -27,6 +27,7 @@ public final class ThreadPool {
   private final List<Runnable> beforeStartJobs = new ArrayList<>();
   private final List<Runnable> lastBeforeStartJobs = new ArrayList<>();
   private final List<Runnable> afterStartJobs = new ArrayList<>();
+  private final List<ExecutorService> executors = new ArrayList<>();
 
   private final PropertyService propertyService;
 
@@ -49,6 +50,13 @@ public final class ThreadPool {
     afterStartJobs.add(runnable);
   }
 
+  /**
+   * Executors created by background jobs for their own work, shut down after the background jobs stopped.
+   */
+  public synchronized void registerExecutor(ExecutorService executor) {
+    executors.add(executor);
+  }
+
   public void scheduleThread(String name, Runnable runnable, int delay) {
     scheduleThread(name, runnable, delay, TimeUnit.SECONDS);
   }
@@ -135,6 +143,10 @@ public final class ThreadPool {
       scheduledThreadPool = null;
       logger.info("...Done");
     }
+    for (ExecutorService executor : executors) {
+      shutdownExecutor(executor);
+    }
+    executors.clear();
   }
 
   public void shutdownExecutor(ExecutorService executor) {
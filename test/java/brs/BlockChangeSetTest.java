@@ -0,0 +1,87 @@
+package brs;
+
+import brs.Attachment.ColoredCoinsAskOrderCancellation;
+import brs.Attachment.ColoredCoinsAssetTransfer;
+import brs.Attachment.MessagingAliasBuy;
+import brs.Attachment.MessagingAliasSell;
+import brs.common.QuickMocker;
+import brs.fluxcapacitor.FluxCapacitor;
+import brs.fluxcapacitor.FluxValues;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.powermock.api.mockito.PowerMockito.mockStatic;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest(Burst.class)
+public class BlockChangeSetTest {
+
+    private BlockChangeSet changeSet;
+
+    @Before
+    public void setUp() {
+        mockStatic(Burst.class);
+        FluxCapacitor mockFluxCapacitor = QuickMocker.fluxCapacitorEnabledFunctionalities(FluxValues.PRE_DYMAXION);
+        when(Burst.getFluxCapacitor()).thenReturn(mockFluxCapacitor);
+
+        Block block = mock(Block.class);
+        when(block.getTransactions()).thenReturn(Arrays.asList(
+            mockTransaction(1L, 2L, new MessagingAliasSell("Alias", 100, 5)),
+            mockTransaction(3L, 0L, new ColoredCoinsAssetTransfer(77L, 10, 5))));
+        changeSet = BlockChangeSet.of(block);
+    }
+
+    private static Transaction mockTransaction(long senderId, long recipientId, Attachment attachment) {
+        Transaction transaction = mock(Transaction.class);
+        when(transaction.getSenderId()).thenReturn(senderId);
+        when(transaction.getRecipientId()).thenReturn(recipientId);
+        when(transaction.getAttachment()).thenReturn(attachment);
+        return transaction;
+    }
+
+    @Test
+    public void collectsSendersAndRecipients() {
+        assertEquals(3, changeSet.getAccountIds().size());
+        assertTrue(changeSet.getAccountIds().containsAll(Arrays.asList(1L, 2L, 3L)));
+    }
+
+    @Test
+    public void affectsTransactionsOfTouchedAccounts() {
+        assertTrue(changeSet.affects(mockTransaction(2L, 10L, Attachment.ORDINARY_PAYMENT)));
+        assertTrue(changeSet.affects(mockTransaction(10L, 3L, Attachment.ORDINARY_PAYMENT)));
+        assertFalse(changeSet.affects(mockTransaction(10L, 11L, Attachment.ORDINARY_PAYMENT)));
+    }
+
+    @Test
+    public void affectsTransactionsOfTouchedAliasesAndAssets() {
+        assertTrue(changeSet.affects(mockTransaction(10L, 0L, new MessagingAliasBuy("alias", 5))));
+        assertTrue(changeSet.affects(mockTransaction(10L, 11L, new ColoredCoinsAssetTransfer(77L, 1, 5))));
+        assertFalse(changeSet.affects(mockTransaction(10L, 11L, new ColoredCoinsAssetTransfer(78L, 1, 5))));
+    }
+
+    @Test
+    public void alwaysAffectsOrderCancellations() {
+        assertTrue(changeSet.affects(mockTransaction(10L, 0L, new ColoredCoinsAskOrderCancellation(5L, 5))));
+    }
+
+    @Test
+    public void affectsTransactionsOfAccountsWhoseBalanceChangedWithoutATransaction() {
+        Block block = mock(Block.class);
+        when(block.getTransactions()).thenReturn(Collections.singletonList(mockTransaction(1L, 0L, Attachment.ORDINARY_PAYMENT)));
+        BlockChangeSet withPayments = BlockChangeSet.of(block, Arrays.asList(20L, 21L));
+
+        assertEquals(new HashSet<>(Arrays.asList(1L, 20L, 21L)), withPayments.getAccountIds());
+        assertTrue(withPayments.affects(mockTransaction(20L, 11L, Attachment.ORDINARY_PAYMENT)));
+        assertFalse(withPayments.affects(mockTransaction(10L, 11L, Attachment.ORDINARY_PAYMENT)));
+    }
+}
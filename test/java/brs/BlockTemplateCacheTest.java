@@ -0,0 +1,101 @@
+package brs;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@RunWith(JUnit4.class)
+public class BlockTemplateCacheTest {
+
+    private static final int TIMESTAMP = 1000;
+    private static final long VERSION = 7;
+    private static final long INTERVAL = 2000;
+
+    private Block previousBlock;
+    private BlockTemplate template;
+
+    private BlockTemplateCache t;
+
+    @Before
+    public void setUp() {
+        previousBlock = block(1L);
+        template = new BlockTemplate(1L, TIMESTAMP, VERSION, Collections.emptyList(), 0, 0, 0, new byte[32], null);
+
+        t = new BlockTemplateCache(INTERVAL);
+    }
+
+    private static Block block(long id) {
+        Block block = mock(Block.class);
+        when(block.getId()).thenReturn(id);
+        return block;
+    }
+
+    @Test
+    public void aTemplateIsBuiltWhenThereIsNone() {
+        assertTrue(t.needsRebuild(previousBlock, TIMESTAMP, VERSION, 0));
+        assertNull(t.take(previousBlock, TIMESTAMP, VERSION));
+    }
+
+    @Test
+    public void aMatchingTemplateIsReused() {
+        t.set(template, 0);
+
+        assertFalse(t.needsRebuild(previousBlock, TIMESTAMP, VERSION, 10 * INTERVAL));
+        assertSame(template, t.take(previousBlock, TIMESTAMP, VERSION));
+        // it is only used for one block
+        assertNull(t.take(previousBlock, TIMESTAMP, VERSION));
+    }
+
+    @Test
+    public void aTemplateForAnotherPreviousBlockIsNotUsed() {
+        t.set(template, 0);
+
+        assertTrue(t.needsRebuild(block(2L), TIMESTAMP, VERSION, 0));
+        assertNull(t.take(block(2L), TIMESTAMP, VERSION));
+    }
+
+    @Test
+    public void aTemplateForAnotherTimestampIsNotUsed() {
+        t.set(template, 0);
+
+        assertTrue(t.needsRebuild(previousBlock, TIMESTAMP + 1, VERSION, 0));
+        assertNull(t.take(previousBlock, TIMESTAMP + 1, VERSION));
+    }
+
+    @Test
+    public void aTemplateForOtherUnconfirmedTransactionsIsNotUsed() {
+        t.set(template, 0);
+
+        assertNull(t.take(previousBlock, TIMESTAMP, VERSION + 1));
+    }
+
+    @Test
+    public void changedUnconfirmedTransactionsAreOnlyPickedUpOnceTheySettle() {
+        t.set(template, 0);
+
+        assertFalse(t.needsRebuild(previousBlock, TIMESTAMP, VERSION + 1, 500));
+        assertFalse(t.needsRebuild(previousBlock, TIMESTAMP, VERSION + 2, 1000));
+        // unchanged since the last check
+        assertTrue(t.needsRebuild(previousBlock, TIMESTAMP, VERSION + 2, 1500));
+    }
+
+    @Test
+    public void changingUnconfirmedTransactionsAreStillPickedUpAfterTheRebuildInterval() {
+        t.set(template, 0);
+
+        assertFalse(t.needsRebuild(previousBlock, TIMESTAMP, VERSION + 1, 500));
+        assertFalse(t.needsRebuild(previousBlock, TIMESTAMP, VERSION + 2, 1000));
+        assertFalse(t.needsRebuild(previousBlock, TIMESTAMP, VERSION + 3, 1500));
+        assertTrue(t.needsRebuild(previousBlock, TIMESTAMP, VERSION + 4, INTERVAL));
+    }
+}
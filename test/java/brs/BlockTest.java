@@ -0,0 +1,120 @@
+package brs;
+
+import brs.BurstException.NotValidException;
+import brs.BurstException.ValidationException;
+import brs.common.QuickMocker;
+import brs.common.TestConstants;
+import brs.fluxcapacitor.FluxCapacitor;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import static brs.Attachment.ORDINARY_PAYMENT;
+import static brs.Constants.FEE_QUANT;
+import static brs.Constants.ONE_BURST;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.powermock.api.mockito.PowerMockito.mockStatic;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest(Burst.class)
+public class BlockTest {
+
+    private static final int HEIGHT = 500000;
+    // version, timestamp, previous block id, amount, fee, payload length, payload hash, generator public key,
+    // generation signature, previous block hash and nonce of a version 3 block
+    private static final int BLOCK_ATS_LENGTH_OFFSET = 4 + 4 + 8 + 8 + 8 + 4 + 32 + 32 + 32 + 32 + 8;
+
+    @Before
+    public void setUp() {
+        mockStatic(Burst.class);
+        FluxCapacitor fluxCapacitor = QuickMocker.latestValueFluxCapacitor();
+        when(Burst.getFluxCapacitor()).thenReturn(fluxCapacitor);
+        BlockchainImpl mockBlockchain = mock(BlockchainImpl.class);
+        when(mockBlockchain.getHeight()).thenReturn(HEIGHT);
+        when(Burst.getBlockchain()).thenReturn(mockBlockchain);
+        TransactionType.init(mockBlockchain, fluxCapacitor, null, null, null, null, null, null);
+    }
+
+    private static byte[] filled(int length, int value) {
+        byte[] bytes = new byte[length];
+        Arrays.fill(bytes, (byte) value);
+        return bytes;
+    }
+
+    private static Block block(byte[] blockATs) throws ValidationException {
+        List<Transaction> transactions = new ArrayList<>();
+        long totalAmountNQT = 0;
+        long totalFeeNQT = 0;
+        int payloadLength = 0;
+        for (int i = 1; i <= 3; i++) {
+            Transaction transaction = new Transaction.Builder((byte) 1, TestConstants.TEST_PUBLIC_KEY_BYTES, ONE_BURST * i, FEE_QUANT * 100, 1000 + i, (short) 1440, ORDINARY_PAYMENT)
+                .recipientId(123L).build();
+            transaction.sign(TestConstants.TEST_SECRET_PHRASE);
+            transactions.add(transaction);
+            totalAmountNQT += transaction.getAmountNQT();
+            totalFeeNQT += transaction.getFeeNQT();
+            payloadLength += transaction.getSize();
+        }
+        transactions.sort(Comparator.comparingLong(Transaction::getId));
+        return new Block(3, 2000, 987654321L, totalAmountNQT, totalFeeNQT, payloadLength, filled(32, 1),
+            TestConstants.TEST_PUBLIC_KEY_BYTES, filled(32, 2), filled(64, 3), filled(32, 4), transactions, 42L, blockATs, HEIGHT);
+    }
+
+    private static void assertSameBlock(Block expected, Block actual) {
+        assertArrayEquals(expected.getBytes(), actual.getBytes());
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getTotalAmountNQT(), actual.getTotalAmountNQT());
+        assertEquals(expected.getTotalFeeNQT(), actual.getTotalFeeNQT());
+        assertArrayEquals(expected.getBlockATs(), actual.getBlockATs());
+        assertEquals(expected.getTransactions().size(), actual.getTransactions().size());
+        for (int i = 0; i < expected.getTransactions().size(); i++) {
+            Transaction expectedTransaction = expected.getTransactions().get(i);
+            Transaction actualTransaction = actual.getTransactions().get(i);
+            assertEquals(expectedTransaction.getId(), actualTransaction.getId());
+            assertArrayEquals(expectedTransaction.getBytes(), actualTransaction.getBytes());
+        }
+    }
+
+    @Test
+    public void binaryBytesRoundTrip() throws ValidationException {
+        Block block = block(filled(50, 5));
+
+        assertSameBlock(block, Block.parseBinaryBytes(block.getBinaryBytes(), HEIGHT));
+    }
+
+    @Test
+    public void binaryBytesKeepMissingAndEmptyBlockATsApart() throws ValidationException {
+        Block withoutATs = Block.parseBinaryBytes(block(null).getBinaryBytes(), HEIGHT);
+        Block withEmptyATs = Block.parseBinaryBytes(block(new byte[0]).getBinaryBytes(), HEIGHT);
+
+        assertNull(withoutATs.getBlockATs());
+        assertNotNull(withEmptyATs.getBlockATs());
+        assertEquals(0, withEmptyATs.getBlockATs().length);
+    }
+
+    @Test(expected = NotValidException.class)
+    public void parseBinaryBytesRejectsNegativeBlockATsLengths() throws ValidationException {
+        byte[] bytes = block(null).getBinaryBytes();
+        assertEquals(-1, ByteBuffer.wrap(bytes).getInt(BLOCK_ATS_LENGTH_OFFSET));
+        ByteBuffer.wrap(bytes).putInt(BLOCK_ATS_LENGTH_OFFSET, -2);
+
+        Block.parseBinaryBytes(bytes, HEIGHT);
+    }
+
+    @Test(expected = NotValidException.class)
+    public void parseBinaryBytesRejectsTrailingBytes() throws ValidationException {
+        byte[] bytes = block(null).getBinaryBytes();
+
+        Block.parseBinaryBytes(Arrays.copyOf(bytes, bytes.length + 1), HEIGHT);
+    }
+}
@@ -12,6 +12,7 @@ import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
 
 import java.math.BigInteger;
+import java.util.Arrays;
 
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.doReturn;
@@ -20,6 +21,8 @@ import static org.mockito.Mockito.mock;
 @RunWith(JUnit4.class)
 public class GeneratorImplTest {
     private Generator generator;
+    private Blockchain blockchain;
+    private FluxCapacitor fluxCapacitor;
 
     private static final byte[] exampleGenSig = Convert.parseHexString("6ec823b5fd86c4aee9f7c3453cacaf4a43296f48ede77e70060ca8225c2855d0");
     private static final long exampleBaseTarget = 70312;
@@ -27,7 +30,7 @@ public class GeneratorImplTest {
 
     @Before
     public void setUpGeneratorTest() {
-        Blockchain blockchain = mock(Blockchain.class);
+        blockchain = mock(Blockchain.class);
         Block block = mock(Block.class);
         doReturn(block).when(blockchain).getLastBlock();
         doReturn(exampleGenSig).when(block).getGenerationSignature();
@@ -36,7 +39,7 @@ public class GeneratorImplTest {
 
         TimeService timeService = mock(TimeService.class);
 
-        FluxCapacitor fluxCapacitor = QuickMocker.fluxCapacitorEnabledFunctionalities(FluxValues.POC2);
+        fluxCapacitor = QuickMocker.fluxCapacitorEnabledFunctionalities(FluxValues.POC2);
 
         generator = new GeneratorImpl(blockchain, timeService, fluxCapacitor);
     }
@@ -72,4 +75,31 @@ public class GeneratorImplTest {
         assertEquals(TestConstants.TEST_ACCOUNT_NUMERIC_ID_PARSED, (long) generatorState.getAccountId());
         assertArrayEquals(TestConstants.TEST_PUBLIC_KEY_BYTES, generatorState.getPublicKey());
     }
+
+    @Test
+    public void testGeneratorAddNoncesKeepsBestDeadline() {
+        Generator.GeneratorState single = null;
+        for (long nonce = 0; nonce < 5; nonce++) {
+            Generator.GeneratorState state = new GeneratorImpl(blockchain, mock(TimeService.class), fluxCapacitor).addNonce(TestConstants.TEST_SECRET_PHRASE, nonce);
+            if (single == null || state.getDeadline().compareTo(single.getDeadline()) < 0) {
+                single = state;
+            }
+        }
+
+        Generator.GeneratorState best = generator.addNonces(TestConstants.TEST_SECRET_PHRASE, Arrays.asList(0L, 1L, 2L, 3L, 4L), TestConstants.TEST_PUBLIC_KEY_BYTES);
+        assertEquals(single.getDeadline(), best.getDeadline());
+        assertEquals(single.getNonce(), best.getNonce());
+        assertEquals(1, generator.getAllGenerators().size());
+
+        // a worse nonce submitted later does not replace the best one
+        long worseNonce = best.getNonce() == 0 ? 1 : 0;
+        generator.addNonce(TestConstants.TEST_SECRET_PHRASE, worseNonce);
+        assertEquals(best.getNonce(), generator.getAllGenerators().iterator().next().getNonce());
+    }
+
+    @Test
+    public void testGeneratorGetPublicKey() {
+        assertArrayEquals(TestConstants.TEST_PUBLIC_KEY_BYTES, generator.getPublicKey(TestConstants.TEST_SECRET_PHRASE));
+        assertArrayEquals(TestConstants.TEST_PUBLIC_KEY_BYTES, generator.getPublicKey(TestConstants.TEST_SECRET_PHRASE));
+    }
 }
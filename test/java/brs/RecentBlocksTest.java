@@ -0,0 +1,115 @@
+package brs;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+@RunWith(JUnit4.class)
+public class RecentBlocksTest {
+
+    private static final int CAPACITY = 10;
+
+    private RecentBlocks recentBlocks;
+    private List<Block> chain;
+
+    @Before
+    public void setUp() {
+        recentBlocks = new RecentBlocks(CAPACITY);
+        chain = new ArrayList<>();
+        for (int height = 0; height < 25; height++) {
+            chain.add(mockBlock(1000 + height, height, height == 0 ? 0 : 1000 + height - 1, height * 240));
+        }
+    }
+
+    private static Block mockBlock(long id, int height, long previousBlockId, int timestamp) {
+        Block block = mock(Block.class);
+        doReturn(id).when(block).getId();
+        doReturn(height).when(block).getHeight();
+        doReturn(previousBlockId).when(block).getPreviousBlockId();
+        doReturn(timestamp).when(block).getTimestamp();
+        doReturn(block).when(block).toHeader();
+        return block;
+    }
+
+    @Test
+    public void keepsOnlyTheMostRecentBlocks() {
+        for (Block block : chain) {
+            recentBlocks.setLastBlock(block);
+        }
+
+        for (int height = 0; height < chain.size(); height++) {
+            boolean cached = height >= chain.size() - CAPACITY;
+            assertEquals(cached ? chain.get(height) : null, recentBlocks.getBlockAtHeight(height));
+            assertEquals(cached, recentBlocks.hasBlock(chain.get(height).getId()));
+            assertEquals(cached ? chain.get(height) : null, recentBlocks.getBlock(chain.get(height).getId()));
+        }
+    }
+
+    @Test
+    public void popsAndPushesAFork() {
+        for (Block block : chain) {
+            recentBlocks.setLastBlock(block);
+        }
+
+        assertTrue(recentBlocks.setLastBlock(chain.get(20)));
+        assertNull(recentBlocks.getBlockAtHeight(21));
+        assertFalse(recentBlocks.hasBlock(chain.get(21).getId()));
+
+        Block fork = mockBlock(5000, 21, chain.get(20).getId(), 21 * 240 + 10);
+        assertTrue(recentBlocks.setLastBlock(fork));
+        assertEquals(fork, recentBlocks.getBlockAtHeight(21));
+        assertEquals(chain.get(20), recentBlocks.getBlockAtHeight(20));
+    }
+
+    @Test
+    public void resetsOnUnrelatedBlock() {
+        for (Block block : chain.subList(0, 5)) {
+            recentBlocks.setLastBlock(block);
+        }
+
+        assertFalse(recentBlocks.setLastBlock(chain.get(10)));
+        assertEquals(chain.get(10), recentBlocks.getBlockAtHeight(10));
+        assertNull(recentBlocks.getBlockAtHeight(4));
+    }
+
+    @Test
+    public void lookupsReturnAFreshHeaderEachTime() {
+        Block block = mockBlock(1000, 0, 0, 0);
+        Block header = mock(Block.class);
+        doReturn(1000L).when(header).getId();
+        doReturn(0).when(header).getHeight();
+        doReturn(0).when(header).getTimestamp();
+        doAnswer(invocation -> mock(Block.class)).when(header).toHeader();
+        doReturn(header).when(block).toHeader();
+        recentBlocks.setLastBlock(block);
+
+        Block first = recentBlocks.getBlockAtHeight(0);
+        assertNotNull(first);
+        assertNotSame(header, first);
+        assertNotSame(first, recentBlocks.getBlockAtHeight(0));
+        assertNotSame(first, recentBlocks.getBlock(1000));
+        assertNotSame(first, recentBlocks.getLastBlock(0));
+    }
+
+    @Test
+    public void findsLastBlockBeforeTimestamp() {
+        for (Block block : chain) {
+            recentBlocks.setLastBlock(block);
+        }
+
+        assertEquals(chain.get(20), recentBlocks.getLastBlock(20 * 240));
+        assertEquals(chain.get(20), recentBlocks.getLastBlock(20 * 240 + 239));
+        assertEquals(chain.get(24), recentBlocks.getLastBlock(Integer.MAX_VALUE));
+        assertEquals(chain.get(15), recentBlocks.getLastBlock(15 * 240));
+        assertNull(recentBlocks.getLastBlock(15 * 240 - 1));
+    }
+}
@@ -0,0 +1,351 @@
+package brs;
+
+import brs.BurstException.ValidationException;
+import brs.common.QuickMocker;
+import brs.common.TestConstants;
+import brs.db.TransactionDb;
+import brs.db.store.Dbs;
+import brs.db.store.Stores;
+import brs.fluxcapacitor.FluxCapacitor;
+import brs.fluxcapacitor.FluxValues;
+import brs.peer.Peer;
+import brs.props.PropertyService;
+import brs.services.AccountService;
+import brs.services.TimeService;
+import brs.services.TransactionService;
+import brs.unconfirmedtransactions.UnconfirmedTransactionStore;
+import brs.util.Listener;
+import brs.util.ThreadPool;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static brs.Attachment.ORDINARY_PAYMENT;
+import static brs.Constants.FEE_QUANT;
+import static brs.http.common.ResultFields.UNCONFIRMED_TRANSACTIONS_RESPONSE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.powermock.api.mockito.PowerMockito.mockStatic;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({Burst.class, EconomicClustering.class})
+public class TransactionProcessorImplTest {
+
+    private static final int NOW = 100000;
+
+    private UnconfirmedTransactionStore unconfirmedTransactionStoreMock;
+    private TransactionDb transactionDbMock;
+    private TransactionService transactionServiceMock;
+    private Stores storesMock;
+    private Peer peerMock;
+    private Listener<Account> unconfirmedBalanceListener;
+
+    private TransactionProcessorImpl t;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        mockStatic(Burst.class);
+        FluxCapacitor mockFluxCapacitor = QuickMocker.fluxCapacitorEnabledFunctionalities(FluxValues.PRE_DYMAXION, FluxValues.DIGITAL_GOODS_STORE);
+        when(Burst.getFluxCapacitor()).thenReturn(mockFluxCapacitor);
+        BlockchainImpl mockBlockchain = mock(BlockchainImpl.class);
+        when(mockBlockchain.getHeight()).thenReturn(Constants.NQT_BLOCK + 1);
+        Block lastBlock = mock(Block.class);
+        when(lastBlock.getTimestamp()).thenReturn(NOW);
+        when(mockBlockchain.getLastBlock()).thenReturn(lastBlock);
+        when(Burst.getBlockchain()).thenReturn(mockBlockchain);
+        TransactionType.init(mockBlockchain, mockFluxCapacitor, null, null, null, null, null, null);
+
+        TimeService timeServiceMock = mock(TimeService.class);
+        when(timeServiceMock.getEpochTime()).thenReturn(NOW);
+
+        unconfirmedTransactionStoreMock = mock(UnconfirmedTransactionStore.class);
+        storesMock = mock(Stores.class);
+        when(storesMock.getUnconfirmedTransactionStore()).thenReturn(unconfirmedTransactionStoreMock);
+
+        transactionDbMock = mock(TransactionDb.class);
+        Dbs dbsMock = mock(Dbs.class);
+        when(dbsMock.getTransactionDb()).thenReturn(transactionDbMock);
+
+        transactionServiceMock = mock(TransactionService.class);
+        when(transactionServiceMock.verifyPublicKey(any())).thenReturn(true);
+
+        EconomicClustering economicClusteringMock = mock(EconomicClustering.class);
+        when(economicClusteringMock.verifyFork(any())).thenReturn(true);
+
+        peerMock = mock(Peer.class);
+
+        AccountService accountServiceMock = mock(AccountService.class);
+
+        t = new TransactionProcessorImpl(mock(PropertyService.class), economicClusteringMock, mockBlockchain, storesMock, timeServiceMock, dbsMock,
+            accountServiceMock, transactionServiceMock, mock(ThreadPool.class));
+
+        ArgumentCaptor<Listener<Account>> listener = ArgumentCaptor.forClass(Listener.class);
+        verify(accountServiceMock).addListener(listener.capture(), eq(Account.Event.UNCONFIRMED_BALANCE));
+        unconfirmedBalanceListener = listener.getValue();
+    }
+
+    private static Transaction signedTransaction(long id, int timestamp, short deadline, String secretPhrase) throws ValidationException {
+        Transaction transaction = new Transaction.Builder((byte) 1, TestConstants.TEST_PUBLIC_KEY_BYTES, 1, FEE_QUANT * 100, timestamp, deadline, ORDINARY_PAYMENT)
+            .id(id).senderId(123L).build();
+        transaction.sign(secretPhrase);
+        return transaction;
+    }
+
+    @Test
+    public void verifyTransactionsDropsExpiredKnownAndBadlySignedTransactions() throws ValidationException {
+        Transaction fresh = signedTransaction(1L, NOW, (short) 1440, TestConstants.TEST_SECRET_PHRASE);
+        Transaction expired = signedTransaction(2L, NOW - 7200, (short) 60, TestConstants.TEST_SECRET_PHRASE);
+        Transaction fromTheFuture = signedTransaction(3L, NOW + 60, (short) 1440, TestConstants.TEST_SECRET_PHRASE);
+        Transaction inPool = signedTransaction(4L, NOW, (short) 1440, TestConstants.TEST_SECRET_PHRASE);
+        Transaction inChain = signedTransaction(5L, NOW, (short) 1440, TestConstants.TEST_SECRET_PHRASE);
+        Transaction badlySigned = signedTransaction(6L, NOW, (short) 1440, "not the secret phrase of the sender");
+        when(unconfirmedTransactionStoreMock.exists(eq(4L))).thenReturn(true);
+        when(transactionDbMock.hasTransaction(eq(5L))).thenReturn(true);
+
+        List<Transaction> verified = t.verifyTransactions(Arrays.asList(fresh, expired, fromTheFuture, inPool, inChain, badlySigned), peerMock);
+
+        assertEquals(Collections.singletonList(fresh), verified);
+        verify(unconfirmedTransactionStoreMock).markFingerPrintsOf(eq(peerMock), eq(Arrays.asList(inPool, inChain)));
+    }
+
+    @Test
+    public void verifyTransactionsDoesNotLookUpExpiredTransactions() throws ValidationException {
+        Transaction expired = signedTransaction(2L, NOW - 7200, (short) 60, TestConstants.TEST_SECRET_PHRASE);
+
+        assertEquals(Collections.emptyList(), t.verifyTransactions(Collections.singletonList(expired), peerMock));
+
+        verify(unconfirmedTransactionStoreMock, never()).exists(eq(2L));
+        verify(transactionDbMock, never()).hasTransaction(eq(2L));
+        verify(unconfirmedTransactionStoreMock, never()).markFingerPrintsOf(eq(peerMock), any());
+    }
+
+    @Test(timeout = 10000)
+    public void verifyTransactionsRunsWhileTheUnconfirmedTransactionsLockIsHeld() throws Exception {
+        Transaction fresh = signedTransaction(1L, NOW, (short) 1440, TestConstants.TEST_SECRET_PHRASE);
+
+        synchronized (t.getUnconfirmedTransactionsSyncObj()) {
+            CompletableFuture<List<Transaction>> verified = CompletableFuture.supplyAsync(
+                () -> t.verifyTransactions(Collections.singletonList(fresh), peerMock));
+            assertEquals(Collections.singletonList(fresh), verified.get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    /**
+     * @return the transaction as a peer receiving its JSON would parse it
+     */
+    private static Transaction received(Transaction transaction) throws ValidationException {
+        return Transaction.parseTransaction(transaction.getJsonObject(), Constants.NQT_BLOCK + 1);
+    }
+
+    private static CompletableFuture<JsonObject> response(JsonElement... transactions) {
+        JsonArray transactionsData = new JsonArray();
+        for (JsonElement transaction : transactions) {
+            transactionsData.add(transaction);
+        }
+        JsonObject response = new JsonObject();
+        response.add(UNCONFIRMED_TRANSACTIONS_RESPONSE, transactionsData);
+        return CompletableFuture.completedFuture(response);
+    }
+
+    @Test
+    public void ingestFromPeersProcessesTheResponseOfEveryPeerWithThatPeer() throws Exception {
+        Transaction fromA = signedTransaction(1L, NOW, (short) 1440, TestConstants.TEST_SECRET_PHRASE);
+        Transaction fromB = signedTransaction(2L, NOW - 1, (short) 1440, TestConstants.TEST_SECRET_PHRASE);
+        Peer peerA = mock(Peer.class);
+        Peer peerB = mock(Peer.class);
+        Map<Peer, CompletableFuture<JsonObject>> responses = new HashMap<>();
+        responses.put(peerA, response(fromA.getJsonObject()));
+        responses.put(peerB, response(fromB.getJsonObject()));
+        when(unconfirmedTransactionStoreMock.put(any(), any())).thenReturn(true);
+
+        t.ingestFromPeers(Arrays.asList(peerA, peerB), responses::get).get(5, TimeUnit.SECONDS);
+
+        verify(unconfirmedTransactionStoreMock).put(eq(received(fromA)), eq(peerA));
+        verify(unconfirmedTransactionStoreMock).put(eq(received(fromB)), eq(peerB));
+        verify(unconfirmedTransactionStoreMock, never()).put(eq(received(fromA)), eq(peerB));
+        verify(unconfirmedTransactionStoreMock, never()).put(eq(received(fromB)), eq(peerA));
+    }
+
+    @Test
+    public void ingestFromPeersBlacklistsOnlyThePeerSendingInvalidData() throws Exception {
+        Transaction valid = signedTransaction(1L, NOW, (short) 1440, TestConstants.TEST_SECRET_PHRASE);
+        Peer goodPeer = mock(Peer.class);
+        Peer badPeer = mock(Peer.class);
+        JsonObject invalid = new JsonObject();
+        invalid.addProperty("type", "not a transaction");
+        Map<Peer, CompletableFuture<JsonObject>> responses = new HashMap<>();
+        responses.put(goodPeer, response(valid.getJsonObject()));
+        responses.put(badPeer, response(invalid));
+        when(unconfirmedTransactionStoreMock.put(any(), any())).thenReturn(true);
+
+        t.ingestFromPeers(Arrays.asList(badPeer, goodPeer), responses::get).get(5, TimeUnit.SECONDS);
+
+        verify(badPeer).blacklist(any(Exception.class), any());
+        verify(goodPeer, never()).blacklist(any(Exception.class), any());
+        verify(unconfirmedTransactionStoreMock).put(eq(received(valid)), eq(goodPeer));
+    }
+
+    @Test
+    public void ingestPeerTransactionsReturnsNullForMissingResponses() throws Exception {
+        CompletableFuture<JsonObject> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new IOException("peer went away"));
+
+        assertNull(t.ingestPeerTransactions(failed, peerMock).get(5, TimeUnit.SECONDS));
+        assertNull(t.ingestPeerTransactions(CompletableFuture.completedFuture(new JsonObject()), peerMock).get(5, TimeUnit.SECONDS));
+        verify(peerMock, never()).blacklist(any(Exception.class), any());
+    }
+
+    @Test
+    public void commitAddsTransactionsToThePoolAndNotifiesListeners() throws Exception {
+        Transaction added = signedTransaction(1L, NOW, (short) 1440, TestConstants.TEST_SECRET_PHRASE);
+        Transaction rejectedByPool = signedTransaction(2L, NOW - 1, (short) 1440, TestConstants.TEST_SECRET_PHRASE);
+        Transaction unknownPublicKey = signedTransaction(3L, NOW - 2, (short) 1440, TestConstants.TEST_SECRET_PHRASE);
+        when(unconfirmedTransactionStoreMock.put(eq(received(added)), eq(peerMock))).thenReturn(true);
+        when(transactionServiceMock.verifyPublicKey(eq(received(unknownPublicKey)))).thenReturn(false);
+        List<List<? extends Transaction>> notified = new ArrayList<>();
+        t.addListener(notified::add, TransactionProcessor.Event.ADDED_UNCONFIRMED_TRANSACTIONS);
+
+        List<Transaction> result = t.ingestPeerTransactions(
+            response(added.getJsonObject(), rejectedByPool.getJsonObject(), unknownPublicKey.getJsonObject()), peerMock).get(5, TimeUnit.SECONDS);
+
+        assertEquals(Collections.singletonList(received(added)), result);
+        assertEquals(Collections.singletonList(result), notified);
+        verify(unconfirmedTransactionStoreMock).put(eq(received(rejectedByPool)), eq(peerMock));
+        verify(unconfirmedTransactionStoreMock, never()).put(eq(received(unknownPublicKey)), any());
+        verify(storesMock, times(3)).beginTransaction();
+        verify(storesMock, times(3)).commitTransaction();
+        verify(storesMock, times(3)).endTransaction();
+    }
+
+    @Test
+    public void commitSkipsTransactionsTheChainOrPoolTookSinceVerification() throws Exception {
+        Transaction transaction = signedTransaction(1L, NOW, (short) 1440, TestConstants.TEST_SECRET_PHRASE);
+        long id = received(transaction).getId();
+        // unknown while verifying, known by the time it is committed
+        when(unconfirmedTransactionStoreMock.exists(eq(id))).thenReturn(false, true);
+
+        List<Transaction> result = t.ingestPeerTransactions(response(transaction.getJsonObject()), peerMock).get(5, TimeUnit.SECONDS);
+
+        assertEquals(Collections.emptyList(), result);
+        verify(unconfirmedTransactionStoreMock, never()).put(any(), any());
+        verify(unconfirmedTransactionStoreMock).markFingerPrintsOf(eq(peerMock), eq(Collections.singletonList(received(transaction))));
+    }
+
+    @Test
+    public void commitRollsBackAFailedTransactionAndGoesOnWithTheNextOne() throws Exception {
+        Transaction failing = signedTransaction(1L, NOW, (short) 1440, TestConstants.TEST_SECRET_PHRASE);
+        Transaction added = signedTransaction(2L, NOW - 1, (short) 1440, TestConstants.TEST_SECRET_PHRASE);
+        when(unconfirmedTransactionStoreMock.put(eq(received(failing)), any())).thenThrow(new IllegalStateException("store failure"));
+        when(unconfirmedTransactionStoreMock.put(eq(received(added)), any())).thenReturn(true);
+
+        List<Transaction> result = t.ingestPeerTransactions(response(failing.getJsonObject(), added.getJsonObject()), peerMock).get(5, TimeUnit.SECONDS);
+
+        assertEquals(Collections.singletonList(received(added)), result);
+        verify(storesMock).rollbackTransaction();
+        verify(storesMock, times(2)).endTransaction();
+    }
+
+    @Test(timeout = 10000)
+    public void onlyTheCommitStageWaitsForTheUnconfirmedTransactionsLock() throws Exception {
+        Transaction transaction = signedTransaction(1L, NOW, (short) 1440, TestConstants.TEST_SECRET_PHRASE);
+        when(unconfirmedTransactionStoreMock.put(any(), any())).thenReturn(true);
+        CompletableFuture<JsonObject> response = new CompletableFuture<>();
+        CompletableFuture<List<Transaction>> result = t.ingestPeerTransactions(response, peerMock);
+
+        synchronized (t.getUnconfirmedTransactionsSyncObj()) {
+            CompletableFuture.runAsync(() -> response.complete(response(transaction.getJsonObject()).join()));
+            // fetched, parsed and verified while the lock is held
+            verify(transactionServiceMock, timeout(5000)).validate(any());
+            verify(unconfirmedTransactionStoreMock, timeout(5000)).exists(eq(received(transaction).getId()));
+            Thread.sleep(100);
+            verify(unconfirmedTransactionStoreMock, never()).put(any(), any());
+            assertFalse(result.isDone());
+        }
+
+        assertEquals(Collections.singletonList(received(transaction)), result.get(5, TimeUnit.SECONDS));
+    }
+
+    private static Transaction poolTransaction(long senderId) {
+        Transaction transaction = mock(Transaction.class);
+        when(transaction.getSenderId()).thenReturn(senderId);
+        when(transaction.getAttachment()).thenReturn(ORDINARY_PAYMENT);
+        return transaction;
+    }
+
+    private void changeUnconfirmedBalance(long accountId) {
+        Account account = mock(Account.class);
+        when(account.getId()).thenReturn(accountId);
+        unconfirmedBalanceListener.notify(account);
+    }
+
+    @Test
+    public void revalidationPicksUpBalancesChangedWithoutATransactionOfTheBlock() throws Exception {
+        Transaction ofBlockSender = poolTransaction(1L);
+        Transaction ofSubscriptionPayer = poolTransaction(2L);
+        Transaction ofUntouchedAccount = poolTransaction(3L);
+        when(unconfirmedTransactionStoreMock.getAll()).thenReturn(Arrays.asList(ofBlockSender, ofSubscriptionPayer, ofUntouchedAccount));
+
+        Block block = mock(Block.class);
+        when(block.getHeight()).thenReturn(1000);
+        when(block.getTransactions()).thenReturn(Collections.singletonList(poolTransaction(1L)));
+
+        // a subscription payment debited account 2 while the block was accepted
+        changeUnconfirmedBalance(2L);
+        t.revalidateUnconfirmedTransactions(block);
+
+        verify(unconfirmedTransactionStoreMock).resetAccountBalances(new HashSet<>(Arrays.asList(1L, 2L)));
+        verify(unconfirmedTransactionStoreMock, never()).resetAccountBalances();
+        verify(transactionServiceMock).validate(ofBlockSender);
+        verify(transactionServiceMock).validate(ofSubscriptionPayer);
+        verify(transactionServiceMock, never()).validate(ofUntouchedAccount);
+
+        // the changed balances are only picked up once
+        Block emptyBlock = mock(Block.class);
+        when(emptyBlock.getHeight()).thenReturn(1001);
+        t.revalidateUnconfirmedTransactions(emptyBlock);
+
+        verify(unconfirmedTransactionStoreMock).resetAccountBalances(Collections.emptySet());
+        verify(transactionServiceMock, times(1)).validate(ofSubscriptionPayer);
+    }
+
+    @Test
+    public void revalidationAfterAPopOffResetsAllBalances() throws Exception {
+        Transaction ofUntouchedAccount = poolTransaction(3L);
+        when(unconfirmedTransactionStoreMock.getAll()).thenReturn(Collections.singletonList(ofUntouchedAccount));
+        Block block = mock(Block.class);
+        when(block.getHeight()).thenReturn(1000);
+
+        t.requireFullRevalidation();
+        t.revalidateUnconfirmedTransactions(block);
+
+        verify(unconfirmedTransactionStoreMock).resetAccountBalances();
+        verify(transactionServiceMock).validate(ofUntouchedAccount);
+    }
+}
@@ -0,0 +1,113 @@
+package brs;
+
+import brs.Attachment.MessagingAliasSell;
+import brs.BurstException.ValidationException;
+import brs.common.QuickMocker;
+import brs.common.TestConstants;
+import brs.fluxcapacitor.FluxCapacitor;
+import brs.fluxcapacitor.FluxValues;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.powermock.api.mockito.PowerMockito.mockStatic;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest(Burst.class)
+public class TransactionTest {
+
+    private Transaction transaction;
+
+    @Before
+    public void setUp() throws ValidationException {
+        mockStatic(Burst.class);
+
+        FluxCapacitor mockFluxCapacitor = QuickMocker.fluxCapacitorEnabledFunctionalities(FluxValues.PRE_DYMAXION);
+        when(Burst.getFluxCapacitor()).thenReturn(mockFluxCapacitor);
+        BlockchainImpl mockBlockchain = mock(BlockchainImpl.class);
+        when(mockBlockchain.getHeight()).thenReturn(4);
+        when(Burst.getBlockchain()).thenReturn(mockBlockchain);
+
+        TransactionType.init(mockBlockchain, mockFluxCapacitor, null, null, null, null, null, null);
+
+        transaction = new Transaction.Builder((byte) 0, TestConstants.TEST_PUBLIC_KEY_BYTES, 0, Constants.ONE_BURST, 50000, (short) 500,
+            new MessagingAliasSell("aliasName", 123, 5))
+            .recipientId(123L).build();
+    }
+
+    @Test
+    public void getBytesReturnsIndependentCopies() {
+        byte[] bytes = transaction.getBytes();
+        byte[] expected = bytes.clone();
+
+        bytes[0]++;
+        transaction.getUnsignedBytes()[0]++;
+
+        assertArrayEquals(expected, transaction.getBytes());
+        assertArrayEquals(expected, transaction.getUnsignedBytes());
+        assertNotSame(transaction.getBytes(), transaction.getBytes());
+    }
+
+    @Test
+    public void signReplacesCachedBytes() throws ValidationException {
+        byte[] unsignedBytes = transaction.getUnsignedBytes();
+
+        transaction.sign(TestConstants.TEST_SECRET_PHRASE);
+
+        byte[] signedBytes = transaction.getBytes();
+        assertFalse(Arrays.equals(unsignedBytes, signedBytes));
+        assertArrayEquals(unsignedBytes, transaction.getUnsignedBytes());
+        assertTrue(transaction.verifySignature());
+
+        Transaction parsed = Transaction.parseTransaction(signedBytes);
+        assertArrayEquals(signedBytes, parsed.getBytes());
+        assertEquals(transaction.getId(), parsed.getId());
+        assertEquals(transaction.getFullHash(), parsed.getFullHash());
+    }
+
+    @Test
+    public void appendagesBytesAreTheTailOfTheTransactionBytes() {
+        byte[] bytes = transaction.getBytes();
+        int appendagesSize = transaction.getAppendagesSize();
+
+        assertTrue(appendagesSize > 0);
+        assertArrayEquals(Arrays.copyOfRange(bytes, bytes.length - appendagesSize, bytes.length), transaction.getAppendagesBytes());
+    }
+
+    @Test
+    public void verifySignaturesReturnsTheIndicesOfBadlySignedTransactions() throws ValidationException {
+        Transaction good = signedTransaction(TestConstants.TEST_SECRET_PHRASE);
+        Transaction badlySigned = signedTransaction("not the secret phrase of the sender");
+        Transaction unsigned = new Transaction.Builder((byte) 1, TestConstants.TEST_PUBLIC_KEY_BYTES, 1, Constants.FEE_QUANT * 100, 50000, (short) 500,
+            Attachment.ORDINARY_PAYMENT).build();
+        List<Transaction> transactions = Arrays.asList(good, badlySigned, good, unsigned, good);
+
+        BitSet failed = Transaction.verifySignatures(transactions);
+
+        assertEquals(2, failed.cardinality());
+        assertTrue(failed.get(1));
+        assertTrue(failed.get(3));
+    }
+
+    @Test
+    public void verifySignaturesOfNoTransactions() {
+        assertTrue(Transaction.verifySignatures(Collections.emptyList()).isEmpty());
+    }
+
+    private static Transaction signedTransaction(String secretPhrase) throws ValidationException {
+        Transaction signed = new Transaction.Builder((byte) 1, TestConstants.TEST_PUBLIC_KEY_BYTES, 1, Constants.FEE_QUANT * 100, 50000, (short) 500,
+            Attachment.ORDINARY_PAYMENT).build();
+        signed.sign(secretPhrase);
+        return signed;
+    }
+}
@@ -2,6 +2,7 @@ package brs.at;
 
 import brs.Account;
 import brs.Burst;
+import brs.props.Props;
 import brs.util.Convert;
 import org.junit.Before;
 import org.junit.Test;
@@ -9,8 +10,12 @@ import org.junit.runner.RunWith;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 
+import java.util.TreeSet;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.when;
 
 @RunWith(PowerMockRunner.class)
 @PrepareForTest({Burst.class, Account.class})
@@ -53,4 +58,65 @@ public class AtControllerTest {
         assertEquals(0, atBlock.getTotalAmount());
         assertEquals(5439000, atBlock.getTotalFees());
     }
+
+    @Test
+    public void testJumpsAreCachedPerAt() {
+        AtTestHelper.clearAddedAts();
+        AtTestHelper.addHelloWorldAT();
+        AT at = AT.getAT(AT.getOrderedATs().get(0));
+        assertEquals(new TreeSet<>(at.getMachineState().jumps), AtCodeCache.getJumps(at));
+
+        AtCodeCache.invalidate(at);
+        assertNull(AtCodeCache.getJumps(at));
+    }
+
+    @Test
+    public void testPreDecodedRunMatchesPlainRun() {
+        String expected = "010000000000000097c1d1e5b25c1d109f2ba522d1dda248020000000000000014ea12712c274caebc49ccd7fff0b0b703000000000000009f1af5443c8d1e7b492f848e91fccb1f";
+        assertEquals(expected, runSampleAts(false));
+        // the second pre-decoded run uses the operands decoded by the first one
+        assertEquals(expected, runSampleAts(true));
+        assertEquals(expected, runSampleAts(true));
+    }
+
+    @Test
+    public void testPreDecodedValidationMatchesPlainValidation() throws AtException {
+        String expected = validateSampleAts(false, false);
+        assertEquals(expected, validateSampleAts(true, false));
+        assertEquals(expected, validateSampleAts(true, false));
+    }
+
+    @Test
+    public void testParallelValidationMatchesSequentialValidation() throws AtException {
+        String expected = validateSampleAts(false, false);
+        assertEquals(expected, validateSampleAts(false, true));
+        assertEquals(expected, validateSampleAts(true, true));
+    }
+
+    private String runSampleAts(boolean preDecode) {
+        when(Burst.getPropertyService().getBoolean(Props.ENABLE_AT_PRE_DECODE)).thenReturn(preDecode);
+        AtTestHelper.clearAddedAts();
+        AtTestHelper.addHelloWorldAT();
+        AtTestHelper.addEchoAT();
+        AtTestHelper.addTipThanksAT();
+        return Convert.toHexString(AtController.getCurrentBlockATs(Integer.MAX_VALUE, Integer.MAX_VALUE).getBytesForBlock());
+    }
+
+    /**
+     * @return total amount and fees of validating the sample ATs, followed by the state every AT ended up in
+     */
+    private String validateSampleAts(boolean preDecode, boolean parallel) throws AtException {
+        when(Burst.getPropertyService().getBoolean(Props.ENABLE_AT_PRE_DECODE)).thenReturn(preDecode);
+        when(Burst.getPropertyService().getBoolean(Props.ENABLE_AT_PARALLEL_VALIDATION)).thenReturn(parallel);
+        AtTestHelper.clearAddedAts();
+        AtTestHelper.addHelloWorldAT();
+        AtTestHelper.addEchoAT();
+        AtTestHelper.addTipThanksAT();
+        AtBlock atBlock = AtController.validateATs(Convert.parseHexString("010000000000000097c1d1e5b25c1d109f2ba522d1dda248020000000000000014ea12712c274caebc49ccd7fff0b0b703000000000000009f1af5443c8d1e7b492f848e91fccb1f"), Integer.MAX_VALUE);
+        StringBuilder result = new StringBuilder(atBlock.getTotalAmount() + " " + atBlock.getTotalFees());
+        for (Long id : AT.getOrderedATs()) {
+            result.append(' ').append(Convert.toHexString(AT.getAT(id).getBytes()));
+        }
+        return result.toString();
+    }
 }
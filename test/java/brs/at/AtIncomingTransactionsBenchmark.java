@@ -0,0 +1,197 @@
+package brs.at;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Measures an AT walking through all of its incoming transactions on a synthetic chain in an in-memory H2 database,
+ * once with a query for every lookup as before, once answered from {@link AtIncomingTransactions}, each with and
+ * without the (recipient_id, height, id) index of the V3 migration.
+ * Not run with the tests, run its main method with the test classpath.
+ */
+public final class AtIncomingTransactionsBenchmark {
+
+    private static final int HEIGHT = 100_000;
+    private static final int TRANSACTIONS_PER_BLOCK = 10;
+    private static final int RECIPIENTS = 5_000;
+    private static final long AT_ID = -1L;
+    // the AT gets a transaction in every AT_EVERY-th block, a few of them in some blocks
+    private static final int AT_EVERY = 20;
+    private static final int ROUNDS = 5;
+
+    private static final String FIND_TRANSACTION = "SELECT id FROM transaction WHERE height BETWEEN ? AND ? AND recipient_id = ? "
+            + "AND amount >= ? ORDER BY height, id LIMIT 1 OFFSET ?";
+    private static final String FIND_TRANSACTION_HEIGHT = "SELECT id FROM transaction WHERE height = ? AND recipient_id = ? "
+            + "AND amount >= ? ORDER BY height, id";
+    private static final String LOAD = "SELECT id, height FROM transaction WHERE height BETWEEN ? AND ? AND recipient_id = ? "
+            + "AND amount >= ? ORDER BY height, id LIMIT ?";
+
+    private final Connection con;
+    private final Map<Long, Integer> atTransactionHeights = new HashMap<>();
+    private int queries;
+
+    private AtIncomingTransactionsBenchmark(Connection con) {
+        this.con = con;
+    }
+
+    public static void main(String[] args) throws SQLException {
+        try (Connection con = DriverManager.getConnection("jdbc:h2:mem:at_incoming_transactions_benchmark")) {
+            AtIncomingTransactionsBenchmark benchmark = new AtIncomingTransactionsBenchmark(con);
+            benchmark.createChain();
+            benchmark.run("without V3 index");
+            try (Statement statement = con.createStatement()) {
+                statement.execute("CREATE INDEX transaction_recipient_id_height_idx ON transaction (recipient_id, height, id)");
+            }
+            benchmark.run("with V3 index");
+        }
+    }
+
+    /**
+     * Creates the transaction columns and indexes the lookups use, as the migrations before V3 leave them.
+     */
+    private void createChain() throws SQLException {
+        try (Statement statement = con.createStatement()) {
+            statement.execute("CREATE TABLE transaction (db_id IDENTITY, id BIGINT NOT NULL, recipient_id BIGINT, "
+                    + "amount BIGINT NOT NULL, height INT NOT NULL)");
+            statement.execute("CREATE UNIQUE INDEX transaction_id_idx ON transaction (id)");
+            statement.execute("CREATE INDEX transaction_recipient_id_idx ON transaction (recipient_id)");
+            statement.execute("CREATE INDEX transaction_recipient_id_amount_height_idx ON transaction (recipient_id, amount, height)");
+        }
+        Random random = new Random(1);
+        long id = 1;
+        try (PreparedStatement insert = con.prepareStatement("INSERT INTO transaction (id, recipient_id, amount, height) VALUES (?, ?, ?, ?)")) {
+            for (int height = 0; height < HEIGHT; height++) {
+                for (int i = 0; i < TRANSACTIONS_PER_BLOCK; i++) {
+                    add(insert, id++, random.nextInt(RECIPIENTS), random.nextInt(1_000_000), height);
+                }
+                if (height % AT_EVERY == 0) {
+                    for (int i = 0; i <= height % 3; i++) {
+                        atTransactionHeights.put(id, height);
+                        add(insert, id++, AT_ID, random.nextInt(1_000_000), height);
+                    }
+                }
+            }
+            insert.executeBatch();
+        }
+        System.out.printf("%d transactions, %d of them to the AT%n", id - 1, atTransactionHeights.size());
+    }
+
+    private static void add(PreparedStatement insert, long id, long recipientId, long amount, int height) throws SQLException {
+        insert.setLong(1, id);
+        insert.setLong(2, recipientId);
+        insert.setLong(3, amount);
+        insert.setInt(4, height);
+        insert.addBatch();
+        if (id % 10_000 == 0) {
+            insert.executeBatch();
+        }
+    }
+
+    private void run(String label) {
+        for (int round = 0; round <= ROUNDS; round++) {
+            long queried = walk(false);
+            long windowed = walk(true);
+            // the first round only warms up
+            if (round == ROUNDS) {
+                System.out.printf("%s: queries %d ms, window %d ms%n", label, queried / 1_000_000, windowed / 1_000_000);
+            }
+        }
+    }
+
+    /**
+     * Walks through the incoming transactions of the AT the way A_to_Tx_after_Timestamp and Get_Timestamp_For_Tx_in_A do.
+     * @return nanoseconds the walk took
+     */
+    private long walk(boolean windowed) {
+        AtIncomingTransactions.Source source = new Source();
+        AtIncomingTransactions incomingTransactions = new AtIncomingTransactions(source, HEIGHT, 0);
+        queries = 0;
+        long start = System.nanoTime();
+        int height = 0;
+        int numOfTx = 0;
+        int found = 0;
+        long transactionId;
+        while ((transactionId = windowed ? incomingTransactions.findTransaction(height, numOfTx) : source.findTransaction(height, numOfTx)) != 0) {
+            found++;
+            height = atTransactionHeights.get(transactionId);
+            numOfTx = windowed ? incomingTransactions.findTransactionHeight(transactionId, height) : source.findTransactionHeight(transactionId, height);
+        }
+        long time = System.nanoTime() - start;
+        if (found != atTransactionHeights.size()) {
+            throw new IllegalStateException("found " + found + " of " + atTransactionHeights.size() + " transactions");
+        }
+        System.out.printf("  %s: %d transactions, %d queries%n", windowed ? "window" : "queries", found, queries);
+        return time;
+    }
+
+    /**
+     * The queries of SqlATStore, in plain SQL.
+     */
+    private final class Source implements AtIncomingTransactions.Source {
+        @Override
+        public Map<Long, Integer> load(int startHeight, int limit) {
+            queries++;
+            try (PreparedStatement statement = con.prepareStatement(LOAD)) {
+                statement.setInt(1, startHeight);
+                statement.setInt(2, HEIGHT - 1);
+                statement.setLong(3, AT_ID);
+                statement.setLong(4, 0);
+                statement.setInt(5, limit);
+                Map<Long, Integer> rows = new LinkedHashMap<>();
+                try (ResultSet result = statement.executeQuery()) {
+                    while (result.next()) {
+                        rows.put(result.getLong(1), result.getInt(2));
+                    }
+                }
+                return rows;
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public long findTransaction(int startHeight, int numOfTx) {
+            queries++;
+            try (PreparedStatement statement = con.prepareStatement(FIND_TRANSACTION)) {
+                statement.setInt(1, startHeight);
+                statement.setInt(2, HEIGHT - 1);
+                statement.setLong(3, AT_ID);
+                statement.setLong(4, 0);
+                statement.setInt(5, numOfTx < 0 ? 0 : numOfTx);
+                try (ResultSet result = statement.executeQuery()) {
+                    return result.next() ? result.getLong(1) : 0L;
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public int findTransactionHeight(long transactionId, int height) {
+            queries++;
+            try (PreparedStatement statement = con.prepareStatement(FIND_TRANSACTION_HEIGHT)) {
+                statement.setInt(1, height);
+                statement.setLong(2, AT_ID);
+                statement.setLong(3, 0);
+                int counter = 0;
+                try (ResultSet result = statement.executeQuery()) {
+                    while (result.next()) {
+                        counter++;
+                        if (result.getLong(1) == transactionId) break;
+                    }
+                }
+                return counter;
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
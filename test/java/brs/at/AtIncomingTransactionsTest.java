@@ -0,0 +1,123 @@
+package brs.at;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class AtIncomingTransactionsTest {
+
+    private static final int END_HEIGHT = 500;
+
+    // synthetic chain: ids ordered by height and id, some heights with several incoming transactions
+    private final List<long[]> transactions = new ArrayList<>();
+    private int queries;
+
+    private AtIncomingTransactions incomingTransactions;
+
+    @Before
+    public void setUp() {
+        long id = 1000;
+        for (int height = 10; height < END_HEIGHT + 20; height += 3) {
+            for (int i = 0; i < height % 4; i++) {
+                transactions.add(new long[]{id++, height});
+            }
+        }
+
+        incomingTransactions = new AtIncomingTransactions(new AtIncomingTransactions.Source() {
+            @Override
+            public Map<Long, Integer> load(int startHeight, int limit) {
+                queries++;
+                Map<Long, Integer> rows = new LinkedHashMap<>();
+                for (long[] transaction : transactions) {
+                    if (rows.size() < limit && transaction[1] >= startHeight && transaction[1] < END_HEIGHT) {
+                        rows.put(transaction[0], (int) transaction[1]);
+                    }
+                }
+                return rows;
+            }
+
+            @Override
+            public long findTransaction(int startHeight, int numOfTx) {
+                queries++;
+                return expectedTransaction(startHeight, numOfTx);
+            }
+
+            @Override
+            public int findTransactionHeight(long transactionId, int height) {
+                queries++;
+                return expectedTransactionHeight(transactionId, height);
+            }
+        }, END_HEIGHT, 0);
+    }
+
+    @Test
+    public void findTransactionMatchesQuery() {
+        for (int height = 0; height < END_HEIGHT + 10; height++) {
+            for (int numOfTx = -1; numOfTx < 5; numOfTx++) {
+                assertEquals(expectedTransaction(height, numOfTx), incomingTransactions.findTransaction(height, numOfTx));
+            }
+        }
+    }
+
+    @Test
+    public void findTransactionHeightMatchesQuery() {
+        incomingTransactions.findTransaction(0, 0);
+        for (long[] transaction : transactions) {
+            assertEquals(expectedTransactionHeight(transaction[0], (int) transaction[1]), incomingTransactions.findTransactionHeight(transaction[0], (int) transaction[1]));
+        }
+    }
+
+    @Test
+    public void walkingThroughIncomingTransactionsUsesFewQueries() {
+        int height = 0;
+        int numOfTx = 0;
+        int found = 0;
+        long transactionId;
+        while ((transactionId = incomingTransactions.findTransaction(height, numOfTx)) != 0) {
+            found++;
+            long[] transaction = find(transactionId);
+            height = (int) transaction[1];
+            numOfTx = incomingTransactions.findTransactionHeight(transactionId, height);
+        }
+
+        assertTrue(found > 100);
+        assertTrue("queries: " + queries, queries < found / 10);
+    }
+
+    private long[] find(long transactionId) {
+        for (long[] transaction : transactions) {
+            if (transaction[0] == transactionId) {
+                return transaction;
+            }
+        }
+        throw new IllegalArgumentException();
+    }
+
+    private long expectedTransaction(int startHeight, int numOfTx) {
+        int index = numOfTx < 0 ? 0 : numOfTx;
+        for (long[] transaction : transactions) {
+            if (transaction[1] >= startHeight && transaction[1] < END_HEIGHT && index-- == 0) {
+                return transaction[0];
+            }
+        }
+        return 0;
+    }
+
+    private int expectedTransactionHeight(long transactionId, int height) {
+        int counter = 0;
+        for (long[] transaction : transactions) {
+            if (transaction[1] == height) {
+                counter++;
+                if (transaction[0] == transactionId) break;
+            }
+        }
+        return counter;
+    }
+}
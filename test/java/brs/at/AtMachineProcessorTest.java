@@ -0,0 +1,202 @@
+package brs.at;
+
+import brs.Account;
+import brs.Burst;
+import brs.common.TestConstants;
+import brs.util.Convert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs the same code on the plain interpreter and with pre-decoded operands and compares the machine after every
+ * single step.
+ */
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({Burst.class, Account.class})
+public class AtMachineProcessorTest {
+
+    private static final int MAX_STEPS = 2000;
+
+    @Before
+    public void setUp() {
+        AtTestHelper.setupMocks();
+    }
+
+    @Test
+    public void testSampleAtsRunTheSameWithDecodedOperands() {
+        assertSameTrace(AtTestHelper.HELLO_WORLD_CREATION_BYTES);
+        assertSameTrace(AtTestHelper.ECHO_CREATION_BYTES);
+        assertSameTrace(AtTestHelper.TIP_THANKS_CREATION_BYTES);
+    }
+
+    @Test
+    public void testArithmeticIndexingAndCallsRunTheSameWithDecodedOperands() {
+        Code code = new Code()
+                .op(OpCode.E_OP_CODE_SET_VAL).addr(0).val(3)
+                .op(OpCode.E_OP_CODE_SET_VAL).addr(1).val(2)
+                .op(OpCode.E_OP_CODE_SET_VAL).addr(2).val(7);
+        int loop = code.position();
+        code.op(OpCode.E_OP_CODE_ADD_DAT).addr(3).addr(2)
+                // IDX_DAT and SET_IDX pick up the first operands of the instruction before them
+                .op(OpCode.E_OP_CODE_IDX_DAT).addr(4).addr(5).addr(0)
+                .op(OpCode.E_OP_CODE_SET_IDX).addr(6).addr(7).addr(1)
+                .op(OpCode.E_OP_CODE_SET_IND).addr(8).addr(1)
+                .op(OpCode.E_OP_CODE_IND_DAT).addr(1).addr(8)
+                .op(OpCode.E_OP_CODE_PSH_DAT).addr(3)
+                .op(OpCode.E_OP_CODE_POP_DAT).addr(9)
+                .op(OpCode.E_OP_CODE_DEC_DAT).addr(1);
+        code.op(OpCode.E_OP_CODE_BNZ_DAT).addr(1).off(loop - code.position());
+        int call = code.position();
+        int sub = call + 5 + 7 + 1;
+        code.op(OpCode.E_OP_CODE_JMP_SUB).addr(sub)
+                .op(OpCode.E_OP_CODE_EXT_FUN_RET).fun(0x0100).addr(10)
+                .op(OpCode.E_OP_CODE_FIN_IMD)
+                .op(OpCode.E_OP_CODE_MUL_DAT).addr(3).addr(2)
+                .op(OpCode.E_OP_CODE_RET_SUB);
+
+        List<String> trace = assertSameTrace(code.creationBytes(), loop, sub);
+        assertTrue(trace.size() > 20);
+    }
+
+    @Test
+    public void testInvalidIndexFailsTheSameWithDecodedOperands() {
+        Code code = new Code()
+                .op(OpCode.E_OP_CODE_SET_VAL).addr(0).val(40)
+                .op(OpCode.E_OP_CODE_SET_IDX).addr(1).addr(2).addr(0);
+
+        assertFailsTheSame(code.creationBytes());
+    }
+
+    @Test
+    public void testInvalidDataAddressFailsTheSameWithDecodedOperands() {
+        Code code = new Code()
+                .op(OpCode.E_OP_CODE_SET_VAL).addr(0).val(1)
+                .op(OpCode.E_OP_CODE_SET_DAT).addr(0).addr(5000);
+
+        assertFailsTheSame(code.creationBytes());
+    }
+
+    @Test
+    public void testOperandsPastTheCodeFailTheSameWithDecodedOperands() {
+        Code code = new Code();
+        while (code.position() < 250) {
+            code.op(OpCode.E_OP_CODE_NOP);
+        }
+        code.op(OpCode.E_OP_CODE_SET_VAL).addr(0);
+
+        assertFailsTheSame(code.creationBytes());
+    }
+
+    @Test
+    public void testUnknownOpCodeFailsTheSameWithDecodedOperands() {
+        Code code = new Code()
+                .op(OpCode.E_OP_CODE_SET_VAL).addr(0).val(1)
+                .op((byte) 0x19);
+
+        assertFailsTheSame(code.creationBytes());
+    }
+
+    private static void assertFailsTheSame(byte[] creationBytes) {
+        List<String> trace = assertSameTrace(creationBytes);
+        assertTrue(trace.get(trace.size() - 1).startsWith("-"));
+    }
+
+    /**
+     * Runs the code on the plain interpreter, then twice with the same decoded code: the first run decodes the
+     * operands and the second one only replays them.
+     * @param jumps the jump targets of the code, determined by disassembling it if there are none
+     * @return the trace of the run
+     */
+    private static List<String> assertSameTrace(byte[] creationBytes, Integer... jumps) {
+        List<String> expected = trace(creationBytes, null, jumps);
+        AtDecodedCode decodedCode = new AtDecodedCode(newState(creationBytes).getcSize());
+        assertEquals(expected, trace(creationBytes, decodedCode, jumps));
+        assertEquals(expected, trace(creationBytes, decodedCode, jumps));
+        return expected;
+    }
+
+    /**
+     * @return result code, machine state and data of the machine after every step, until it fails or stops
+     */
+    private static List<String> trace(byte[] creationBytes, AtDecodedCode decodedCode, Integer... jumps) {
+        AtMachineState state = newState(creationBytes);
+        if (jumps.length == 0) {
+            AtController.resetMachine(state);
+        } else {
+            state.getMachineState().reset();
+            state.getMachineState().jumps.addAll(Arrays.asList(jumps));
+        }
+        state.getMachineState().running = true;
+        state.getMachineState().stopped = false;
+        state.setgBalance(TestConstants.TEN_BURST);
+
+        AtMachineProcessor processor = decodedCode == null ? new AtMachineProcessor(state, false) : null;
+        AtPreDecodedMachineProcessor preDecodedProcessor = decodedCode == null ? null : new AtPreDecodedMachineProcessor(state, false, decodedCode);
+        List<String> trace = new ArrayList<>();
+        for (int step = 0; step < MAX_STEPS; step++) {
+            int rc = processor != null ? processor.processOp(false, false) : preDecodedProcessor.processOp(false, false);
+            trace.add(rc + " " + Convert.toHexString(state.getMachineState().getMachineStateBytes()) + " " + Convert.toHexString(state.getApDataBytes()));
+            if (rc < 0 || state.getMachineState().stopped || state.getMachineState().finished || state.getMachineState().dead) {
+                break;
+            }
+        }
+        return trace;
+    }
+
+    private static AtMachineState newState(byte[] creationBytes) {
+        return new AtMachineState(AtApiHelper.getByteArray(1L), AtApiHelper.getByteArray(TestConstants.TEST_ACCOUNT_NUMERIC_ID_PARSED),
+                creationBytes, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Assembles AT code of a single page.
+     */
+    private static final class Code {
+        private final ByteBuffer code = ByteBuffer.allocate(255).order(ByteOrder.LITTLE_ENDIAN);
+
+        int position() {
+            return code.position();
+        }
+
+        Code op(byte op) {
+            code.put(op);
+            return this;
+        }
+
+        Code addr(int addr) {
+            code.putInt(addr);
+            return this;
+        }
+
+        Code val(long val) {
+            code.putLong(val);
+            return this;
+        }
+
+        Code off(int off) {
+            code.put((byte) off);
+            return this;
+        }
+
+        Code fun(int fun) {
+            code.putShort((short) fun);
+            return this;
+        }
+
+        byte[] creationBytes() {
+            return AtTestHelper.getCreationBytes(1, Arrays.copyOf(code.array(), code.position()));
+        }
+    }
+}
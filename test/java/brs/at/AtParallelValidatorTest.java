@@ -0,0 +1,82 @@
+package brs.at;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@RunWith(JUnit4.class)
+public class AtParallelValidatorTest {
+
+    @Test
+    public void readsOfTheTasksRunOnTheCallingThread() throws Exception {
+        Thread caller = Thread.currentThread();
+        List<Callable<Thread>> tasks = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            tasks.add(() -> AtParallelValidator.onTransactionThread(Thread::currentThread));
+        }
+
+        for (Future<Thread> result : AtParallelValidator.runAll(tasks)) {
+            assertTrue(result.isDone());
+            assertSame(caller, result.get());
+        }
+    }
+
+    @Test
+    public void resultsAreInTheOrderOfTheTasks() throws Exception {
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            int value = i;
+            tasks.add(() -> AtParallelValidator.onTransactionThread(() -> value));
+        }
+
+        List<Integer> values = new ArrayList<>();
+        for (Future<Integer> result : AtParallelValidator.runAll(tasks)) {
+            values.add(result.get());
+        }
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), values);
+    }
+
+    @Test
+    public void readsOutsideOfATaskRunDirectly() {
+        assertSame(Thread.currentThread(), AtParallelValidator.onTransactionThread(Thread::currentThread));
+    }
+
+    @Test
+    public void interruptingTheCallerReleasesWorkersWaitingForARead() throws Exception {
+        CountDownLatch finished = new CountDownLatch(1);
+        Callable<Integer> task = () -> {
+            try {
+                // the first read interrupts the calling thread, so nobody serves the second one
+                AtParallelValidator.onTransactionThread(() -> {
+                    Thread.currentThread().interrupt();
+                    return 1;
+                });
+                return AtParallelValidator.onTransactionThread(() -> 2);
+            } finally {
+                finished.countDown();
+            }
+        };
+
+        try {
+            AtParallelValidator.runAll(Arrays.asList(task, () -> 3));
+            fail("runAll should have been interrupted");
+        } catch (InterruptedException e) {
+            // expected
+        }
+
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,65 @@
+package brs.at;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class AtStateCodecTest {
+
+    private static byte[] sampleState() {
+        // mostly zeroed data pages with a few live values, like the states of typical ATs
+        byte[] state = new byte[4096];
+        Random random = new Random(42);
+        for (int i = 0; i < 200; i++) {
+            state[random.nextInt(state.length)] = (byte) random.nextInt();
+        }
+        return state;
+    }
+
+    @Test
+    public void roundTripsEveryCodec() {
+        byte[] state = sampleState();
+        for (AtStateCodec.Codec codec : AtStateCodec.Codec.values()) {
+            assertArrayEquals(codec.name(), state, AtStateCodec.decode(AtStateCodec.encode(state, codec)));
+        }
+    }
+
+    @Test
+    public void readsLegacyGzipRows() {
+        byte[] state = sampleState();
+        byte[] legacy = AtStateCodec.encode(state, AtStateCodec.Codec.GZIP);
+        assertEquals((byte) 0x1f, legacy[0]);
+        assertEquals((byte) 0x8b, legacy[1]);
+        assertArrayEquals(state, AtStateCodec.decode(legacy));
+    }
+
+    @Test
+    public void fallsBackToStoredForIncompressibleData() {
+        byte[] state = new byte[512];
+        new Random(7).nextBytes(state);
+        byte[] encoded = AtStateCodec.encode(state);
+        assertTrue(encoded.length <= state.length + 6);
+        assertArrayEquals(state, AtStateCodec.decode(encoded));
+    }
+
+    @Test
+    public void compressesSparseStates() {
+        byte[] state = sampleState();
+        assertTrue(AtStateCodec.encode(state).length < state.length / 4);
+    }
+
+    @Test
+    public void resolvesCodecByName() {
+        assertEquals(AtStateCodec.Codec.DEFLATE_FAST, AtStateCodec.Codec.byName("deflate-fast"));
+        assertEquals(AtStateCodec.Codec.GZIP, AtStateCodec.Codec.byName(" GZIP "));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUnknownHeader() {
+        AtStateCodec.decode(new byte[]{1, 2, 3, 4, 5, 6, 7});
+    }
+}
@@ -0,0 +1,67 @@
+package brs.common;
+
+import brs.Burst;
+import brs.db.cache.DBCacheManagerImpl;
+import brs.db.sql.Db;
+import brs.props.PropertyService;
+import brs.props.PropertyServiceImpl;
+import brs.props.Props;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.runner.RunWith;
+import org.powermock.core.classloader.annotations.PowerMockIgnore;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.Properties;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.powermock.api.mockito.PowerMockito.mockStatic;
+
+/**
+ * Runs each test against a freshly migrated in-memory H2 database.
+ */
+@RunWith(PowerMockRunner.class)
+@PrepareForTest(Burst.class)
+@PowerMockIgnore({"javax.management.*", "javax.net.ssl.*"})
+public abstract class AbstractDbTest {
+
+  protected PropertyService propertyService;
+
+  @Before
+  public void setUpDb() {
+    propertyService = new PropertyServiceImpl(testProperties());
+    mockStatic(Burst.class);
+    when(Burst.getPropertyService()).thenReturn(propertyService);
+    Db.init(propertyService, mock(DBCacheManagerImpl.class));
+  }
+
+  @After
+  public void shutdownDb() {
+    Db.shutdown();
+  }
+
+  protected Properties testProperties() {
+    final Properties props = new Properties();
+
+    props.setProperty(Props.DEV_TESTNET.getName(), "true");
+    props.setProperty(Props.DEV_DB_URL.getName(), TestInfrastructure.IN_MEMORY_DB_URL);
+    props.setProperty(Props.DB_CONNECTIONS.getName(), "2");
+
+    return props;
+  }
+
+  /**
+   * Runs the given action in a database transaction and commits it.
+   */
+  protected static void inTransaction(Runnable action) {
+    Db.beginTransaction();
+    try {
+      action.run();
+      Db.commitTransaction();
+    } finally {
+      Db.endTransaction();
+    }
+  }
+}
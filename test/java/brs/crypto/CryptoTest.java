@@ -9,6 +9,7 @@ import org.junit.runners.JUnit4;
 
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
+import java.util.BitSet;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
@@ -80,6 +81,31 @@ public class CryptoTest {
         assertTrue(Crypto.verify(Convert.parseHexString("46ab525630fd4f2266d78309a04153dd7d69c8d3c77765956eff1b86cc4e5a0d8d0d8df1cfe8300617551361b99f54b5db7afbd8ffa0a21ddcdac2cfdec57b71"), stringToBytes("Burst Apps Team"), publicKey, true));
     }
 
+    @Test
+    public void testCryptoVerifyBatch() {
+        int size = 40;
+        byte[][] signatures = new byte[size][];
+        byte[][] messages = new byte[size][];
+        byte[][] publicKeys = new byte[size][];
+        boolean[] enforceCanonical = new boolean[size];
+        byte[] publicKey = Crypto.getPublicKey(TestConstants.TEST_SECRET_PHRASE);
+        for (int i = 0; i < size; i++) {
+            messages[i] = stringToBytes("Message " + i);
+            signatures[i] = Crypto.sign(messages[i], TestConstants.TEST_SECRET_PHRASE);
+            publicKeys[i] = publicKey;
+            enforceCanonical[i] = true;
+        }
+        messages[3] = stringToBytes("Tampered");
+        signatures[17] = null;
+        publicKeys[39] = Crypto.getPublicKey("Testing");
+
+        BitSet failed = Crypto.verifyBatch(signatures, messages, publicKeys, enforceCanonical);
+        assertEquals(3, failed.cardinality());
+        assertTrue(failed.get(3));
+        assertTrue(failed.get(17));
+        assertTrue(failed.get(39));
+    }
+
     // TODO test AES encrypt / decrypt & getSharedSecret
 
     @Test
@@ -0,0 +1,202 @@
+package brs.db.sql;
+
+import brs.Block;
+import brs.Blockchain;
+import brs.Burst;
+import brs.common.AbstractDbTest;
+import brs.common.QuickMocker;
+import brs.common.TestConstants;
+import brs.db.BurstKey;
+import brs.db.store.DerivedTableManager;
+import org.jooq.Field;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeMap;
+
+import static brs.schema.Tables.ACCOUNT;
+import static brs.schema.Tables.AT;
+import static brs.schema.Tables.AT_STATE;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Compares the ATs scheduled by the index with the ones the at/at_state/account query finds, while blocks are
+ * pushed, popped and pushed again.
+ */
+public class ATScheduleIndexTest extends AbstractDbTest {
+
+    private static final long FUNDED = TestConstants.TEN_BURST;
+
+    // block id by height
+    private final TreeMap<Integer, Long> chain = new TreeMap<>();
+    private Block lastBlock;
+
+    private SqlATStore t;
+
+    @Before
+    public void setUp() {
+        Blockchain blockchain = mock(Blockchain.class);
+        when(blockchain.getLastBlock()).thenAnswer(invocation -> lastBlock);
+        when(blockchain.getHeight()).thenAnswer(invocation -> chain.lastKey());
+        when(blockchain.getBlockIdAtHeight(anyInt())).thenAnswer(invocation -> chain.getOrDefault(invocation.<Integer>getArgument(0), 0L));
+        when(Burst.getBlockchain()).thenReturn(blockchain);
+        when(Burst.getFluxCapacitor()).thenReturn(QuickMocker.latestValueFluxCapacitor());
+
+        t = new SqlATStore(new DerivedTableManager());
+        push(0, 100L);
+    }
+
+    private void push(int height, long blockId) {
+        chain.put(height, blockId);
+        Block block = mock(Block.class);
+        when(block.getHeight()).thenReturn(height);
+        when(block.getId()).thenReturn(blockId);
+        lastBlock = block;
+    }
+
+    private void pop(int height) {
+        inTransaction(() -> {
+            VersionedEntitySqlTable.rollback("at", AT, AT.HEIGHT, AT.LATEST, height, keyFactory(AT.ID));
+            VersionedEntitySqlTable.rollback("at_state", AT_STATE, AT_STATE.HEIGHT, AT_STATE.LATEST, height, keyFactory(AT_STATE.AT_ID));
+            VersionedEntitySqlTable.rollback("account", ACCOUNT, ACCOUNT.HEIGHT, ACCOUNT.LATEST, height, keyFactory(ACCOUNT.ID));
+        });
+        chain.tailMap(height, false).clear();
+        push(height, chain.get(height));
+    }
+
+    private static DbKey.LongKeyFactory<Object> keyFactory(Field<Long> idColumn) {
+        return new DbKey.LongKeyFactory<Object>(idColumn) {
+            @Override
+            public BurstKey newKey(Object entity) {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    private static void createAt(long id, int height, long balance) {
+        Db.useDSLContext(ctx -> {
+            ctx.insertInto(AT, AT.ID, AT.CREATOR_ID, AT.VERSION, AT.CSIZE, AT.DSIZE, AT.C_USER_STACK_BYTES, AT.C_CALL_STACK_BYTES,
+                AT.CREATION_HEIGHT, AT.AP_CODE, AT.HEIGHT, AT.LATEST)
+                .values(id, 1L, (short) 2, 256, 256, 256, 256, height, new byte[0], height, true).execute();
+        });
+        setBalance(id, height, balance);
+    }
+
+    private static void setState(long atId, int height, int prevHeight, int nextHeight, long prevBalance, boolean freezeWhenSameBalance,
+                                 long minActivationAmount) {
+        Db.useDSLContext(ctx -> {
+            ctx.update(AT_STATE).set(AT_STATE.LATEST, false).where(AT_STATE.AT_ID.eq(atId)).and(AT_STATE.LATEST.isTrue()).execute();
+            ctx.insertInto(AT_STATE, AT_STATE.AT_ID, AT_STATE.STATE, AT_STATE.PREV_HEIGHT, AT_STATE.NEXT_HEIGHT, AT_STATE.SLEEP_BETWEEN,
+                AT_STATE.PREV_BALANCE, AT_STATE.FREEZE_WHEN_SAME_BALANCE, AT_STATE.MIN_ACTIVATE_AMOUNT, AT_STATE.HEIGHT, AT_STATE.LATEST)
+                .values(atId, new byte[0], prevHeight, nextHeight, 0, prevBalance, freezeWhenSameBalance, minActivationAmount, height, true)
+                .execute();
+        });
+    }
+
+    private static void setBalance(long id, int height, long balance) {
+        Db.useDSLContext(ctx -> {
+            ctx.update(ACCOUNT).set(ACCOUNT.LATEST, false).where(ACCOUNT.ID.eq(id)).and(ACCOUNT.LATEST.isTrue()).execute();
+            ctx.insertInto(ACCOUNT, ACCOUNT.ID, ACCOUNT.CREATION_HEIGHT, ACCOUNT.BALANCE, ACCOUNT.UNCONFIRMED_BALANCE, ACCOUNT.FORGED_BALANCE,
+                ACCOUNT.HEIGHT, ACCOUNT.LATEST)
+                .values(id, 0, balance, balance, 0L, height, true).execute();
+        });
+    }
+
+    /**
+     * Asserts that the index and the query, which is used inside a transaction, schedule the expected ATs.
+     */
+    private void assertScheduled(Long... expected) {
+        List<Long> fromQuery = new ArrayList<>();
+        inTransaction(() -> fromQuery.addAll(t.getOrderedATs()));
+        assertEquals(Arrays.asList(expected), fromQuery);
+        assertEquals(fromQuery, t.getOrderedATs());
+    }
+
+    @Test
+    public void indexMatchesTheQueryAsBlocksArePushed() {
+        createAt(1L, 1, FUNDED);
+        setState(1L, 1, 1, 2, 0, false, 0);
+        createAt(2L, 1, 0);
+        setState(2L, 1, 1, 2, 0, false, 0);
+        push(1, 101L);
+        assertScheduled(1L);
+
+        // 3 is created later but has run longer ago, 1 goes to sleep and 2 gets funded
+        createAt(3L, 2, FUNDED);
+        setState(3L, 2, 0, 3, 0, false, 0);
+        setState(1L, 2, 2, 10, FUNDED, false, 0);
+        setBalance(2L, 2, FUNDED);
+        push(2, 102L);
+        assertScheduled(3L, 2L);
+    }
+
+    @Test
+    public void indexFollowsBalancesOfFrozenAts() {
+        createAt(1L, 1, FUNDED);
+        setState(1L, 1, 1, 2, FUNDED, true, FUNDED);
+        push(1, 101L);
+        assertScheduled();
+
+        // the balance alone is not written to at_state, but has to wake the AT up
+        setBalance(1L, 2, 2 * FUNDED);
+        push(2, 102L);
+        assertScheduled(1L);
+    }
+
+    @Test
+    public void indexMatchesTheQueryAfterPopAndRePush() {
+        createAt(1L, 1, FUNDED);
+        setState(1L, 1, 1, 2, 0, false, 0);
+        createAt(2L, 1, FUNDED);
+        setState(2L, 1, 1, 2, 0, false, 0);
+        push(1, 101L);
+        assertScheduled(1L, 2L);
+
+        setState(1L, 2, 2, 10, FUNDED, false, 0);
+        createAt(3L, 2, FUNDED);
+        setState(3L, 2, 2, 3, 0, false, 0);
+        push(2, 102L);
+        assertScheduled(2L, 3L);
+
+        pop(1);
+        assertScheduled(1L, 2L);
+
+        // a different block at the same height
+        setState(2L, 2, 2, 20, FUNDED, false, 0);
+        push(2, 202L);
+        assertScheduled(1L);
+
+        // popped and pushed again without a lookup in between
+        pop(1);
+        setState(1L, 2, 2, 30, FUNDED, false, 0);
+        push(2, 302L);
+        createAt(4L, 3, FUNDED);
+        setState(4L, 3, 3, 4, 0, false, 0);
+        push(3, 303L);
+        assertScheduled(2L, 4L);
+    }
+
+    @Test
+    public void indexRereadsTheLastIndexedBlockWhenItIsPushedAgain() {
+        createAt(1L, 1, FUNDED);
+        setState(1L, 1, 1, 2, 0, false, 0);
+        push(1, 101L);
+        createAt(2L, 2, FUNDED);
+        setState(2L, 2, 2, 3, 0, false, 0);
+        push(2, 102L);
+        assertScheduled(1L, 2L);
+
+        pop(1);
+        // the same block pushed again, with the at_state rows written once more
+        createAt(2L, 2, FUNDED);
+        setState(2L, 2, 2, 10, FUNDED, false, 0);
+        push(2, 102L);
+        assertScheduled(1L);
+    }
+}
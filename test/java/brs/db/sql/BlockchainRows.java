@@ -0,0 +1,53 @@
+package brs.db.sql;
+
+import java.nio.ByteBuffer;
+
+import static brs.schema.Tables.BLOCK;
+import static brs.schema.Tables.TRANSACTION;
+
+/**
+ * Writes minimal block and transaction rows, blocks get the id {@link #blockId(int)} and a timestamp growing with
+ * their height.
+ */
+final class BlockchainRows {
+
+    private BlockchainRows() {
+    }
+
+    static long blockId(int height) {
+        return 1_000_000L + height;
+    }
+
+    static int blockTimestamp(int height) {
+        return 10 * height;
+    }
+
+    /**
+     * @param previousHeight height of the block this one follows, -1 for the first block
+     */
+    static void insertBlock(int height, int previousHeight) {
+        Db.useDSLContext(ctx -> {
+            ctx.insertInto(BLOCK, BLOCK.ID, BLOCK.VERSION, BLOCK.TIMESTAMP, BLOCK.PREVIOUS_BLOCK_ID, BLOCK.TOTAL_AMOUNT, BLOCK.TOTAL_FEE,
+                BLOCK.PAYLOAD_LENGTH, BLOCK.GENERATOR_PUBLIC_KEY, BLOCK.CUMULATIVE_DIFFICULTY, BLOCK.BASE_TARGET, BLOCK.HEIGHT,
+                BLOCK.GENERATION_SIGNATURE, BLOCK.BLOCK_SIGNATURE, BLOCK.PAYLOAD_HASH, BLOCK.GENERATOR_ID, BLOCK.NONCE)
+                .values(blockId(height), 3, blockTimestamp(height), previousHeight < 0 ? null : blockId(previousHeight), 0L, 0L,
+                    0, new byte[32], new byte[1], 1L, height,
+                    new byte[32], new byte[64], new byte[32], 1L, 0L)
+                .execute();
+            if (previousHeight >= 0) {
+                ctx.update(BLOCK).set(BLOCK.NEXT_BLOCK_ID, blockId(height)).where(BLOCK.ID.eq(blockId(previousHeight))).execute();
+            }
+        });
+    }
+
+    static void insertTransaction(long id, int height, long senderId, long recipientId) {
+        Db.useDSLContext(ctx -> {
+            ctx.insertInto(TRANSACTION, TRANSACTION.ID, TRANSACTION.DEADLINE, TRANSACTION.SENDER_PUBLIC_KEY, TRANSACTION.RECIPIENT_ID,
+                TRANSACTION.AMOUNT, TRANSACTION.FEE, TRANSACTION.HEIGHT, TRANSACTION.BLOCK_ID, TRANSACTION.TIMESTAMP, TRANSACTION.TYPE,
+                TRANSACTION.SUBTYPE, TRANSACTION.SENDER_ID, TRANSACTION.BLOCK_TIMESTAMP, TRANSACTION.FULL_HASH, TRANSACTION.VERSION)
+                .values(id, (short) 1440, new byte[32], recipientId, 1L, 1L, height, blockId(height), blockTimestamp(height), (byte) 0,
+                    (byte) 0, senderId, blockTimestamp(height), ByteBuffer.allocate(32).putLong(id).array(), (byte) 1)
+                .execute();
+        });
+    }
+}
@@ -0,0 +1,193 @@
+package brs.db.sql;
+
+import brs.Account;
+import brs.Blockchain;
+import brs.Burst;
+import brs.common.AbstractDbTest;
+import brs.db.BurstKey;
+import brs.db.cache.DBCacheManagerImpl;
+import brs.db.store.DerivedTableManager;
+import brs.services.TimeService;
+import brs.statistics.StatisticsManagerImpl;
+import org.ehcache.Cache;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static brs.schema.Tables.ACCOUNT;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SqlAccountStoreTest extends AbstractDbTest {
+
+    private static final int CACHE_SIZE = 2;
+    private static final int HEIGHT = 10;
+
+    private SqlAccountStore t;
+
+    @Before
+    public void setUp() {
+        Blockchain blockchain = mock(Blockchain.class);
+        when(blockchain.getHeight()).thenReturn(HEIGHT);
+        when(Burst.getBlockchain()).thenReturn(blockchain);
+
+        DBCacheManagerImpl dbCacheManager = new DBCacheManagerImpl(new StatisticsManagerImpl(mock(TimeService.class)), CACHE_SIZE);
+        t = new SqlAccountStore(new DerivedTableManager(), dbCacheManager);
+    }
+
+    private static void insertAccount(long id, int height, long balance, boolean latest) {
+        Db.useDSLContext(ctx -> {
+            ctx.insertInto(ACCOUNT, ACCOUNT.ID, ACCOUNT.CREATION_HEIGHT, ACCOUNT.KEY_HEIGHT, ACCOUNT.BALANCE, ACCOUNT.UNCONFIRMED_BALANCE,
+                ACCOUNT.FORGED_BALANCE, ACCOUNT.HEIGHT, ACCOUNT.LATEST)
+                .values(id, 0, 0, balance, balance, 0L, height, latest).execute();
+        });
+    }
+
+    /**
+     * @return balance of every cached account by account id
+     */
+    private Map<Long, Long> cachedBalances() {
+        Map<Long, Long> balances = new HashMap<>();
+        @SuppressWarnings("unchecked")
+        Cache<BurstKey, Account> cache = t.getAccountTable().getCache();
+        for (Cache.Entry<BurstKey, Account> entry : cache) {
+            balances.put(entry.getKey().getPKValues()[0], entry.getValue().getBalanceNQT());
+        }
+        return balances;
+    }
+
+    @Test
+    public void preloadCacheLoadsTheLatestVersionOfTheMostRecentlyChangedAccounts() {
+        insertAccount(1L, 1, 10, false);
+        insertAccount(1L, 5, 15, true);
+        insertAccount(2L, 3, 20, true);
+        insertAccount(3L, 2, 30, false);
+        insertAccount(3L, 7, 35, true);
+
+        t.getAccountTable().preloadCache(CACHE_SIZE);
+
+        Map<Long, Long> expected = new HashMap<>();
+        expected.put(1L, 15L);
+        expected.put(3L, 35L);
+        assertEquals(expected, cachedBalances());
+    }
+
+    @Test
+    public void preloadCacheOfAnEmptyTableLeavesTheCacheEmpty() {
+        t.getAccountTable().preloadCache(CACHE_SIZE);
+
+        assertTrue(cachedBalances().isEmpty());
+    }
+
+    @Test
+    public void cacheHoldsNoMoreAccountsThanConfigured() {
+        for (long id = 1; id <= 5; id++) {
+            insertAccount(id, (int) id, id, true);
+        }
+
+        t.getAccountTable().preloadCache(5);
+
+        assertTrue(cachedBalances().size() <= CACHE_SIZE);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void preloadCacheIsNotAllowedInATransaction() {
+        inTransaction(() -> t.getAccountTable().preloadCache(CACHE_SIZE));
+    }
+
+    private Account account(long id) {
+        return t.getAccountTable().get(t.getAccountKeyFactory().newKey(id));
+    }
+
+    private static void deleteAllAccountRows() {
+        Db.useDSLContext(ctx -> {
+            ctx.deleteFrom(ACCOUNT).execute();
+        });
+    }
+
+    @Test
+    public void accountsHeldInMemoryAreReadWithoutTheDatabase() {
+        insertAccount(1L, 1, 10, false);
+        insertAccount(1L, 5, 15, true);
+        for (long id = 2; id <= 5; id++) {
+            insertAccount(id, (int) id, id * 10, true);
+        }
+
+        t.getAccountTable().loadAllIntoMemory();
+        deleteAllAccountRows();
+
+        assertEquals(15, account(1L).getBalanceNQT());
+        for (long id = 2; id <= 5; id++) {
+            assertEquals(id * 10, account(id).getBalanceNQT());
+        }
+        assertNull(account(6L));
+    }
+
+    @Test
+    public void changesToAccountsHeldInMemoryArePublishedOnCommit() {
+        insertAccount(1L, 1, 10, true);
+        t.getAccountTable().loadAllIntoMemory();
+        Account committed = account(1L);
+
+        inTransaction(() -> {
+            Account changed = account(1L);
+            assertNotSame(committed, changed);
+            changed.setBalanceNQT(20);
+            t.getAccountTable().insert(changed);
+            t.getAccountTable().finish();
+
+            assertEquals(20, account(1L).getBalanceNQT());
+            assertEquals(10, committed.getBalanceNQT());
+        });
+
+        assertEquals(20, account(1L).getBalanceNQT());
+        deleteAllAccountRows();
+        t.getAccountTable().flushCache();
+        assertNull(account(1L));
+    }
+
+    @Test
+    public void changesOfARolledBackTransactionAreNotHeldInMemory() {
+        insertAccount(1L, 1, 10, true);
+        t.getAccountTable().loadAllIntoMemory();
+
+        Db.beginTransaction();
+        try {
+            Account changed = account(1L);
+            changed.setBalanceNQT(20);
+            t.getAccountTable().insert(changed);
+            t.getAccountTable().finish();
+            Db.rollbackTransaction();
+        } finally {
+            Db.endTransaction();
+        }
+
+        assertEquals(10, account(1L).getBalanceNQT());
+    }
+
+    @Test
+    public void rollbackRestoresTheAccountsHeldInMemoryToTheHeight() {
+        insertAccount(1L, 1, 10, false);
+        insertAccount(1L, 5, 15, true);
+        insertAccount(2L, 6, 20, true);
+        insertAccount(3L, 2, 30, true);
+        t.getAccountTable().loadAllIntoMemory();
+
+        inTransaction(() -> {
+            t.getAccountTable().rollback(3);
+
+            assertEquals(10, account(1L).getBalanceNQT());
+            assertNull(account(2L));
+        });
+
+        assertEquals(10, account(1L).getBalanceNQT());
+        assertNull(account(2L));
+        assertEquals(30, account(3L).getBalanceNQT());
+    }
+}
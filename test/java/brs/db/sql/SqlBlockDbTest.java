@@ -0,0 +1,88 @@
+package brs.db.sql;
+
+import brs.common.AbstractDbTest;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static brs.db.sql.BlockchainRows.blockId;
+import static brs.db.sql.BlockchainRows.insertBlock;
+import static brs.db.sql.BlockchainRows.insertTransaction;
+import static brs.schema.Tables.BLOCK;
+import static brs.schema.Tables.TRANSACTION;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SqlBlockDbTest extends AbstractDbTest {
+
+    private SqlBlockDb t;
+
+    @Before
+    public void setUp() {
+        for (int height = 0; height < 5; height++) {
+            insertBlock(height, height - 1);
+            insertTransaction(100 + height, height, 1L, 2L);
+            insertTransaction(200 + height, height, 2L, 1L);
+        }
+
+        t = new SqlBlockDb();
+    }
+
+    private static List<Integer> blockHeights() {
+        return Db.useDSLContext(ctx -> {
+            return ctx.select(BLOCK.HEIGHT).from(BLOCK).orderBy(BLOCK.HEIGHT).fetch(BLOCK.HEIGHT);
+        });
+    }
+
+    private static List<Integer> transactionHeights() {
+        return Db.useDSLContext(ctx -> {
+            return ctx.select(TRANSACTION.HEIGHT).from(TRANSACTION).orderBy(TRANSACTION.HEIGHT).fetch(TRANSACTION.HEIGHT);
+        });
+    }
+
+    private static Long nextBlockId(int height) {
+        return Db.useDSLContext(ctx -> {
+            return ctx.select(BLOCK.NEXT_BLOCK_ID).from(BLOCK).where(BLOCK.HEIGHT.eq(height)).fetchOne(BLOCK.NEXT_BLOCK_ID);
+        });
+    }
+
+    @Test
+    public void deleteBlocksFromDeletesTheBlockAndAllLaterBlocksWithTheirTransactions() {
+        t.deleteBlocksFrom(blockId(3));
+
+        assertEquals(Arrays.asList(0, 1, 2), blockHeights());
+        assertEquals(Arrays.asList(0, 0, 1, 1, 2, 2), transactionHeights());
+        assertFalse(t.hasBlock(blockId(3)));
+        assertFalse(t.hasBlock(blockId(4)));
+    }
+
+    @Test
+    public void deleteBlocksFromUnlinksTheNewLastBlock() {
+        assertEquals(Long.valueOf(blockId(3)), nextBlockId(2));
+
+        t.deleteBlocksFrom(blockId(3));
+
+        assertNull(nextBlockId(2));
+        assertEquals(Long.valueOf(blockId(2)), nextBlockId(1));
+    }
+
+    @Test
+    public void deleteBlocksFromIsPartOfTheCurrentTransaction() {
+        Db.beginTransaction();
+        try {
+            t.deleteBlocksFrom(blockId(1));
+            assertEquals(Arrays.asList(0), blockHeights());
+            Db.rollbackTransaction();
+        } finally {
+            Db.endTransaction();
+        }
+
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4), blockHeights());
+        assertEquals(10, transactionHeights().size());
+        assertTrue(t.hasBlock(blockId(4)));
+    }
+}
@@ -0,0 +1,158 @@
+package brs.db.sql;
+
+import brs.Account;
+import brs.Blockchain;
+import brs.Burst;
+import brs.Transaction;
+import brs.common.AbstractDbTest;
+import brs.db.BlockDb;
+import brs.db.TransactionDb;
+import brs.db.store.Dbs;
+import brs.db.store.IndirectIncomingStore;
+import brs.props.PropertyServiceImpl;
+import brs.props.Props;
+import brs.schema.tables.records.TransactionRecord;
+import org.jooq.SQLDialect;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.stream.Collectors;
+
+import static brs.db.sql.BlockchainRows.blockTimestamp;
+import static brs.db.sql.BlockchainRows.insertBlock;
+import static brs.db.sql.BlockchainRows.insertTransaction;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Compares the account history read in height windows of growing size with the one read in a single query.
+ */
+public class SqlBlockchainStoreTest extends AbstractDbTest {
+
+    private static final long ACCOUNT_ID = 1L;
+    private static final long OTHER_ACCOUNT_ID = 9L;
+    private static final int PARTITION_SIZE = 1000;
+    private static final int CHAIN_HEIGHT = 3950;
+
+    // transactions of the account by height, two of them in the same block
+    private static final int[] HEIGHTS = {5, 1100, 1150, 2300, 2300, 2900, 3100, 3950};
+
+    private final Map<Long, Transaction> stored = new HashMap<>();
+    private Account account;
+
+    private SqlBlockchainStore t;
+
+    @Before
+    public void setUp() throws Exception {
+        Blockchain blockchain = mock(Blockchain.class);
+        when(blockchain.getHeight()).thenReturn(CHAIN_HEIGHT);
+        when(Burst.getBlockchain()).thenReturn(blockchain);
+
+        TransactionDb transactionDb = mock(TransactionDb.class);
+        when(transactionDb.loadTransaction(any())).thenAnswer(invocation -> stored.get(invocation.<TransactionRecord>getArgument(0).getId()));
+        Dbs dbs = mock(Dbs.class);
+        when(dbs.getTransactionDb()).thenReturn(transactionDb);
+        when(dbs.getBlockDb()).thenReturn(mock(BlockDb.class));
+        when(Burst.getDbs()).thenReturn(dbs);
+
+        int previousHeight = -1;
+        long id = 1;
+        for (int height = 0; height <= CHAIN_HEIGHT; height += 50) {
+            insertBlock(height, previousHeight);
+            previousHeight = height;
+            // somebody else's history in every block
+            store(id++, height, OTHER_ACCOUNT_ID, OTHER_ACCOUNT_ID + 1);
+        }
+        insertBlock(5, 0);
+        for (int i = 0; i < HEIGHTS.length; i++) {
+            if (i % 2 == 0) {
+                store(id++, HEIGHTS[i], ACCOUNT_ID, OTHER_ACCOUNT_ID);
+            } else {
+                store(id++, HEIGHTS[i], OTHER_ACCOUNT_ID, ACCOUNT_ID);
+            }
+        }
+
+        account = mock(Account.class);
+        when(account.getId()).thenReturn(ACCOUNT_ID);
+
+        t = new SqlBlockchainStore(mock(IndirectIncomingStore.class));
+    }
+
+    private void store(long id, int height, long senderId, long recipientId) {
+        insertTransaction(id, height, senderId, recipientId);
+        Transaction transaction = mock(Transaction.class);
+        when(transaction.getId()).thenReturn(id);
+        when(transaction.getHeight()).thenReturn(height);
+        stored.put(id, transaction);
+    }
+
+    private void splitByHeight(boolean partitionByHeight) {
+        Properties properties = new Properties();
+        properties.setProperty(Props.DB_PARTITION_BY_HEIGHT.getName(), Boolean.toString(partitionByHeight));
+        properties.setProperty(Props.DB_PARTITION_SIZE.getName(), Integer.toString(PARTITION_SIZE));
+        HeightPartitions.init(new PropertyServiceImpl(properties), SQLDialect.H2);
+    }
+
+    private List<Integer> heights(int numberOfConfirmations, int blockTimestamp, int from, int to) {
+        return t.getTransactions(account, numberOfConfirmations, (byte) -1, (byte) -1, blockTimestamp, from, to, false).stream()
+            .map(Transaction::getHeight)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Asserts that the windowed query returns the expected page, and the same as the query over all heights.
+     */
+    private void assertPage(List<Integer> expected, int numberOfConfirmations, int blockTimestamp, int from, int to) {
+        splitByHeight(true);
+        List<Integer> windowed = heights(numberOfConfirmations, blockTimestamp, from, to);
+        splitByHeight(false);
+        List<Integer> all = heights(numberOfConfirmations, blockTimestamp, from, to);
+
+        assertEquals(expected, windowed);
+        assertEquals(all, windowed);
+    }
+
+    @Test
+    public void aPageInTheNewestRangeIsFound() {
+        assertPage(Arrays.asList(3950, 3100), 0, 0, 0, 1);
+    }
+
+    @Test
+    public void theWindowGrowsUntilThePageIsFull() {
+        assertPage(Arrays.asList(3950, 3100, 2900), 0, 0, 0, 2);
+        assertPage(Arrays.asList(2300, 2300, 1150), 0, 0, 3, 5);
+        assertPage(Arrays.asList(1100, 5), 0, 0, 6, 7);
+    }
+
+    @Test
+    public void aPagePastTheHistoryReadsAllRanges() {
+        assertPage(Arrays.asList(1100, 5), 0, 0, 6, 20);
+        assertPage(Arrays.asList(), 0, 0, 8, 20);
+    }
+
+    @Test
+    public void unlimitedRequestsAreReadInOneQuery() {
+        assertPage(Arrays.asList(3950, 3100, 2900, 2300, 2300, 1150, 1100, 5), 0, 0, 0, -1);
+        assertPage(Arrays.asList(1150, 1100, 5), 0, 0, 5, -1);
+    }
+
+    @Test
+    public void theBlockTimestampBoundsTheWindow() {
+        assertPage(Arrays.asList(2300, 2300, 1150), 0, blockTimestamp(1150), 3, 10);
+        assertPage(Arrays.asList(), 0, blockTimestamp(CHAIN_HEIGHT) + 1, 0, 10);
+    }
+
+    @Test
+    public void confirmationsBoundTheNewestRange() {
+        // at most height 3050
+        assertPage(Arrays.asList(2900, 2300), 900, 0, 0, 1);
+        assertPage(Arrays.asList(2300, 1150, 1100), 900, 0, 2, 4);
+    }
+}
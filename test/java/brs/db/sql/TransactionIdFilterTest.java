@@ -0,0 +1,44 @@
+package brs.db.sql;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JUnit4.class)
+public class TransactionIdFilterTest {
+
+    @Test
+    public void neverMissesAddedIds() {
+        TransactionIdFilter filter = new TransactionIdFilter(1000);
+        Random random = new Random(1);
+        long[] ids = new long[200000];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = random.nextLong();
+            filter.add(ids[i]);
+        }
+        for (long id : ids) {
+            assertTrue(filter.mightContain(id));
+        }
+    }
+
+    @Test
+    public void rejectsMostUnknownIds() {
+        TransactionIdFilter filter = new TransactionIdFilter(100000);
+        Random random = new Random(2);
+        for (int i = 0; i < 100000; i++) {
+            filter.add(random.nextLong());
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100000; i++) {
+            if (filter.mightContain(random.nextLong())) {
+                falsePositives++;
+            }
+        }
+        assertTrue("false positives: " + falsePositives, falsePositives < 2000);
+    }
+}
@@ -0,0 +1,131 @@
+package brs.db.sql;
+
+import brs.common.AbstractDbTest;
+import brs.db.BurstKey;
+import org.jooq.Record;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static brs.schema.Tables.ACCOUNT_ASSET;
+import static brs.schema.Tables.ALIAS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class VersionedEntitySqlTableTest extends AbstractDbTest {
+
+    private static final DbKey.LongKeyFactory<Object> aliasDbKeyFactory = new DbKey.LongKeyFactory<Object>(ALIAS.ID) {
+        @Override
+        public BurstKey newKey(Object alias) {
+            throw new UnsupportedOperationException();
+        }
+    };
+
+    private static final DbKey.LinkKeyFactory<Object> accountAssetDbKeyFactory = new DbKey.LinkKeyFactory<Object>("account_id", "asset_id") {
+        @Override
+        public BurstKey newKey(Object accountAsset) {
+            throw new UnsupportedOperationException();
+        }
+    };
+
+    private static void insertAlias(long id, int height, boolean latest) {
+        Db.useDSLContext(ctx -> {
+            ctx.insertInto(ALIAS, ALIAS.ID, ALIAS.ACCOUNT_ID, ALIAS.ALIAS_NAME, ALIAS.ALIAS_URI, ALIAS.TIMESTAMP, ALIAS.HEIGHT, ALIAS.LATEST)
+                .values(id, 1L, "alias" + id, "uri" + height, height, height, latest).execute();
+        });
+    }
+
+    private static void insertAccountAsset(long accountId, long assetId, int height, boolean latest) {
+        Db.useDSLContext(ctx -> {
+            ctx.insertInto(ACCOUNT_ASSET, ACCOUNT_ASSET.ACCOUNT_ID, ACCOUNT_ASSET.ASSET_ID, ACCOUNT_ASSET.QUANTITY, ACCOUNT_ASSET.UNCONFIRMED_QUANTITY,
+                ACCOUNT_ASSET.HEIGHT, ACCOUNT_ASSET.LATEST)
+                .values(accountId, assetId, (long) height, (long) height, height, latest).execute();
+        });
+    }
+
+    /**
+     * @return height and latest flag of every row of the alias, oldest first
+     */
+    private static List<String> aliasVersions(long id) {
+        return Db.useDSLContext(ctx -> {
+            return ctx.select(ALIAS.HEIGHT, ALIAS.LATEST).from(ALIAS).where(ALIAS.ID.eq(id)).orderBy(ALIAS.HEIGHT)
+                .fetch(VersionedEntitySqlTableTest::version);
+        });
+    }
+
+    private static List<String> accountAssetVersions(long accountId, long assetId) {
+        return Db.useDSLContext(ctx -> {
+            return ctx.select(ACCOUNT_ASSET.HEIGHT, ACCOUNT_ASSET.LATEST).from(ACCOUNT_ASSET)
+                .where(ACCOUNT_ASSET.ACCOUNT_ID.eq(accountId)).and(ACCOUNT_ASSET.ASSET_ID.eq(assetId)).orderBy(ACCOUNT_ASSET.HEIGHT)
+                .fetch(VersionedEntitySqlTableTest::version);
+        });
+    }
+
+    private static String version(Record record) {
+        return record.get(0, Integer.class) + (record.get(1, Boolean.class) ? " latest" : "");
+    }
+
+    @Test
+    public void rollbackRestoresTheNewestRemainingVersionOfEveryKey() {
+        insertAlias(1L, 1, false);
+        insertAlias(1L, 5, false);
+        insertAlias(1L, 10, true);
+        insertAlias(2L, 3, false);
+        insertAlias(2L, 7, false);
+        insertAlias(2L, 9, true);
+
+        inTransaction(() -> VersionedEntitySqlTable.rollback("alias", ALIAS, ALIAS.HEIGHT, ALIAS.LATEST, 6, aliasDbKeyFactory));
+
+        assertEquals(Arrays.asList("1", "5 latest"), aliasVersions(1L));
+        assertEquals(Arrays.asList("3 latest"), aliasVersions(2L));
+    }
+
+    @Test
+    public void rollbackRemovesKeysCreatedAboveTheHeight() {
+        insertAlias(1L, 8, false);
+        insertAlias(1L, 9, true);
+
+        inTransaction(() -> VersionedEntitySqlTable.rollback("alias", ALIAS, ALIAS.HEIGHT, ALIAS.LATEST, 6, aliasDbKeyFactory));
+
+        assertTrue(aliasVersions(1L).isEmpty());
+    }
+
+    @Test
+    public void rollbackLeavesKeysWithoutNewerVersionsAlone() {
+        insertAlias(1L, 2, false);
+        insertAlias(1L, 4, true);
+        // an older version that is not the latest one must stay that way
+        insertAlias(2L, 1, false);
+        insertAlias(2L, 3, true);
+        insertAlias(3L, 9, true);
+
+        inTransaction(() -> VersionedEntitySqlTable.rollback("alias", ALIAS, ALIAS.HEIGHT, ALIAS.LATEST, 6, aliasDbKeyFactory));
+
+        assertEquals(Arrays.asList("2", "4 latest"), aliasVersions(1L));
+        assertEquals(Arrays.asList("1", "3 latest"), aliasVersions(2L));
+        assertTrue(aliasVersions(3L).isEmpty());
+    }
+
+    @Test
+    public void rollbackMatchesVersionsOnAllKeyColumns() {
+        insertAccountAsset(1L, 1L, 2, false);
+        insertAccountAsset(1L, 1L, 8, true);
+        insertAccountAsset(1L, 2L, 4, false);
+        insertAccountAsset(1L, 2L, 5, true);
+        insertAccountAsset(2L, 1L, 3, false);
+        insertAccountAsset(2L, 1L, 9, true);
+
+        inTransaction(() -> VersionedEntitySqlTable.rollback("account_asset", ACCOUNT_ASSET, ACCOUNT_ASSET.HEIGHT, ACCOUNT_ASSET.LATEST, 6,
+            accountAssetDbKeyFactory));
+
+        assertEquals(Arrays.asList("2 latest"), accountAssetVersions(1L, 1L));
+        assertEquals(Arrays.asList("4", "5 latest"), accountAssetVersions(1L, 2L));
+        assertEquals(Arrays.asList("3 latest"), accountAssetVersions(2L, 1L));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void rollbackRequiresATransaction() {
+        VersionedEntitySqlTable.rollback("alias", ALIAS, ALIAS.HEIGHT, ALIAS.LATEST, 6, aliasDbKeyFactory);
+    }
+}
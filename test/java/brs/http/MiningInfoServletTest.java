@@ -0,0 +1,338 @@
+package brs.http;
+
+import brs.Block;
+import brs.Blockchain;
+import brs.BlockchainProcessor;
+import brs.Generator;
+import brs.props.PropertyService;
+import brs.props.Props;
+import brs.util.Listener;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.mockito.ArgumentCaptor;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(JUnit4.class)
+public class MiningInfoServletTest {
+
+    private static final String STREAM = "text/event-stream";
+
+    private Listener<Block> blockListener;
+
+    private MiningInfoServlet t;
+
+    @Before
+    public void setUp() {
+        setUp(10, 2);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void setUp(int maxSubscriptions, int maxSubscriptionsPerHost) {
+        if (t != null) {
+            t.destroy();
+        }
+        BlockchainProcessor blockchainProcessor = mock(BlockchainProcessor.class);
+        Blockchain blockchain = mock(Blockchain.class);
+        Generator generator = mock(Generator.class);
+        PropertyService propertyService = mock(PropertyService.class);
+
+        Block lastBlock = block(10);
+        when(blockchain.getLastBlock()).thenReturn(lastBlock);
+        when(generator.calculateGenerationSignature(any(), anyLong())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(propertyService.getString(Props.API_ALLOWED_ORIGINS)).thenReturn("*");
+        when(propertyService.getInt(Props.API_MINING_INFO_PUSH_TIMEOUT)).thenReturn(60000);
+        when(propertyService.getInt(Props.API_MINING_INFO_PUSH_MAX_SUBSCRIPTIONS)).thenReturn(maxSubscriptions);
+        when(propertyService.getInt(Props.API_MINING_INFO_PUSH_MAX_SUBSCRIPTIONS_PER_HOST)).thenReturn(maxSubscriptionsPerHost);
+
+        t = new MiningInfoServlet(blockchainProcessor, blockchain, generator, propertyService, null);
+
+        ArgumentCaptor<Listener<Block>> listener = ArgumentCaptor.forClass(Listener.class);
+        verify(blockchainProcessor).addListener(listener.capture(), eq(BlockchainProcessor.Event.BLOCK_PUSHED));
+        blockListener = listener.getValue();
+    }
+
+    @After
+    public void tearDown() {
+        t.destroy();
+    }
+
+    private static Block block(int height) {
+        Block block = mock(Block.class);
+        when(block.getHeight()).thenReturn(height);
+        when(block.getGenerationSignature()).thenReturn(new byte[] {(byte) height});
+        when(block.getBaseTarget()).thenReturn(1000L + height);
+        return block;
+    }
+
+    private static String miningInfo(int height) {
+        return "{\"height\":\"" + height + "\",\"generationSignature\":\"" + String.format("%02x", height - 1) + "\",\"baseTarget\":\"" + (999 + height) + "\"}";
+    }
+
+    private static String event(int height) {
+        return "data: " + miningInfo(height) + "\n\n";
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long end = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue("timed out", System.currentTimeMillis() < end);
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    public void plainRequestsAreAnsweredDirectly() {
+        Request request = new Request("10.0.0.1", null, null);
+        t.doGet(request.req, request.resp);
+
+        assertEquals(miningInfo(11), request.out.written());
+        verify(request.req, never()).startAsync();
+    }
+
+    @Test
+    public void longPollsForAnOutdatedHeightAreAnsweredDirectly() {
+        Request request = new Request("10.0.0.1", "10", null);
+        t.doGet(request.req, request.resp);
+
+        assertEquals(miningInfo(11), request.out.written());
+        verify(request.req, never()).startAsync();
+    }
+
+    @Test
+    public void newBlocksAreFannedOutToAllSubscribers() throws Exception {
+        Request stream1 = new Request("10.0.0.1", null, STREAM);
+        Request stream2 = new Request("10.0.0.2", null, STREAM);
+        Request longPoll = new Request("10.0.0.3", "11", null);
+        t.doGet(stream1.req, stream1.resp);
+        t.doGet(stream2.req, stream2.resp);
+        t.doGet(longPoll.req, longPoll.resp);
+
+        waitFor(() -> stream1.out.written().equals(event(11)) && stream2.out.written().equals(event(11)));
+        assertEquals("", longPoll.out.written());
+
+        blockListener.notify(block(11));
+
+        waitFor(() -> stream1.out.written().equals(event(11) + event(12)) && stream2.out.written().equals(event(11) + event(12)));
+        waitFor(() -> longPoll.out.written().equals(miningInfo(12)));
+        verify(longPoll.context, timeout(5000)).complete();
+        verify(stream1.context, never()).complete();
+    }
+
+    @Test
+    public void disconnectedSubscribersAreDroppedAndReleaseTheirSlot() throws Exception {
+        setUp(10, 1);
+        Request stream = new Request("10.0.0.1", null, STREAM);
+        t.doGet(stream.req, stream.resp);
+        waitFor(() -> stream.out.written().equals(event(11)));
+
+        // the host has used up its slot
+        Request refused = new Request("10.0.0.1", null, STREAM);
+        t.doGet(refused.req, refused.resp);
+        verify(refused.resp).setStatus(503);
+
+        stream.disconnect();
+        blockListener.notify(block(11));
+
+        Request reconnected = new Request("10.0.0.1", null, STREAM);
+        t.doGet(reconnected.req, reconnected.resp);
+        waitFor(() -> reconnected.out.written().equals(event(12)));
+        assertEquals(event(11), stream.out.written());
+    }
+
+    @Test
+    public void requestsThatCannotBeWrittenToAreNotHeld() throws Exception {
+        setUp(10, 1);
+        Request broken = new Request("10.0.0.1", null, STREAM);
+        broken.out.rejectWriteListener();
+        try {
+            t.doGet(broken.req, broken.resp);
+        } catch (IllegalStateException expected) {
+            // thrown by the container
+        }
+
+        Request stream = new Request("10.0.0.1", null, STREAM);
+        t.doGet(stream.req, stream.resp);
+        waitFor(() -> stream.out.written().equals(event(11)));
+        blockListener.notify(block(11));
+        waitFor(() -> stream.out.written().equals(event(11) + event(12)));
+        assertEquals("", broken.out.written());
+    }
+
+    @Test
+    public void slowSubscribersOnlyGetTheLatestMiningInfoAndDoNotHoldUpOthers() throws Exception {
+        Request slow = new Request("10.0.0.1", null, STREAM);
+        Request fast = new Request("10.0.0.2", null, STREAM);
+        t.doGet(slow.req, slow.resp);
+        t.doGet(fast.req, fast.resp);
+        waitFor(() -> slow.out.written().equals(event(11)) && fast.out.written().equals(event(11)));
+
+        slow.out.stall();
+        blockListener.notify(block(11));
+        waitFor(() -> fast.out.written().equals(event(11) + event(12)));
+        blockListener.notify(block(12));
+        waitFor(() -> fast.out.written().equals(event(11) + event(12) + event(13)));
+        blockListener.notify(block(13));
+        waitFor(() -> fast.out.written().equals(event(11) + event(12) + event(13) + event(14)));
+
+        // the first write after stalling is still accepted, then only the latest mining info waits for the slow miner
+        assertEquals(event(11) + event(12), slow.out.written());
+
+        slow.out.catchUp();
+        waitFor(() -> slow.out.written().equals(event(11) + event(12) + event(14)));
+    }
+
+    @Test
+    public void subscriptionsAreLimitedInTotal() throws Exception {
+        setUp(2, 2);
+        Request first = new Request("10.0.0.1", null, STREAM);
+        Request second = new Request("10.0.0.2", "11", null);
+        Request third = new Request("10.0.0.3", null, STREAM);
+        t.doGet(first.req, first.resp);
+        t.doGet(second.req, second.resp);
+        t.doGet(third.req, third.resp);
+
+        verify(third.resp).setStatus(503);
+        assertTrue(third.writer.toString().contains("Too many open mining info requests"));
+        verify(third.req, never()).startAsync();
+
+        // answering the long-poll frees its slot
+        blockListener.notify(block(11));
+        verify(second.context, timeout(5000)).complete();
+        assertEquals(miningInfo(12), second.out.written());
+        Request fourth = new Request("10.0.0.3", null, STREAM);
+        t.doGet(fourth.req, fourth.resp);
+        waitFor(() -> fourth.out.written().equals(event(12)));
+    }
+
+    /**
+     * A request whose async context behaves like the container's: completing it notifies its listeners.
+     */
+    private static final class Request {
+        private final HttpServletRequest req = mock(HttpServletRequest.class);
+        private final HttpServletResponse resp = mock(HttpServletResponse.class);
+        private final AsyncContext context = mock(AsyncContext.class);
+        private final FakeOutputStream out = new FakeOutputStream();
+        private final StringWriter writer = new StringWriter();
+        private final List<AsyncListener> listeners = new ArrayList<>();
+
+        private Request(String host, String height, String accept) {
+            when(req.getRemoteAddr()).thenReturn(host);
+            when(req.getRemoteHost()).thenReturn(host);
+            when(req.getParameter("height")).thenReturn(height);
+            when(req.getHeader("Accept")).thenReturn(accept);
+            when(req.startAsync()).thenReturn(context);
+            when(context.getResponse()).thenReturn(resp);
+            doAnswer(invocation -> listeners.add(invocation.getArgument(0))).when(context).addListener(any(AsyncListener.class));
+            doAnswer(invocation -> {
+                for (AsyncListener listener : listeners) {
+                    listener.onComplete(new AsyncEvent(context));
+                }
+                return null;
+            }).when(context).complete();
+            try {
+                when(resp.getOutputStream()).thenReturn(out);
+                when(resp.getWriter()).thenReturn(new PrintWriter(writer));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void disconnect() throws IOException {
+            for (AsyncListener listener : listeners) {
+                listener.onError(new AsyncEvent(context, new IOException("connection reset")));
+            }
+        }
+    }
+
+    /**
+     * Output of a non-blocking response that can stop accepting writes, like a miner that does not read.
+     */
+    private static final class FakeOutputStream extends ServletOutputStream {
+        private final ByteArrayOutputStream written = new ByteArrayOutputStream();
+        private boolean stalled;
+        private boolean ready = true;
+        private boolean rejectWriteListener;
+        private WriteListener listener;
+
+        @Override
+        public synchronized boolean isReady() {
+            return ready;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            if (rejectWriteListener) {
+                throw new IllegalStateException("not async");
+            }
+            listener = writeListener;
+            try {
+                writeListener.onWritePossible();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public synchronized void write(int b) {
+            written.write(b);
+            ready = !stalled;
+        }
+
+        @Override
+        public synchronized void write(byte[] bytes, int offset, int length) {
+            written.write(bytes, offset, length);
+            ready = !stalled;
+        }
+
+        private synchronized String written() {
+            return new String(written.toByteArray(), StandardCharsets.UTF_8);
+        }
+
+        private void rejectWriteListener() {
+            rejectWriteListener = true;
+        }
+
+        private synchronized void stall() {
+            stalled = true;
+        }
+
+        private void catchUp() throws IOException {
+            synchronized (this) {
+                stalled = false;
+                ready = true;
+            }
+            listener.onWritePossible();
+        }
+    }
+}
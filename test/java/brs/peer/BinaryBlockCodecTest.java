@@ -0,0 +1,55 @@
+package brs.peer;
+
+import brs.Block;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@RunWith(JUnit4.class)
+public class BinaryBlockCodecTest {
+
+    private static Block block(byte... binaryBytes) {
+        Block block = mock(Block.class);
+        when(block.getBinaryBytes()).thenReturn(binaryBytes);
+        return block;
+    }
+
+    @Test
+    public void framesRoundTrip() {
+        byte[] response = BinaryBlockCodec.writeBlocks(Arrays.asList(block(1, 2, 3), block(), block(4)));
+
+        List<byte[]> frames = BinaryBlockCodec.readBlocks(response, 3);
+
+        assertEquals(3, frames.size());
+        assertArrayEquals(new byte[]{1, 2, 3}, frames.get(0));
+        assertArrayEquals(new byte[0], frames.get(1));
+        assertArrayEquals(new byte[]{4}, frames.get(2));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void readBlocksRejectsMoreBlocksThanRequested() {
+        BinaryBlockCodec.readBlocks(BinaryBlockCodec.writeBlocks(Arrays.asList(block(1), block(2))), 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void readBlocksRejectsTrailingBytes() {
+        byte[] response = BinaryBlockCodec.writeBlocks(Arrays.asList(block(1), block(2)));
+
+        BinaryBlockCodec.readBlocks(Arrays.copyOf(response, response.length + 1), 2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void readBlocksRejectsFramesLongerThanTheResponse() {
+        byte[] response = BinaryBlockCodec.writeBlocks(Arrays.asList(block(1, 2, 3)));
+
+        BinaryBlockCodec.readBlocks(Arrays.copyOf(response, response.length - 1), 1);
+    }
+}
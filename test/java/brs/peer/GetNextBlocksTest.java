@@ -31,6 +31,7 @@ public class GetNextBlocksTest {
         mockPeer = mock(Peer.class);
         Block mockBlock = mock(Block.class);
         when(mockBlock.getJsonObject()).thenReturn(new JsonObject());
+        when(mockBlock.getBinaryBytes()).thenReturn(new byte[]{1, 2, 3});
         List<Block> blocks = new ArrayList<>();
         for (int i = 0; i < 100; i++) {
             blocks.add(mockBlock);
@@ -73,4 +74,24 @@ public class GetNextBlocksTest {
         JsonArray nextBlocks = nextBlocksElement.getAsJsonArray();
         assertEquals(0, nextBlocks.size());
     }
+
+    @Test
+    public void testGetNextBlocks_binary() {
+        JsonObject request = new JsonObject();
+        request.addProperty("blockId", Long.toUnsignedString(Genesis.GENESIS_BLOCK_ID));
+        byte[] response = getNextBlocks.processBinaryRequest(request, mockPeer);
+        assertNotNull(response);
+        List<byte[]> nextBlocks = BinaryBlockCodec.readBlocks(response, 1440);
+        assertEquals(100, nextBlocks.size());
+        for (byte[] nextBlock : nextBlocks) {
+            assertArrayEquals(new byte[]{1, 2, 3}, nextBlock);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetNextBlocks_binaryTooManyBlocks() {
+        JsonObject request = new JsonObject();
+        request.addProperty("blockId", Long.toUnsignedString(Genesis.GENESIS_BLOCK_ID));
+        BinaryBlockCodec.readBlocks(getNextBlocks.processBinaryRequest(request, mockPeer), 10);
+    }
 }
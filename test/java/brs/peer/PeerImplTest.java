@@ -0,0 +1,189 @@
+package brs.peer;
+
+import com.google.gson.JsonObject;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JUnit4.class)
+public class PeerImplTest {
+
+    private HttpServer server;
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+    private volatile int responseCode;
+    private volatile String contentType;
+    private volatile byte[] responseBody;
+    private volatile long responseDelay;
+
+    private PeerImpl t;
+
+    @Before
+    public void setUp() throws IOException {
+        responseCode = 200;
+        contentType = "application/json";
+        responseBody = "{}".getBytes(StandardCharsets.UTF_8);
+        responseDelay = 0;
+
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/burst", this::handle);
+        server.start();
+
+        Peers.connectTimeout = 2000;
+        Peers.readTimeout = 2000;
+        Peers.communicationLoggingMask = 0;
+        Peers.keepAlive = true;
+        Peers.knownBlacklistedPeers = Collections.emptySet();
+
+        String address = "127.0.0.1:" + server.getAddress().getPort();
+        t = new PeerImpl(address, address);
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        clientPorts.add(exchange.getRemoteAddress().getPort());
+        try (InputStream requestBody = exchange.getRequestBody()) {
+            while (requestBody.read() != -1) {
+                // drain the request
+            }
+        }
+        if (responseDelay > 0) {
+            try {
+                Thread.sleep(responseDelay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(responseCode, responseBody.length);
+        try (OutputStream body = exchange.getResponseBody()) {
+            body.write(responseBody);
+        }
+    }
+
+    private static JsonObject request() {
+        JsonObject request = new JsonObject();
+        request.addProperty("requestType", "getInfo");
+        return request;
+    }
+
+    @Test
+    public void keepAliveReusesTheConnectionForFurtherRequests() {
+        t.send(request());
+        t.send(request());
+        t.send(request());
+
+        assertEquals(1, clientPorts.size());
+        assertEquals(3, t.getRequestCount());
+        assertEquals(0, t.getFailedRequestCount());
+    }
+
+    @Test
+    public void withoutKeepAliveEveryRequestOpensAConnection() {
+        Peers.keepAlive = false;
+
+        t.send(request());
+        t.send(request());
+
+        assertEquals(2, clientPorts.size());
+        assertEquals(2, t.getRequestCount());
+    }
+
+    @Test
+    public void fullyReadBinaryResponsesKeepTheConnection() {
+        contentType = BinaryBlockCodec.CONTENT_TYPE;
+        responseBody = new byte[] {1, 2, 3};
+
+        assertEquals(3, t.sendBinary(request(), 3).length);
+        assertEquals(3, t.sendBinary(request(), 3).length);
+
+        assertEquals(1, clientPorts.size());
+        assertEquals(0, t.getFailedRequestCount());
+    }
+
+    @Test
+    public void oversizedBinaryResponsesFailAndCloseTheConnection() {
+        contentType = BinaryBlockCodec.CONTENT_TYPE;
+        responseBody = new byte[] {1, 2, 3};
+
+        assertNull(t.sendBinary(request(), 2));
+        assertTrue(t.isBlacklisted());
+        assertEquals(1, t.getFailedRequestCount());
+
+        t.unBlacklist();
+        assertEquals(3, t.sendBinary(request(), 3).length);
+        assertEquals(2, clientPorts.size());
+    }
+
+    @Test
+    public void jsonAnswersToBinaryRequestsSwitchThePeerToJson() {
+        t.negotiateBinaryBlocks(true);
+
+        assertNull(t.sendBinary(request(), 100));
+
+        assertFalse(t.supportsBinaryBlocks());
+        assertEquals(0, t.getFailedRequestCount());
+    }
+
+    @Test
+    public void theBlockFormatIsNegotiatedOncePerConnection() {
+        t.negotiateBinaryBlocks(true);
+        t.setState(Peer.State.CONNECTED);
+
+        t.negotiateBinaryBlocks(false);
+        t.negotiateBinaryBlocks(null);
+        assertTrue(t.supportsBinaryBlocks());
+
+        t.setState(Peer.State.DISCONNECTED);
+        t.negotiateBinaryBlocks(false);
+        t.setState(Peer.State.CONNECTED);
+        assertFalse(t.supportsBinaryBlocks());
+
+        t.negotiateBinaryBlocks(true);
+        assertFalse(t.supportsBinaryBlocks());
+    }
+
+    @Test
+    public void errorResponsesAreCountedAsFailedRequests() {
+        t.send(request());
+        responseCode = 500;
+        JsonObject response = t.send(request());
+
+        assertTrue(response.has("error"));
+        assertEquals(2, t.getRequestCount());
+        assertEquals(1, t.getFailedRequestCount());
+    }
+
+    @Test
+    public void averageResponseTimeCoversAllRequests() {
+        assertEquals(0, t.getAverageResponseTime());
+        responseDelay = 100;
+
+        t.send(request());
+        t.send(request());
+
+        assertTrue(t.getAverageResponseTime() >= 100);
+    }
+}
@@ -27,6 +27,7 @@ import org.mockito.Answers;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 
+import java.util.Collections;
 import java.util.List;
 
 import static brs.Attachment.ORDINARY_PAYMENT;
@@ -105,6 +106,32 @@ public class UnconfirmedTransactionStoreTest {
   }
 
 
+  @DisplayName("When we remove an Unconfirmed Transaction from the store, it can no longer be retrieved")
+  @Test
+  public void transactionsCanNoLongerBeRetrievedAfterRemovingThemFromStore() throws ValidationException {
+
+    when(mockBlockChain.getHeight()).thenReturn(20);
+
+    for (int i = 1; i <= 10; i++) {
+      Transaction transaction = new Transaction.Builder((byte) 1, TestConstants.TEST_PUBLIC_KEY_BYTES, i, FEE_QUANT * 100, timeService.getEpochTime() + 50000, (short) 500, ORDINARY_PAYMENT)
+          .id(i).senderId(123L).build();
+      transaction.sign(TestConstants.TEST_SECRET_PHRASE);
+      t.put(transaction, null);
+    }
+
+    final Transaction removed = t.get(5L);
+    assertNotNull(removed);
+    assertEquals(10, t.getAll().size());
+
+    t.remove(removed);
+
+    assertNull(t.get(5L));
+    assertFalse(t.exists(5L));
+    assertEquals(9, t.getAll().size());
+    assertEquals(9, t.getAmount());
+    assertFalse(t.getAll().contains(removed));
+  }
+
   @DisplayName("When a transaction got added by a peer, he won't get it reflected at him when getting unconfirmed transactions")
   @Test
   public void transactionsGivenByPeerWontGetReturnedToPeer() throws ValidationException {
@@ -338,4 +365,66 @@ public class UnconfirmedTransactionStoreTest {
     assertNotNull(t.get(expensive.getId()));
   }
 
+  @DisplayName("Resetting the balances of some accounts only drops the unaffordable transactions of those accounts")
+  @Test
+  public void resettingBalancesOfSomeAccountsOnlyAffectsTheirTransactions() throws ValidationException {
+    when(mockBlockChain.getHeight()).thenReturn(20);
+
+    final Account otherAccount = mock(Account.class);
+    final BurstKey otherAccountKey = mock(BurstKey.class);
+    when(accountBurstKeyFactoryMock.newKey(eq(456L))).thenReturn(otherAccountKey);
+    when(accountTableMock.get(eq(otherAccountKey))).thenReturn(otherAccount);
+    when(otherAccount.getUnconfirmedBalanceNQT()).thenReturn(Constants.MAX_BALANCE_NQT);
+
+    for (int i = 1; i <= 6; i++) {
+      Transaction transaction = new Transaction.Builder((byte) 1, TestConstants.TEST_PUBLIC_KEY_BYTES, 1, FEE_QUANT * 100, timeService.getEpochTime() + 50000, (short) 500, ORDINARY_PAYMENT)
+          .id(i).senderId(i <= 3 ? 123L : 456L).build();
+      transaction.sign(TestConstants.TEST_SECRET_PHRASE);
+      t.put(transaction, null);
+    }
+    assertEquals(6, t.getAmount());
+
+    when(otherAccount.getUnconfirmedBalanceNQT()).thenReturn(2 * (FEE_QUANT * 100 + 1) - 1);
+
+    t.resetAccountBalances(Collections.singleton(123L));
+    assertEquals(6, t.getAmount());
+
+    t.resetAccountBalances(Collections.singleton(456L));
+    assertEquals(4, t.getAmount());
+    assertEquals(1, t.getAll().stream().filter(transaction -> transaction.getSenderId() == 456L).count());
+  }
+
+  @DisplayName("A cheaper duplicate that is not added does not keep funds of its sender reserved")
+  @Test
+  public void cheaperDuplicateTransactionDoesNotReserveBalance() throws ValidationException {
+    when(mockBlockChain.getHeight()).thenReturn(20);
+
+    Transaction expensive = new Transaction.Builder((byte) 1, TestConstants.TEST_PUBLIC_KEY_BYTES, 1, FEE_QUANT * 2, timeService.getEpochTime() + 50000, (short) 500,
+        new MessagingAliasSell("aliasName", 123, 5))
+        .id(1).senderId(456L).build();
+
+    Transaction cheap = new Transaction.Builder((byte) 1, TestConstants.TEST_PUBLIC_KEY_BYTES, 1, FEE_QUANT, timeService.getEpochTime() + 50000, (short) 500,
+        new MessagingAliasSell("aliasName", 123, 5))
+        .id(2).senderId(456L).build();
+
+    Transaction payment = new Transaction.Builder((byte) 1, TestConstants.TEST_PUBLIC_KEY_BYTES, 1, FEE_QUANT, timeService.getEpochTime() + 50000, (short) 500, ORDINARY_PAYMENT)
+        .id(3).senderId(456L).build();
+
+    final Account otherAccount = mock(Account.class);
+    final BurstKey otherAccountKey = mock(BurstKey.class);
+    when(accountBurstKeyFactoryMock.newKey(eq(456L))).thenReturn(otherAccountKey);
+    when(accountTableMock.get(eq(otherAccountKey))).thenReturn(otherAccount);
+    // just enough for the expensive duplicate and the payment
+    when(otherAccount.getUnconfirmedBalanceNQT()).thenReturn(1 + FEE_QUANT * 2 + 1 + FEE_QUANT);
+
+    t.put(expensive, null);
+    t.put(cheap, null);
+    t.put(payment, null);
+
+    assertEquals(2, t.getAll().size());
+    assertNotNull(t.get(expensive.getId()));
+    assertNull(t.get(cheap.getId()));
+    assertNotNull(t.get(payment.getId()));
+  }
+
 }
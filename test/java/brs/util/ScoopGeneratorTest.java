@@ -0,0 +1,36 @@
+package brs.util;
+
+import brs.common.QuickMocker;
+import brs.common.TestConstants;
+import brs.fluxcapacitor.FluxCapacitor;
+import brs.fluxcapacitor.FluxValues;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static org.junit.Assert.assertArrayEquals;
+
+@RunWith(JUnit4.class)
+public class ScoopGeneratorTest {
+
+    private static final long NONCE = 1234567L;
+
+    @Test
+    public void testScoopMatchesMiningPlotPoC1() {
+        assertScoopsMatchMiningPlot(QuickMocker.fluxCapacitorEnabledFunctionalities(), false);
+    }
+
+    @Test
+    public void testScoopMatchesMiningPlotPoC2() {
+        assertScoopsMatchMiningPlot(QuickMocker.fluxCapacitorEnabledFunctionalities(FluxValues.POC2), true);
+    }
+
+    private void assertScoopsMatchMiningPlot(FluxCapacitor fluxCapacitor, boolean poc2) {
+        MiningPlot plot = new MiningPlot(TestConstants.TEST_ACCOUNT_NUMERIC_ID_PARSED, NONCE, 0, fluxCapacitor);
+        byte[] scoop = new byte[MiningPlot.SCOOP_SIZE];
+        for (int scoopNum : new int[]{0, 1, 2047, 2048, 4095}) {
+            ScoopGenerator.generateScoop(TestConstants.TEST_ACCOUNT_NUMERIC_ID_PARSED, NONCE, scoopNum, poc2, scoop);
+            assertArrayEquals(plot.getScoop(scoopNum), scoop);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package brs.util;
+
+import brs.props.PropertyService;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+@RunWith(JUnit4.class)
+public class ThreadPoolTest {
+
+    @After
+    public void tearDown() {
+        ThreadPool.running.set(true);
+    }
+
+    @Test
+    public void shutdownStopsRegisteredExecutors() {
+        ThreadPool threadPool = new ThreadPool(mock(PropertyService.class));
+        ExecutorService executor = new ForkJoinPool(2);
+        threadPool.registerExecutor(executor);
+
+        threadPool.shutdown();
+
+        assertTrue(executor.isShutdown());
+    }
+}